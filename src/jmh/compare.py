@@ -0,0 +1,101 @@
+#!/usr/bin/env python3
+"""Compares a JMH JSON result against a stored baseline and exits with 1 on regressions.
+
+Usage:
+    src/jmh/compare.py BASELINE CURRENT [--threshold 0.10] [--alloc-threshold 0.05]
+
+Produce either file with ./mvnw -Pbenchmarks test-compile exec:exec, which writes target/jmh-result.json.
+Throughput is flagged when it drops, sample time and allocation per operation when they grow, by more than the
+threshold fraction and by more than the combined error of both runs.
+"""
+
+import argparse
+import json
+import sys
+
+# Older JMH versions prefix secondary metrics with a middle dot
+ALLOC_METRICS = ("gc.alloc.rate.norm", "·gc.alloc.rate.norm")
+LOWER_IS_BETTER = {"sample", "avgt", "ss"}
+
+
+def load(path):
+    with open(path, encoding="utf-8") as file:
+        results = {}
+        for run in json.load(file):
+            params = ",".join(f"{key}={value}" for key, value in sorted(run.get("params", {}).items()))
+            name = ".".join(run["benchmark"].split(".")[-2:])
+            results[(name, run["mode"], params)] = run
+        return results
+
+
+def allocation(run):
+    metrics = run.get("secondaryMetrics", {})
+    return next((metrics[name] for name in ALLOC_METRICS if name in metrics), None)
+
+
+def error(metric):
+    value = metric.get("scoreError")
+    return 0.0 if value in (None, "NaN") else float(value)
+
+
+def change(before, after, lower_is_better):
+    if before == 0:
+        return 0.0
+    delta = (after - before) / before
+    return delta if lower_is_better else -delta
+
+
+def compare(label, before, after, lower_is_better, threshold, unit):
+    regression = change(before["score"], after["score"], lower_is_better)
+    significant = abs(after["score"] - before["score"]) > error(before) + error(after)
+    flagged = regression > threshold and significant
+    print(
+        f"{'REGRESSION' if flagged else 'ok':<10}  {label:<70}  "
+        f"{before['score']:>14.3f} -> {after['score']:>14.3f} {unit:<12} {regression * 100:+7.1f}%"
+    )
+    return flagged
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=0.10, help="Tolerated slowdown, as a fraction")
+    parser.add_argument("--alloc-threshold", type=float, default=0.05, help="Tolerated extra allocation per op")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+    regressions = 0
+
+    for key in sorted(current):
+        name, mode, params = key
+        label = f"{name} [{mode}]" + (f" {params}" if params else "")
+        if key not in baseline:
+            print(f"{'new':<10}  {label}")
+            continue
+
+        before, after = baseline[key], current[key]
+        regressions += compare(
+            label,
+            before["primaryMetric"],
+            after["primaryMetric"],
+            mode in LOWER_IS_BETTER,
+            args.threshold,
+            after["primaryMetric"]["scoreUnit"],
+        )
+
+        before_alloc = allocation(before)
+        after_alloc = allocation(after)
+        if before_alloc and after_alloc and mode not in LOWER_IS_BETTER:
+            regressions += compare(label + " alloc", before_alloc, after_alloc, True, args.alloc_threshold, "B/op")
+
+    for key in sorted(set(baseline) - set(current)):
+        print(f"{'missing':<10}  {key[0]} [{key[1]}] {key[2]}")
+
+    print(f"\n{regressions} regression(s) against {args.baseline}")
+    return 1 if regressions else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,122 @@
+package com.shorty.jmh;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.shorty.configs.CachingJwtDecoder;
+import com.shorty.configs.SecurityConfig;
+import com.shorty.utils.SecurityUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * An authenticated API request through the application's {@link SecurityConfig} filter chain: bearer token
+ * authentication, {@code CurrentUserFilter} and the authorization rules, ending where the controller would run.
+ * {@code cached=false} verifies the RSA signature on every request, as a plain {@link NimbusJwtDecoder} does, and
+ * {@code cached=true} goes through {@link CachingJwtDecoder}. Threads keep reusing tokens from a pool of active users,
+ * as API clients do between refreshes. The rate limit filter is left out so that it never rejects a measured request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AuthenticatedRequestBenchmark {
+
+    private static final int USERS = 1_000;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private List<String> tokens;
+    private AnnotationConfigWebApplicationContext context;
+    private Filter securityFilterChain;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        tokens = tokens(keyPair);
+
+        JwtDecoder verifying = NimbusJwtDecoder.withPublicKey((RSAPublicKey) keyPair.getPublic()).build();
+        JwtDecoder decoder = cached
+                ? new CachingJwtDecoder(verifying, Clock.systemUTC(), USERS * 2, new SimpleMeterRegistry())
+                : verifying;
+
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(SecurityConfig.class, WebConfig.class);
+        context.registerBean(JwtDecoder.class, () -> decoder);
+        context.refresh();
+        securityFilterChain = context.getBean("springSecurityFilterChain", Filter.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/urls");
+        request.addHeader(
+                HttpHeaders.AUTHORIZATION, "Bearer " + tokens.get(ThreadLocalRandom.current().nextInt(USERS)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        securityFilterChain.doFilter(request, response, (_, _) -> {
+            // Stands in for the controller, which reads the user bound by CurrentUserFilter
+            if (!SecurityUtils.CURRENT_USER.isBound()) {
+                throw new IllegalStateException("Request reached the controller unauthenticated");
+            }
+        });
+        return response;
+    }
+
+    private static List<String> tokens(KeyPair keyPair) throws Exception {
+        RSASSASigner signer = new RSASSASigner(keyPair.getPrivate());
+        Instant now = Instant.now();
+        List<String> tokens = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                    .subject(UUID.randomUUID().toString())
+                    .issueTime(Date.from(now))
+                    .expirationTime(Date.from(now.plus(Duration.ofHours(1))))
+                    .build();
+            SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims);
+            jwt.sign(signer);
+            tokens.add(jwt.serialize());
+        }
+        return tokens;
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class WebConfig {}
+}
@@ -0,0 +1,52 @@
+package com.shorty.jmh;
+
+import com.shorty.dtos.responses.PageResponse;
+import com.shorty.dtos.responses.UrlResponse;
+import com.shorty.mappers.UrlMapper;
+import com.shorty.mappers.UrlMapperImpl;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Response bodies of the create, details and listing endpoints, written with a default Jackson mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private UrlResponse response;
+    private PageResponse<UrlResponse> page;
+
+    @Setup
+    public void setUp() {
+        UrlMapper mapper = new UrlMapperImpl();
+        Instant expiresAt = Instant.now().plus(365, ChronoUnit.DAYS);
+        response = mapper.toResponse(UrlMappingBenchmark.mapping(expiresAt), "http://localhost:8080");
+        List<UrlResponse> content = IntStream.range(0, pageSize).mapToObj(_ -> response).toList();
+        page = new PageResponse<>(content, 0, pageSize, 10_000L, 10_000 / pageSize, true, false);
+    }
+
+    @Benchmark
+    public byte[] urlResponse() {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] pageResponse() {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
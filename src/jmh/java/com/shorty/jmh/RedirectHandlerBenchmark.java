@@ -0,0 +1,125 @@
+package com.shorty.jmh;
+
+import com.shorty.controllers.RedirectController;
+import com.shorty.entities.UrlMapping;
+import com.shorty.mappers.UrlMapperImpl;
+import com.shorty.repositories.UrlMappingRepository;
+import com.shorty.services.AccessLog;
+import com.shorty.services.ClickRecorder;
+import com.shorty.services.DatabaseCircuitBreaker;
+import com.shorty.services.ExpiryScheduler;
+import com.shorty.services.RedirectRules;
+import com.shorty.services.RedirectTargetLoader;
+import com.shorty.services.RedirectTargetResolver;
+import com.shorty.services.TombstoneCache;
+import com.shorty.services.UrlMetrics;
+import com.shorty.services.UrlService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * The whole redirect path from controller to repository, with a repository stub that answers instantly so the result
+ * is the application's own overhead. {@code cached=false} does the entity load and mapping on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedirectHandlerBenchmark {
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private RedirectTargetLoader loader;
+    private AccessLog accessLog;
+    private RedirectController controller;
+
+    @Setup
+    public void setUp() {
+        UrlMapping mapping = UrlMappingBenchmark.mapping(Instant.now().plus(365, ChronoUnit.DAYS));
+        UrlMappingRepository repository = repository(mapping);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        DatabaseCircuitBreaker circuitBreaker = new DatabaseCircuitBreaker(
+                meterRegistry,
+                true,
+                100,
+                20,
+                0.5,
+                Duration.ofMillis(500),
+                0.5,
+                Duration.ofSeconds(10),
+                Duration.ofSeconds(1));
+        loader = new RedirectTargetLoader(
+                repository,
+                new UrlMapperImpl(),
+                circuitBreaker,
+                new ExpiryScheduler(meterRegistry, true, Duration.ofSeconds(1)),
+                meterRegistry,
+                cached,
+                Duration.ofMinutes(10),
+                0.2,
+                Duration.ofSeconds(2),
+                100_000);
+        RedirectRules rules = new RedirectRules();
+        ReflectionTestUtils.setField(rules, "defaultSampleRate", 100);
+        ReflectionTestUtils.setField(rules, "maxAgeSeconds", 86_400L);
+        ReflectionTestUtils.setField(rules, "sharedMaxAgeSeconds", 60L);
+
+        // The access logger is off at WARN, so this measures sampling and the buffer handoff only
+        accessLog = new AccessLog(meterRegistry, true, 65_536, 512, Duration.ofMillis(200), 100, 1, 1, 1);
+        accessLog.start();
+
+        UrlService urlService = new UrlService(
+                repository,
+                null,
+                new UrlMapperImpl(),
+                new RedirectTargetResolver(loader, List.of()),
+                null,
+                new ClickRecorder(repository, circuitBreaker, meterRegistry, 100_000),
+                rules,
+                new UrlMetrics(meterRegistry, ObservationRegistry.NOOP),
+                accessLog,
+                new TombstoneCache(meterRegistry, true, Duration.ofMinutes(1), 100_000),
+                null);
+        controller = new RedirectController(urlService, rules);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        loader.shutdown();
+        accessLog.stop();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse redirect() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.redirectToOriginalUrl("abc1234", response);
+        return response;
+    }
+
+    // A plain proxy rather than a mock, which would record every invocation
+    private static UrlMappingRepository repository(UrlMapping mapping) {
+        return (UrlMappingRepository) Proxy.newProxyInstance(
+                UrlMappingRepository.class.getClassLoader(),
+                new Class<?>[] {UrlMappingRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByShortCode" -> Optional.of(mapping);
+                    case "incrementClickCount" -> 1;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,141 @@
+package com.shorty.jmh;
+
+import com.shorty.controllers.RedirectController;
+import com.shorty.entities.UrlMapping;
+import com.shorty.exceptions.GlobalExceptionHandler;
+import com.shorty.exceptions.UrlExpiredException;
+import com.shorty.exceptions.UrlNotFoundException;
+import com.shorty.mappers.UrlMapperImpl;
+import com.shorty.repositories.UrlMappingRepository;
+import com.shorty.services.AccessLog;
+import com.shorty.services.ClickRecorder;
+import com.shorty.services.DatabaseCircuitBreaker;
+import com.shorty.services.ExpiryScheduler;
+import com.shorty.services.RedirectRules;
+import com.shorty.services.RedirectTargetLoader;
+import com.shorty.services.RedirectTargetResolver;
+import com.shorty.services.TombstoneCache;
+import com.shorty.services.UrlMetrics;
+import com.shorty.services.UrlService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ProblemDetail;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Cost of answering an unknown or expired short code. {@code exception} is the path the redirect endpoint used to take:
+ * a stack-traced exception, {@link GlobalExceptionHandler} building a {@link ProblemDetail} and Jackson writing it.
+ * {@code result} is the current controller, which gets a result back and writes a precomputed body. Compare the
+ * allocation rate per operation from {@code -prof gc} as well as the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedirectMissBenchmark {
+
+    @Param({"missing", "expired"})
+    private String shortCode;
+
+    @Param({"true", "false"})
+    private boolean tombstones;
+
+    private final GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler();
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private RedirectTargetLoader loader;
+    private UrlService urlService;
+    private RedirectController controller;
+
+    @Setup
+    public void setUp() {
+        UrlMapping expired = UrlMappingBenchmark.mapping(Instant.now().minus(1, ChronoUnit.DAYS));
+        UrlMappingRepository repository = repository(expired);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        DatabaseCircuitBreaker circuitBreaker = new DatabaseCircuitBreaker(
+                meterRegistry,
+                true,
+                100,
+                20,
+                0.5,
+                Duration.ofMillis(500),
+                0.5,
+                Duration.ofSeconds(10),
+                Duration.ofSeconds(1));
+        loader = new RedirectTargetLoader(
+                repository,
+                new UrlMapperImpl(),
+                circuitBreaker,
+                new ExpiryScheduler(meterRegistry, true, Duration.ofSeconds(1)),
+                meterRegistry,
+                true,
+                Duration.ofMinutes(10),
+                0.2,
+                Duration.ofSeconds(2),
+                100_000);
+        RedirectRules rules = new RedirectRules();
+
+        urlService = new UrlService(
+                repository,
+                null,
+                new UrlMapperImpl(),
+                new RedirectTargetResolver(loader, List.of()),
+                null,
+                new ClickRecorder(repository, circuitBreaker, meterRegistry, 100_000),
+                rules,
+                new UrlMetrics(meterRegistry, ObservationRegistry.NOOP),
+                new AccessLog(meterRegistry, false, 2, 1, Duration.ofSeconds(1), 0, 0, 0, 0),
+                new TombstoneCache(meterRegistry, tombstones, Duration.ofMinutes(10), 100_000),
+                null);
+        controller = new RedirectController(urlService, rules);
+    }
+
+    @TearDown
+    public void tearDown() {
+        loader.shutdown();
+    }
+
+    @Benchmark
+    public byte[] exception() {
+        ProblemDetail problemDetail;
+        try {
+            urlService.resolveAndTrack(shortCode);
+            throw new IllegalStateException("Expected a miss for " + shortCode);
+        } catch (UrlNotFoundException e) {
+            problemDetail = exceptionHandler.handleUrlNotFound(e);
+        } catch (UrlExpiredException e) {
+            problemDetail = exceptionHandler.handleUrlExpired(e);
+        }
+        return objectMapper.writeValueAsBytes(problemDetail);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse result() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.redirectToOriginalUrl(shortCode, response);
+        return response;
+    }
+
+    private static UrlMappingRepository repository(UrlMapping expired) {
+        return (UrlMappingRepository) Proxy.newProxyInstance(
+                UrlMappingRepository.class.getClassLoader(),
+                new Class<?>[] {UrlMappingRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByShortCode" -> "expired".equals(args[0]) ? Optional.of(expired) : Optional.empty();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,35 @@
+package com.shorty.jmh;
+
+import com.shorty.utils.ShortCodeGenerator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Code generation runs on every create without a custom alias, alias validation on every create with one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShortCodeGeneratorBenchmark {
+
+    @Param({"7", "10"})
+    private int length;
+
+    @Param({"myalias1", "not-valid!"})
+    private String alias;
+
+    private final ShortCodeGenerator generator = new ShortCodeGenerator();
+
+    @Benchmark
+    public String generate() {
+        return generator.generate(length);
+    }
+
+    @Benchmark
+    public boolean isValidAlias() {
+        return generator.isValidAlias(alias);
+    }
+}
@@ -0,0 +1,178 @@
+package com.shorty.jmh;
+
+import com.shorty.configs.ConcurrencyLimitingDataSource;
+import com.shorty.controllers.RedirectController;
+import com.shorty.entities.UrlMapping;
+import com.shorty.mappers.UrlMapperImpl;
+import com.shorty.repositories.UrlMappingRepository;
+import com.shorty.services.AccessLog;
+import com.shorty.services.ClickRecorder;
+import com.shorty.services.DatabaseCircuitBreaker;
+import com.shorty.services.ExpiryScheduler;
+import com.shorty.services.RedirectRules;
+import com.shorty.services.RedirectTargetLoader;
+import com.shorty.services.RedirectTargetResolver;
+import com.shorty.services.TombstoneCache;
+import com.shorty.services.UrlMetrics;
+import com.shorty.services.UrlService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Redirect throughput on a Tomcat-sized platform thread pool against one virtual thread per request. Each operation is
+ * a request through {@link RedirectController} with the redirect cache off, so every lookup checks a connection out of
+ * a 20-permit {@link ConcurrencyLimitingDataSource} and holds it for the query time. {@code clientMillis} then keeps
+ * the request thread busy the way a slow client does while the response is flushed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    private static final int REQUESTS = 2_000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int POOL_SIZE = 20;
+    private static final Duration QUERY_TIME = Duration.ofMillis(1);
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"0", "20"})
+    private long clientMillis;
+
+    private RedirectTargetLoader loader;
+    private DatabaseCircuitBreaker circuitBreaker;
+    private AccessLog accessLog;
+    private RedirectController controller;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        UrlMapping mapping = UrlMappingBenchmark.mapping(Instant.now().plus(365, ChronoUnit.DAYS));
+        UrlMappingRepository repository = repository(mapping, limitedDataSource());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        circuitBreaker = new DatabaseCircuitBreaker(
+                meterRegistry,
+                true,
+                100,
+                20,
+                0.5,
+                Duration.ofMillis(500),
+                0.5,
+                Duration.ofSeconds(10),
+                Duration.ofSeconds(1));
+        loader = new RedirectTargetLoader(
+                repository,
+                new UrlMapperImpl(),
+                circuitBreaker,
+                new ExpiryScheduler(meterRegistry, true, Duration.ofSeconds(1)),
+                meterRegistry,
+                false,
+                Duration.ofMinutes(10),
+                0.2,
+                Duration.ofSeconds(2),
+                100_000);
+        RedirectRules rules = new RedirectRules();
+        ReflectionTestUtils.setField(rules, "defaultSampleRate", 100);
+        ReflectionTestUtils.setField(rules, "maxAgeSeconds", 86_400L);
+        ReflectionTestUtils.setField(rules, "sharedMaxAgeSeconds", 60L);
+
+        accessLog = new AccessLog(meterRegistry, true, 65_536, 512, Duration.ofMillis(200), 100, 1, 1, 1);
+        accessLog.start();
+
+        UrlService urlService = new UrlService(
+                repository,
+                null,
+                new UrlMapperImpl(),
+                new RedirectTargetResolver(loader, List.of()),
+                null,
+                new ClickRecorder(repository, circuitBreaker, meterRegistry, 100_000),
+                rules,
+                new UrlMetrics(meterRegistry, ObservationRegistry.NOOP),
+                accessLog,
+                new TombstoneCache(meterRegistry, true, Duration.ofMinutes(1), 100_000),
+                null);
+        controller = new RedirectController(urlService, rules);
+
+        executor = threads.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.close();
+        loader.shutdown();
+        circuitBreaker.shutdown();
+        accessLog.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int redirect() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(executor.submit(this::handle));
+        }
+
+        int redirected = 0;
+        for (Future<Integer> response : responses) {
+            redirected += response.get() / 100 == 3 ? 1 : 0;
+        }
+        return redirected;
+    }
+
+    private int handle() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.redirectToOriginalUrl("abc1234", response);
+        if (clientMillis > 0) {
+            Thread.sleep(clientMillis);
+        }
+        return response.getStatus();
+    }
+
+    // Plain proxies rather than mocks, which record every invocation behind a lock
+    private static UrlMappingRepository repository(UrlMapping mapping, DataSource database) {
+        return proxy(UrlMappingRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findByShortCode" -> {
+                try (Connection connection = database.getConnection()) {
+                    Thread.sleep(QUERY_TIME);
+                }
+                yield Optional.of(mapping);
+            }
+            case "incrementClickCount" -> 1;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static DataSource limitedDataSource() {
+        Connection connection = proxy(Connection.class, (proxy, method, args) -> null);
+        DataSource target = proxy(DataSource.class, (proxy, method, args) -> connection);
+        return new ConcurrencyLimitingDataSource(target, POOL_SIZE, 60_000);
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+}
@@ -0,0 +1,68 @@
+package com.shorty.jmh;
+
+import com.shorty.dtos.responses.UrlResponse;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import com.shorty.entities.UrlMapping;
+import com.shorty.mappers.UrlMapper;
+import com.shorty.mappers.UrlMapperImpl;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Entity checks and mapping done for every API response and every database-backed redirect.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlMappingBenchmark {
+
+    private static final String BASE_URL = "http://localhost:8080";
+
+    private final UrlMapper mapper = new UrlMapperImpl();
+    private UrlMapping active;
+    private UrlMapping expired;
+
+    @Setup
+    public void setUp() {
+        active = mapping(Instant.now().plus(365, ChronoUnit.DAYS));
+        expired = mapping(Instant.now().minus(1, ChronoUnit.DAYS));
+    }
+
+    @Benchmark
+    public boolean isExpiredActive() {
+        return active.isExpired();
+    }
+
+    @Benchmark
+    public boolean isExpiredExpired() {
+        return expired.isExpired();
+    }
+
+    @Benchmark
+    public UrlResponse toResponse() {
+        return mapper.toResponse(active, BASE_URL);
+    }
+
+    static UrlMapping mapping(Instant expiresAt) {
+        return UrlMapping.builder()
+                .id(UUID.randomUUID())
+                .shortCode("abc1234")
+                .originalUrl("https://www.example.com/articles/2025/a-fairly-long-path?utm_source=newsletter")
+                .expiresAt(expiresAt)
+                .clickCount(4_812L)
+                .userId(UUID.randomUUID())
+                .trackingPolicy(TrackingPolicy.SAMPLED)
+                .sampleRate(100)
+                .redirectPolicy(RedirectPolicy.NO_STORE)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+    }
+}
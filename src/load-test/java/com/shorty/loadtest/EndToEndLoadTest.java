@@ -0,0 +1,134 @@
+package com.shorty.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.shorty.loadtest.LatencyReport.Slo;
+import com.shorty.loadtest.OpenModelDriver.Endpoint;
+import com.shorty.loadtest.OpenModelDriver.EndpointStats;
+import com.shorty.loadtest.OpenModelDriver.Mix;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+/**
+ * Boots the application against a throwaway Postgres, seeds it and drives a mixed workload at a fixed arrival rate,
+ * then fails if any endpoint misses its SLO. Tokens come from {@link LocalIssuer}, so Keycloak is not needed, only
+ * Docker. Every setting is a system property:
+ *
+ * <pre>
+ * ./mvnw -Pload-test test -Dloadtest.mappings=5000000 -Dloadtest.rate=3000 -Dloadtest.duration=PT2M
+ *     -Dloadtest.slo.redirect.p99=PT0.02S
+ * </pre>
+ *
+ * Percentile distributions are written to {@code target/load-test}.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+            "logging.level.com.shorty=WARN",
+            "logging.level.org.hibernate.SQL=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "logging.level.org.springframework.security=WARN",
+            "app.rate-limit.enabled=${loadtest.rate-limit:false}"
+        })
+class EndToEndLoadTest {
+
+    private static final PostgreSQLContainer POSTGRES =
+            new PostgreSQLContainer(System.getProperty("loadtest.postgres-image", "postgres:18-alpine"));
+    private static final LocalIssuer ISSUER = LocalIssuer.start();
+
+    static {
+        POSTGRES.start();
+    }
+
+    private final int mappings = Integer.getInteger("loadtest.mappings", 1_000_000);
+    private final int users = Integer.getInteger("loadtest.users", 1_000);
+    private final double rate = Double.parseDouble(System.getProperty("loadtest.rate", "1000"));
+    private final Duration warmup = duration("loadtest.warmup", "PT15S");
+    private final Duration duration = duration("loadtest.duration", "PT60S");
+    private final double zipfExponent = Double.parseDouble(System.getProperty("loadtest.zipf-exponent", "1.0"));
+    private final int maxOutstanding = Integer.getInteger("loadtest.max-outstanding", 20_000);
+    private final Mix mix = new Mix(
+            share("loadtest.mix.redirect", "0.90"),
+            share("loadtest.mix.create", "0.05"),
+            share("loadtest.mix.list", "0.04"),
+            share("loadtest.mix.delete", "0.01"));
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.security.oauth2.resourceserver.jwt.issuer-uri", ISSUER::issuerUri);
+        registry.add("spring.security.oauth2.resourceserver.jwt.jwk-set-uri", ISSUER::jwkSetUri);
+    }
+
+    @AfterAll
+    static void stopIssuer() {
+        ISSUER.close();
+    }
+
+    @Test
+    @DisplayName("Mixed workload at a fixed arrival rate meets the latency SLOs")
+    void mixedWorkloadMeetsSlos() throws Exception {
+        List<UUID> owners = IntStream.range(0, users).mapToObj(_ -> UUID.randomUUID()).toList();
+        MappingSeeder.seed(dataSource, mappings, owners);
+
+        Duration tokenLifetime = warmup.plus(duration).plusHours(1);
+        List<String> tokens = owners.stream().map(owner -> ISSUER.token(owner, tokenLifetime)).toList();
+        OpenModelDriver driver = new OpenModelDriver(
+                URI.create("http://localhost:" + port),
+                tokens,
+                new ZipfSampler(mappings, zipfExponent),
+                mix,
+                maxOutstanding);
+
+        System.out.printf(
+                "Driving %,.0f req/s for %s after %s of warmup over %,d mappings%n", rate, duration, warmup, mappings);
+        Map<Endpoint, EndpointStats> results = driver.run(rate, warmup, duration);
+
+        LatencyReport.write(results, Path.of("target", "load-test"));
+        List<String> violations = LatencyReport.evaluate(results, slos(), duration);
+        violations.forEach(violation -> System.out.println("SLO violated: " + violation));
+        assertTrue(violations.isEmpty(), () -> String.join("\n", violations));
+    }
+
+    private static Map<Endpoint, Slo> slos() {
+        double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.slo.max-error-rate", "0.001"));
+        Map<Endpoint, Slo> slos = new EnumMap<>(Endpoint.class);
+        slos.put(Endpoint.REDIRECT, new Slo(duration("loadtest.slo.redirect.p99", "PT0.05S"), maxErrorRate));
+        slos.put(Endpoint.CREATE, new Slo(duration("loadtest.slo.create.p99", "PT0.25S"), maxErrorRate));
+        slos.put(Endpoint.LIST, new Slo(duration("loadtest.slo.list.p99", "PT0.25S"), maxErrorRate));
+        slos.put(Endpoint.DELETE, new Slo(duration("loadtest.slo.delete.p99", "PT0.25S"), maxErrorRate));
+        return slos;
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return Duration.parse(System.getProperty(property, defaultValue));
+    }
+
+    private static double share(String property, String defaultValue) {
+        return Double.parseDouble(System.getProperty(property, defaultValue));
+    }
+}
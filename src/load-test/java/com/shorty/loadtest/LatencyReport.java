@@ -0,0 +1,95 @@
+package com.shorty.loadtest;
+
+import com.shorty.loadtest.OpenModelDriver.Endpoint;
+import com.shorty.loadtest.OpenModelDriver.EndpointStats;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Prints percentiles per endpoint, writes each full distribution as an {@code .hgrm} file that HdrHistogram's plotter
+ * reads, and checks the results against the SLOs.
+ */
+final class LatencyReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private LatencyReport() {}
+
+    record Slo(Duration p99, double maxErrorRate) {}
+
+    /**
+     * @return the SLO violations, empty if every endpoint met its objectives
+     */
+    static List<String> evaluate(Map<Endpoint, EndpointStats> results, Map<Endpoint, Slo> slos, Duration duration) {
+        System.out.printf(
+                "%n%-9s %9s %8s %8s %8s %9s %9s %9s %9s %9s %11s%n",
+                "endpoint",
+                "requests",
+                "req/s",
+                "errors",
+                "dropped",
+                "p50 ms",
+                "p90 ms",
+                "p99 ms",
+                "p99.9 ms",
+                "max ms",
+                "svc p99 ms");
+
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<Endpoint, EndpointStats> entry : results.entrySet()) {
+            Endpoint endpoint = entry.getKey();
+            EndpointStats stats = entry.getValue();
+            Histogram histogram = stats.responseTime;
+            if (stats.requests() == 0) {
+                continue;
+            }
+
+            System.out.printf(
+                    "%-9s %,9d %8.1f %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f %11.2f%n",
+                    endpoint.name().toLowerCase(Locale.ROOT),
+                    stats.requests(),
+                    stats.requests() / (double) duration.toSeconds(),
+                    stats.errors.sum(),
+                    stats.dropped.sum(),
+                    millis(histogram, 50),
+                    millis(histogram, 90),
+                    millis(histogram, 99),
+                    millis(histogram, 99.9),
+                    histogram.getMaxValue() / MICROS_PER_MILLI,
+                    millis(stats.serviceTime, 99));
+
+            Slo slo = slos.get(endpoint);
+            double p99 = millis(histogram, 99);
+            if (p99 > slo.p99().toNanos() / 1_000_000.0) {
+                violations.add("%s p99 %.2f ms exceeds %d ms".formatted(endpoint, p99, slo.p99().toMillis()));
+            }
+            if (stats.errorRate() > slo.maxErrorRate()) {
+                violations.add("%s error rate %.4f exceeds %.4f"
+                        .formatted(endpoint, stats.errorRate(), slo.maxErrorRate()));
+            }
+        }
+        return violations;
+    }
+
+    static void write(Map<Endpoint, EndpointStats> results, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Endpoint, EndpointStats> entry : results.entrySet()) {
+            String name = entry.getKey().name().toLowerCase(Locale.ROOT);
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + ".hgrm")))) {
+                entry.getValue().responseTime.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
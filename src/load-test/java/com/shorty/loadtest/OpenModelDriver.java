@@ -0,0 +1,214 @@
+package com.shorty.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.random.RandomGenerator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Sends requests on a fixed schedule regardless of how fast earlier ones complete, as independent users would.
+ * Response times are measured from when a request was due rather than when it was sent, so a stalled server is
+ * charged for the requests queued behind the stall instead of hiding them (coordinated omission).
+ */
+final class OpenModelDriver {
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final Pattern SHORT_CODE = Pattern.compile("\"shortCode\"\\s*:\\s*\"([A-Za-z0-9]+)\"");
+
+    enum Endpoint {
+        REDIRECT,
+        CREATE,
+        LIST,
+        DELETE
+    }
+
+    record Mix(double redirect, double create, double list, double delete) {
+
+        Endpoint pick(double value) {
+            double total = redirect + create + list + delete;
+            double point = value * total;
+            if (point < redirect) {
+                return Endpoint.REDIRECT;
+            }
+            if (point < redirect + create) {
+                return Endpoint.CREATE;
+            }
+            return point < redirect + create + list ? Endpoint.LIST : Endpoint.DELETE;
+        }
+    }
+
+    static final class EndpointStats {
+        final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+
+        long requests() {
+            return responseTime.getTotalCount() + dropped.sum();
+        }
+
+        double errorRate() {
+            long requests = requests();
+            return requests == 0 ? 0 : (double) (errors.sum() + dropped.sum()) / requests;
+        }
+    }
+
+    private record Created(String token, String shortCode) {}
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final URI baseUri;
+    private final List<String> tokens;
+    private final ZipfSampler redirectRanks;
+    private final Mix mix;
+    private final int maxOutstanding;
+    private final Queue<Created> created = new ConcurrentLinkedQueue<>();
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+    OpenModelDriver(URI baseUri, List<String> tokens, ZipfSampler redirectRanks, Mix mix, int maxOutstanding) {
+        this.baseUri = baseUri;
+        this.tokens = tokens;
+        this.redirectRanks = redirectRanks;
+        this.mix = mix;
+        this.maxOutstanding = maxOutstanding;
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    /**
+     * Runs the warmup and then the measured period at {@code rate} requests per second and returns the statistics of
+     * the measured period only.
+     */
+    Map<Endpoint, EndpointStats> run(double rate, Duration warmup, Duration duration) throws InterruptedException {
+        RandomGenerator random = ThreadLocalRandom.current();
+        Semaphore outstanding = new Semaphore(maxOutstanding);
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * intervalNanos);
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Endpoint endpoint = mix.pick(random.nextDouble());
+            EndpointStats endpointStats = due >= measureFrom ? stats.get(endpoint) : null;
+            Created deleted = endpoint == Endpoint.DELETE ? created.poll() : null;
+            if (endpoint == Endpoint.DELETE && deleted == null) {
+                // Nothing created yet that could be deleted
+                if (endpointStats != null) {
+                    endpointStats.skipped.increment();
+                }
+                continue;
+            }
+            if (!outstanding.tryAcquire()) {
+                // The generator's own limit, reported as failures rather than silently slowing the schedule down
+                if (endpointStats != null) {
+                    endpointStats.dropped.increment();
+                }
+                continue;
+            }
+
+            long sent = System.nanoTime();
+            String token = deleted != null ? deleted.token() : tokens.get(random.nextInt(tokens.size()));
+            client.sendAsync(request(endpoint, token, deleted, random), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> {
+                        outstanding.release();
+                        long completed = System.nanoTime();
+                        boolean ok = failure == null && expected(endpoint, response.statusCode());
+                        if (ok && endpoint == Endpoint.CREATE) {
+                            remember(token, response.body());
+                        }
+                        if (endpointStats != null) {
+                            record(endpointStats, due, sent, completed, ok);
+                        }
+                    });
+        }
+
+        if (!outstanding.tryAcquire(maxOutstanding, 1, TimeUnit.MINUTES)) {
+            System.out.println("Some requests were still outstanding a minute after the run ended");
+        }
+        return stats;
+    }
+
+    private HttpRequest request(Endpoint endpoint, String token, Created deleted, RandomGenerator random) {
+        return switch (endpoint) {
+            case REDIRECT -> HttpRequest.newBuilder(
+                            baseUri.resolve("/" + MappingSeeder.shortCode(redirectRanks.sample(random))))
+                    .GET()
+                    .build();
+            case CREATE -> HttpRequest.newBuilder(baseUri.resolve("/api/v1/urls"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"originalUrl\":\"https://shop.example.com/new/" + random.nextLong(1L << 40) + "\"}"))
+                    .build();
+            case LIST -> HttpRequest.newBuilder(baseUri.resolve("/api/v1/urls?page=0&size=20"))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+            case DELETE -> HttpRequest.newBuilder(baseUri.resolve("/api/v1/urls/" + deleted.shortCode()))
+                    .header("Authorization", "Bearer " + token)
+                    .DELETE()
+                    .build();
+        };
+    }
+
+    private static boolean expected(Endpoint endpoint, int status) {
+        return switch (endpoint) {
+            case REDIRECT -> status == 301 || status == 302 || status == 308;
+            case CREATE -> status == 201;
+            case LIST -> status == 200;
+            case DELETE -> status == 204;
+        };
+    }
+
+    private void remember(String token, String body) {
+        Matcher matcher = SHORT_CODE.matcher(body);
+        if (matcher.find()) {
+            created.add(new Created(token, matcher.group(1)));
+        }
+    }
+
+    private static void record(EndpointStats stats, long due, long sent, long completed, boolean ok) {
+        stats.responseTime.recordValue(micros(completed - due));
+        stats.serviceTime.recordValue(micros(completed - sent));
+        if (!ok) {
+            stats.errors.increment();
+        }
+    }
+
+    private static long micros(long nanos) {
+        return Math.clamp(TimeUnit.NANOSECONDS.toMicros(nanos), 0, HIGHEST_TRACKABLE_MICROS);
+    }
+}
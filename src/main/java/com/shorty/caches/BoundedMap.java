@@ -0,0 +1,176 @@
+package com.shorty.caches;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent map holding at most {@code maximumSize} entries, shared by the in-memory stores that must not grow without
+ * bound. Every stored value is also queued in insertion order, and an insert that takes the map over its size displaces
+ * the oldest entry, so eviction is amortized O(1) and never scans the map on a request thread. Values the store marks
+ * as pinned are passed over a few times and then left in place, letting the map run over its size rather than drop
+ * them. Nothing is removed for age here: stores drop expired values themselves, lazily or from a scheduled purge.
+ */
+public class BoundedMap<K, V> {
+
+    // Pinned entries an insert skips before it gives up evicting for this round
+    static final int SECOND_CHANCES = 4;
+
+    private final int maximumSize;
+    private final Predicate<V> pinned;
+    private final Map<K, Node<K, V>> entries = new ConcurrentHashMap<>();
+    private final Queue<Node<K, V>> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    public BoundedMap(int maximumSize) {
+        this(maximumSize, _ -> false);
+    }
+
+    public BoundedMap(int maximumSize, Predicate<V> pinned) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.pinned = pinned;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = entries.get(key);
+        return node != null ? node.value : null;
+    }
+
+    public void put(K key, V value) {
+        entries.put(key, link(key, value));
+        evictIfFull();
+    }
+
+    /**
+     * Stores {@code value} if the key is absent, otherwise replaces the current value with the result of
+     * {@code remapping}, or removes it on {@code null}.
+     *
+     * @return the value now held for the key
+     */
+    public V merge(K key, V value, BinaryOperator<V> remapping) {
+        Node<K, V> node = entries.compute(key, (_, existing) -> {
+            if (existing == null) {
+                return link(key, value);
+            }
+            return relink(existing, remapping.apply(existing.value, value));
+        });
+        evictIfFull();
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * @return the new value for the key, or {@code null} if it was absent or removed
+     */
+    public V computeIfPresent(K key, BiFunction<K, V, V> remapping) {
+        Node<K, V> node =
+                entries.computeIfPresent(key, (_, existing) -> relink(existing, remapping.apply(key, existing.value)));
+        return node != null ? node.value : null;
+    }
+
+    public V remove(K key) {
+        Node<K, V> node = entries.remove(key);
+        return node != null ? node.value : null;
+    }
+
+    public boolean remove(K key, V value) {
+        Node<K, V> node = entries.get(key);
+        return node != null && Objects.equals(node.value, value) && entries.remove(key, node);
+    }
+
+    /**
+     * Walks the whole map, so it belongs in scheduled purges and rare administrative calls, not on a request path.
+     *
+     * @return the number of entries removed
+     */
+    public int removeIf(Predicate<V> filter) {
+        int removed = 0;
+        for (Map.Entry<K, Node<K, V>> entry : entries.entrySet()) {
+            if (filter.test(entry.getValue().value) && entries.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public void clear() {
+        entries.clear();
+        order.clear();
+        queued.set(0);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Node<K, V> link(K key, V value) {
+        Node<K, V> node = new Node<>(key, value);
+        order.offer(node);
+        queued.incrementAndGet();
+        return node;
+    }
+
+    private Node<K, V> relink(Node<K, V> existing, V value) {
+        if (value == null) {
+            return null;
+        }
+        // An unchanged value keeps its node and its place in the queue, a new one goes to the back
+        return value == existing.value ? existing : link(existing.key, value);
+    }
+
+    private void evictIfFull() {
+        if (entries.size() > maximumSize) {
+            evict();
+        }
+        // Removed and replaced entries leave their nodes queued; sweep them out once they outnumber the live ones
+        if (queued.get() > 2 * Math.max(maximumSize, entries.size()) && compacting.compareAndSet(false, true)) {
+            try {
+                order.removeIf(node -> entries.get(node.key) != node);
+                queued.set(order.size());
+            } finally {
+                compacting.set(false);
+            }
+        }
+    }
+
+    private void evict() {
+        int chances = SECOND_CHANCES;
+        while (entries.size() > maximumSize) {
+            Node<K, V> node = order.poll();
+            if (node == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (entries.get(node.key) != node) {
+                continue;
+            }
+            if (pinned.test(node.value)) {
+                order.offer(node);
+                queued.incrementAndGet();
+                if (chances-- == 0) {
+                    return;
+                }
+                continue;
+            }
+            entries.remove(node.key, node);
+        }
+    }
+
+    // Compared by identity, so a node left queued for a key that was since replaced is recognised as stale
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
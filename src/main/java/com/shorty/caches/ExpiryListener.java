@@ -0,0 +1,8 @@
+package com.shorty.caches;
+
+import java.util.List;
+
+public interface ExpiryListener {
+
+    void onExpired(List<String> shortCodes);
+}
@@ -0,0 +1,56 @@
+package com.shorty.caches;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the shared host dictionary. URLs are split after their {@code scheme://authority} prefix, and
+ * each known prefix is held once per node no matter how many mappings point at it. Ids are assigned by the database
+ * and never reused, so entries are only ever added.
+ */
+public class HostDictionary {
+
+    public static final int NONE = 0;
+    public static final int MAX_PREFIX_LENGTH = 255;
+
+    private final Map<Integer, String> prefixesById = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idsByPrefix = new ConcurrentHashMap<>();
+
+    /**
+     * Returns where the host prefix of the URL ends, or -1 if it has none that can be stored in the dictionary.
+     */
+    public static int prefixLength(String url) {
+        int separator = url.indexOf("://");
+        if (separator <= 0) {
+            return -1;
+        }
+
+        int start = separator + 3;
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            end++;
+        }
+        return end > start && end <= MAX_PREFIX_LENGTH ? end : -1;
+    }
+
+    public String prefix(int id) {
+        return prefixesById.get(id);
+    }
+
+    public int idOf(String prefix) {
+        return idsByPrefix.getOrDefault(prefix, NONE);
+    }
+
+    public void register(int id, String prefix) {
+        String interned = prefixesById.putIfAbsent(id, prefix);
+        idsByPrefix.putIfAbsent(interned != null ? interned : prefix, id);
+    }
+
+    public int size() {
+        return prefixesById.size();
+    }
+}
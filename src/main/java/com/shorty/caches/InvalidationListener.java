@@ -0,0 +1,12 @@
+package com.shorty.caches;
+
+import java.util.Set;
+
+public interface InvalidationListener {
+
+    void invalidate(Set<String> shortCodes);
+
+    void invalidateAll();
+
+    default void onExpiredSweep() {}
+}
@@ -0,0 +1,24 @@
+package com.shorty.caches;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+public interface LocalRedirectSource {
+
+    /** Fresh enough to answer a redirect on its own. */
+    boolean isReady();
+
+    /** Holds data at all, however stale; only such a source may stand in while the database is unavailable. */
+    boolean isLoaded();
+
+    Optional<RedirectTarget> find(String shortCode);
+
+    /**
+     * Waits up to {@code timeout} until the source holds every change committed before {@code instant}, after which
+     * a miss is as final as one in the database. Sources that cannot tell never catch up.
+     */
+    default boolean awaitCaughtUp(Instant instant, Duration timeout) {
+        return false;
+    }
+}
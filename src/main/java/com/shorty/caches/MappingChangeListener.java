@@ -0,0 +1,10 @@
+package com.shorty.caches;
+
+public interface MappingChangeListener {
+
+    void onMappingUpserted(String shortCode, RedirectTarget target);
+
+    void onMappingRemoved(String shortCode);
+
+    default void onResync() {}
+}
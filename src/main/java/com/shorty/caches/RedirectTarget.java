@@ -0,0 +1,19 @@
+package com.shorty.caches;
+
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import com.shorty.utils.CoarseClock;
+import java.time.Instant;
+
+public record RedirectTarget(
+        String originalUrl,
+        Instant expiresAt,
+        RedirectPolicy redirectPolicy,
+        TrackingPolicy trackingPolicy,
+        Integer sampleRate,
+        Long clickCount) {
+
+    public boolean isExpired() {
+        return CoarseClock.isExpired(expiresAt);
+    }
+}
@@ -0,0 +1,240 @@
+package com.shorty.caches;
+
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import com.shorty.utils.ShortCodeCodec;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing table keyed by the short code encoded as a long, with values held in parallel primitive arrays.
+ * Writes are expected from a single sync thread; reads are lock-free unless they race with a write. URLs whose host
+ * prefix is in the dictionary are held as a host id plus suffix and reassembled on read.
+ */
+public class ReplicaStore {
+
+    private static final long EMPTY = 0L;
+    private static final long DELETED = -2L;
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+    private static final RedirectPolicy[] REDIRECT_POLICIES = RedirectPolicy.values();
+    private static final TrackingPolicy[] TRACKING_POLICIES = TrackingPolicy.values();
+
+    private final StampedLock lock = new StampedLock();
+    private final HostDictionary hosts;
+
+    private Table table;
+
+    public ReplicaStore(int expectedSize) {
+        this(expectedSize, new HostDictionary());
+    }
+
+    public ReplicaStore(int expectedSize, HostDictionary hosts) {
+        this.hosts = hosts;
+        this.table = new Table(capacityFor(expectedSize), hosts);
+    }
+
+    public Optional<RedirectTarget> find(String shortCode) {
+        long key = ShortCodeCodec.encode(shortCode);
+        if (key == ShortCodeCodec.INVALID) {
+            return Optional.empty();
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        RedirectTarget target = table.get(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                target = table.get(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return Optional.ofNullable(target);
+    }
+
+    public void put(String shortCode, RedirectTarget target) {
+        long key = ShortCodeCodec.encode(shortCode);
+        if (key == ShortCodeCodec.INVALID) {
+            return;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            if ((table.size + table.deleted + 1) * 10L > table.keys.length * 7L) {
+                table = table.resize(capacityFor(table.size + 1));
+            }
+            table.put(key, target);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(String shortCode) {
+        long key = ShortCodeCodec.encode(shortCode);
+        if (key == ShortCodeCodec.INVALID) {
+            return;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            table.remove(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int purgeExpired(Instant now) {
+        long nowMillis = now.toEpochMilli();
+        long stamp = lock.writeLock();
+        try {
+            return table.removeExpired(nowMillis);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(table.keys.length, hosts);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) Math.min(1 << 30, size * 2L)) - 1) << 1;
+        return Math.max(capacity, 16);
+    }
+
+    private static int slot(long key, int mask) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    private static final class Table {
+        private final HostDictionary hosts;
+        private final long[] keys;
+        private final int[] hostIds;
+        private final String[] urls;
+        private final long[] expiries;
+        private final byte[] policies;
+        private final int[] sampleRates;
+        private final long[] clickCounts;
+        private final int mask;
+        private int size;
+        private int deleted;
+
+        private Table(int capacity, HostDictionary hosts) {
+            this.hosts = hosts;
+            keys = new long[capacity];
+            hostIds = new int[capacity];
+            urls = new String[capacity];
+            expiries = new long[capacity];
+            policies = new byte[capacity];
+            sampleRates = new int[capacity];
+            clickCounts = new long[capacity];
+            mask = capacity - 1;
+        }
+
+        private int indexOf(long key) {
+            int i = slot(key, mask);
+            for (int probes = 0; probes <= mask; probes++) {
+                long current = keys[i];
+                if (current == key) {
+                    return i;
+                }
+                if (current == EMPTY) {
+                    return -1;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private RedirectTarget get(long key) {
+            int i = indexOf(key);
+            if (i < 0) {
+                return null;
+            }
+            byte packed = policies[i];
+            return new RedirectTarget(
+                    hostIds[i] == HostDictionary.NONE ? urls[i] : hosts.prefix(hostIds[i]) + urls[i],
+                    expiries[i] == NO_EXPIRY ? null : Instant.ofEpochMilli(expiries[i]),
+                    REDIRECT_POLICIES[packed >> 4],
+                    TRACKING_POLICIES[packed & 0x0f],
+                    sampleRates[i] == 0 ? null : sampleRates[i],
+                    clickCounts[i]);
+        }
+
+        private void put(long key, RedirectTarget target) {
+            int i = slot(key, mask);
+            int firstDeleted = -1;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                if (keys[i] == DELETED && firstDeleted < 0) {
+                    firstDeleted = i;
+                }
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                if (firstDeleted >= 0) {
+                    i = firstDeleted;
+                    deleted--;
+                }
+                size++;
+            }
+            keys[i] = key;
+            String url = target.originalUrl();
+            int prefixLength = HostDictionary.prefixLength(url);
+            int hostId = prefixLength > 0 ? hosts.idOf(url.substring(0, prefixLength)) : HostDictionary.NONE;
+            hostIds[i] = hostId;
+            urls[i] = hostId == HostDictionary.NONE ? url : url.substring(prefixLength);
+            expiries[i] = target.expiresAt() != null ? target.expiresAt().toEpochMilli() : NO_EXPIRY;
+            policies[i] = (byte) (target.redirectPolicy().ordinal() << 4 | target.trackingPolicy().ordinal());
+            sampleRates[i] = target.sampleRate() != null ? target.sampleRate() : 0;
+            clickCounts[i] = target.clickCount() != null ? target.clickCount() : 0L;
+        }
+
+        private void remove(long key) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                clearSlot(i);
+            }
+        }
+
+        private int removeExpired(long nowMillis) {
+            int removed = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] > 0 && expiries[i] < nowMillis) {
+                    clearSlot(i);
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        private void clearSlot(int i) {
+            keys[i] = DELETED;
+            urls[i] = null;
+            size--;
+            deleted++;
+        }
+
+        private Table resize(int capacity) {
+            Table resized = new Table(capacity, hosts);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] > 0) {
+                    resized.put(keys[i], get(keys[i]));
+                }
+            }
+            return resized;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.shorty.caches;
+
+import com.shorty.profiling.CacheLoadEvent;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TTL cache where concurrent misses for the same key share one load. The first caller runs the loader on its own
+ * thread and every other caller waits on its future for at most {@code maxWait}. Entries past the refresh-ahead point
+ * keep being served while a single background reload replaces them. Loads returning {@code null} are not cached.
+ * Expired entries stay around until they are reloaded or displaced by newer ones so that {@link #peek} can still offer
+ * them when loading fails: while the database is unreachable nothing new is stored, so nothing stale is displaced.
+ */
+@Slf4j
+public class SingleFlightCache<K, V> {
+
+    private final Function<K, V> loader;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final long refreshAfterMillis;
+    private final long maxWaitMillis;
+
+    private final BoundedMap<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+
+    public SingleFlightCache(
+            Function<K, V> loader,
+            Executor refreshExecutor,
+            Clock clock,
+            Duration ttl,
+            double refreshAheadFraction,
+            Duration maxWait,
+            int maximumSize) {
+        this.loader = loader;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.refreshAfterMillis = (long) (ttlMillis * (1 - refreshAheadFraction));
+        this.maxWaitMillis = maxWait.toMillis();
+        this.entries = new BoundedMap<>(maximumSize);
+    }
+
+    /**
+     * @throws TimeoutException if another caller's load for the same key did not finish within the bounded wait
+     */
+    public V get(K key) throws TimeoutException {
+        long now = clock.millis();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && now < entry.expiresAt) {
+            if (now >= entry.refreshAt) {
+                refreshAhead(key);
+            }
+            return entry.value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loads.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        return load(key, future);
+    }
+
+    /**
+     * Returns the last loaded value for the key, even past its TTL, without loading.
+     */
+    public V peek(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    public void invalidate(K key) {
+        // Dropping the in-flight load as well keeps it from storing a value read before the change
+        loads.remove(key);
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        loads.clear();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int inFlight() {
+        return loads.size();
+    }
+
+    private V load(K key, CompletableFuture<V> future) {
+        CacheLoadEvent event = new CacheLoadEvent();
+        event.begin();
+        try {
+            V value = loader.apply(key);
+            event.complete(key, value != null ? "LOADED" : "EMPTY");
+            if (loads.remove(key, future)) {
+                if (value != null) {
+                    store(key, value);
+                } else {
+                    entries.remove(key);
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            event.complete(key, "FAILED");
+            loads.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void refreshAhead(K key) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (loads.putIfAbsent(key, future) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, future);
+                } catch (RuntimeException e) {
+                    log.warn("Refresh-ahead failed for {}, serving the cached value until it expires", key, e);
+                }
+            });
+        } catch (RuntimeException e) {
+            loads.remove(key, future);
+            future.cancel(false);
+        }
+    }
+
+    private V await(CompletableFuture<V> inFlight) throws TimeoutException {
+        try {
+            return inFlight.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for an in-flight load");
+        }
+    }
+
+    private void store(K key, V value) {
+        long now = clock.millis();
+        entries.put(key, new Entry<>(value, now + refreshAfterMillis, now + ttlMillis));
+    }
+
+    private record Entry<V>(V value, long refreshAt, long expiresAt) {}
+}
@@ -0,0 +1,50 @@
+package com.shorty.caches;
+
+/**
+ * Layout of a snapshot index file, all values little-endian:
+ *
+ * <pre>
+ * header  magic:long version:int pad:int slotCount:long entryCount:long changeLogPosition:long
+ *         tableOffset:long arenaOffset:long arenaSize:long createdAtMillis:long
+ * table   slotCount x (key:long recordOffset:long), key 0 marks an empty slot
+ * arena   records of expiresAtMillis:long clickCount:long sampleRate:int urlLength:int policies:byte url:utf8
+ * </pre>
+ */
+final class SnapshotFormat {
+
+    static final long MAGIC = 0x31504E5354524853L; // "SHRTSNP1"
+    static final int VERSION = 1;
+
+    static final long HEADER_SIZE = 80;
+    static final long SLOT_SIZE = 16;
+    static final long RECORD_HEADER_SIZE = 25;
+    static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    static final long OFFSET_MAGIC = 0;
+    static final long OFFSET_VERSION = 8;
+    static final long OFFSET_SLOT_COUNT = 16;
+    static final long OFFSET_ENTRY_COUNT = 24;
+    static final long OFFSET_CHANGE_LOG_POSITION = 32;
+    static final long OFFSET_TABLE = 40;
+    static final long OFFSET_ARENA = 48;
+    static final long OFFSET_ARENA_SIZE = 56;
+    static final long OFFSET_CREATED_AT = 64;
+
+    private SnapshotFormat() {}
+
+    static long slotCountFor(long entries) {
+        long wanted = Math.max(16, entries * 2);
+        return Long.highestOneBit(wanted - 1) << 1;
+    }
+
+    static long slot(long key, long mask) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key & mask;
+    }
+
+    static byte packPolicies(RedirectTarget target) {
+        return (byte) (target.redirectPolicy().ordinal() << 4 | target.trackingPolicy().ordinal());
+    }
+}
@@ -0,0 +1,114 @@
+package com.shorty.caches;
+
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import com.shorty.utils.ShortCodeCodec;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Optional;
+
+public class SnapshotIndex {
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final RedirectPolicy[] REDIRECT_POLICIES = RedirectPolicy.values();
+    private static final TrackingPolicy[] TRACKING_POLICIES = TrackingPolicy.values();
+
+    private final Path file;
+    private final MemorySegment segment;
+    private final long mask;
+    private final long tableOffset;
+    private final long arenaOffset;
+    private final long entryCount;
+    private final long changeLogPosition;
+
+    private SnapshotIndex(Path file, MemorySegment segment) {
+        this.file = file;
+        this.segment = segment;
+
+        if (segment.byteSize() < SnapshotFormat.HEADER_SIZE
+                || segment.get(LONG, SnapshotFormat.OFFSET_MAGIC) != SnapshotFormat.MAGIC) {
+            throw new IllegalStateException("Not a snapshot index: " + file);
+        }
+        int version = segment.get(INT, SnapshotFormat.OFFSET_VERSION);
+        if (version != SnapshotFormat.VERSION) {
+            throw new IllegalStateException("Unsupported snapshot version " + version + ": " + file);
+        }
+
+        this.mask = segment.get(LONG, SnapshotFormat.OFFSET_SLOT_COUNT) - 1;
+        this.tableOffset = segment.get(LONG, SnapshotFormat.OFFSET_TABLE);
+        this.arenaOffset = segment.get(LONG, SnapshotFormat.OFFSET_ARENA);
+        this.entryCount = segment.get(LONG, SnapshotFormat.OFFSET_ENTRY_COUNT);
+        this.changeLogPosition = segment.get(LONG, SnapshotFormat.OFFSET_CHANGE_LOG_POSITION);
+    }
+
+    // The automatic arena unmaps the file once the index is unreachable, so a swapped-out index stays valid
+    // for readers that still hold it
+    public static SnapshotIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), Arena.ofAuto());
+            return new SnapshotIndex(file, segment);
+        }
+    }
+
+    public Optional<RedirectTarget> find(String shortCode) {
+        long key = ShortCodeCodec.encode(shortCode);
+        if (key == ShortCodeCodec.INVALID) {
+            return Optional.empty();
+        }
+
+        long slot = SnapshotFormat.slot(key, mask);
+        for (long probes = 0; probes <= mask; probes++) {
+            long slotOffset = tableOffset + slot * SnapshotFormat.SLOT_SIZE;
+            long current = segment.get(LONG, slotOffset);
+            if (current == key) {
+                return Optional.of(readRecord(arenaOffset + segment.get(LONG, slotOffset + 8)));
+            }
+            if (current == 0L) {
+                return Optional.empty();
+            }
+            slot = (slot + 1) & mask;
+        }
+        return Optional.empty();
+    }
+
+    private RedirectTarget readRecord(long offset) {
+        long expiresAt = segment.get(LONG, offset);
+        long clickCount = segment.get(LONG, offset + 8);
+        int sampleRate = segment.get(INT, offset + 16);
+        int urlLength = segment.get(INT, offset + 20);
+        byte policies = segment.get(ValueLayout.JAVA_BYTE, offset + 24);
+
+        byte[] url = new byte[urlLength];
+        MemorySegment.copy(
+                segment, ValueLayout.JAVA_BYTE, offset + SnapshotFormat.RECORD_HEADER_SIZE, url, 0, urlLength);
+
+        return new RedirectTarget(
+                new String(url, StandardCharsets.UTF_8),
+                expiresAt == SnapshotFormat.NO_EXPIRY ? null : Instant.ofEpochMilli(expiresAt),
+                REDIRECT_POLICIES[policies >> 4],
+                TRACKING_POLICIES[policies & 0x0f],
+                sampleRate == 0 ? null : sampleRate,
+                clickCount);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public long getChangeLogPosition() {
+        return changeLogPosition;
+    }
+}
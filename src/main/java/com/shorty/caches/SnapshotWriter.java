@@ -0,0 +1,125 @@
+package com.shorty.caches;
+
+import com.shorty.utils.ShortCodeCodec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class SnapshotWriter implements Closeable {
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final Arena arena;
+    private final MemorySegment table;
+    private final long slotCount;
+    private final long maxEntries;
+    private final long arenaOffset;
+    private final long changeLogPosition;
+    private final ByteBuffer record = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    private long arenaSize;
+    private long entryCount;
+
+    public SnapshotWriter(Path file, long expectedEntries, long changeLogPosition) throws IOException {
+        this.channel = FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.slotCount = SnapshotFormat.slotCountFor(expectedEntries);
+        this.maxEntries = slotCount * 3 / 4;
+        this.arenaOffset = SnapshotFormat.HEADER_SIZE + slotCount * SnapshotFormat.SLOT_SIZE;
+        this.changeLogPosition = changeLogPosition;
+        this.arena = Arena.ofConfined();
+        this.table = channel.map(
+                FileChannel.MapMode.READ_WRITE,
+                SnapshotFormat.HEADER_SIZE,
+                slotCount * SnapshotFormat.SLOT_SIZE,
+                arena);
+    }
+
+    public void add(String shortCode, RedirectTarget target) throws IOException {
+        long key = ShortCodeCodec.encode(shortCode);
+        if (key == ShortCodeCodec.INVALID) {
+            return;
+        }
+        if (entryCount >= maxEntries) {
+            throw new IllegalStateException("Snapshot table is full after " + entryCount + " entries");
+        }
+
+        byte[] url = target.originalUrl().getBytes(StandardCharsets.UTF_8);
+        record.clear();
+        record.putLong(target.expiresAt() != null ? target.expiresAt().toEpochMilli() : SnapshotFormat.NO_EXPIRY);
+        record.putLong(target.clickCount() != null ? target.clickCount() : 0L);
+        record.putInt(target.sampleRate() != null ? target.sampleRate() : 0);
+        record.putInt(url.length);
+        record.put(SnapshotFormat.packPolicies(target));
+        record.put(url);
+        record.flip();
+
+        long recordOffset = arenaSize;
+        long position = arenaOffset + recordOffset;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        arenaSize += SnapshotFormat.RECORD_HEADER_SIZE + url.length;
+
+        long mask = slotCount - 1;
+        long slot = SnapshotFormat.slot(key, mask);
+        while (true) {
+            long current = table.get(LONG, slot * SnapshotFormat.SLOT_SIZE);
+            if (current == 0L || current == key) {
+                if (current == 0L) {
+                    entryCount++;
+                }
+                table.set(LONG, slot * SnapshotFormat.SLOT_SIZE, key);
+                table.set(LONG, slot * SnapshotFormat.SLOT_SIZE + 8, recordOffset);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public long entryCount() {
+        return entryCount;
+    }
+
+    public void finish() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate((int) SnapshotFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong((int) SnapshotFormat.OFFSET_MAGIC, SnapshotFormat.MAGIC);
+        header.putInt((int) SnapshotFormat.OFFSET_VERSION, SnapshotFormat.VERSION);
+        header.putLong((int) SnapshotFormat.OFFSET_SLOT_COUNT, slotCount);
+        header.putLong((int) SnapshotFormat.OFFSET_ENTRY_COUNT, entryCount);
+        header.putLong((int) SnapshotFormat.OFFSET_CHANGE_LOG_POSITION, changeLogPosition);
+        header.putLong((int) SnapshotFormat.OFFSET_TABLE, SnapshotFormat.HEADER_SIZE);
+        header.putLong((int) SnapshotFormat.OFFSET_ARENA, arenaOffset);
+        header.putLong((int) SnapshotFormat.OFFSET_ARENA_SIZE, arenaSize);
+        header.putLong((int) SnapshotFormat.OFFSET_CREATED_AT, System.currentTimeMillis());
+
+        table.force();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            arena.close();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.shorty.configs;
+
+import com.shorty.caches.BoundedMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HexFormat;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Remembers tokens that already passed signature and claim validation, keyed by a SHA-256 of the token so the raw
+ * credential is never used as a map key, until their {@code exp}.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Clock clock;
+    private final BoundedMap<String, Jwt> validated;
+    private final Counter hits;
+    private final Counter misses;
+
+    public CachingJwtDecoder(JwtDecoder delegate, Clock clock, int maximumSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.validated = new BoundedMap<>(maximumSize);
+        this.hits = Counter.builder("shorty.jwt.cache")
+                .description("Token decodes answered from the validation cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("shorty.jwt.cache")
+                .description("Token decodes answered from the validation cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+
+        Gauge.builder("shorty.jwt.cache.size", validated, BoundedMap::size)
+                .description("Validated tokens held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
+        Instant now = clock.instant();
+
+        Jwt jwt = validated.get(key);
+        if (jwt != null && isUsable(jwt, now)) {
+            hits.increment();
+            return jwt;
+        }
+
+        misses.increment();
+        jwt = delegate.decode(token);
+
+        // Tokens without exp would live until evicted, so only cache what expires on its own
+        if (jwt.getExpiresAt() != null) {
+            validated.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    public void invalidateAll() {
+        validated.clear();
+    }
+
+    /**
+     * Drops expired tokens.
+     */
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        validated.removeIf(jwt -> !isUsable(jwt, now));
+    }
+
+    private static boolean isUsable(Jwt jwt, Instant now) {
+        return jwt.getExpiresAt() != null && now.isBefore(jwt.getExpiresAt());
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
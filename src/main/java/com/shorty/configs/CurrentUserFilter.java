@@ -0,0 +1,50 @@
+package com.shorty.configs;
+
+import com.shorty.utils.SecurityUtils;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.UUID;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Reads the authenticated user once, right after bearer token authentication, and binds it to
+ * {@link SecurityUtils#CURRENT_USER} for the rest of the request. Application code reads the scoped value instead of
+ * the thread-local security context, so the binding is immutable and goes away with the request.
+ */
+public class CurrentUserFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        UUID userId = currentUserId();
+        if (userId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            ScopedValue.where(SecurityUtils.CURRENT_USER, userId).call(() -> {
+                chain.doFilter(request, response);
+                return null;
+            });
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+    }
+
+    private static UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
+            return UUID.fromString(jwt.getSubject());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+package com.shorty.configs;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Replaces the auto-configured decoder so that the key set is loaded before the first request, refreshed on a schedule
+ * rather than per request, and repeat requests with the same token skip signature verification.
+ */
+@Slf4j
+@Configuration
+public class JwtDecoderConfig {
+
+    private RefreshingJwkSource jwkSource;
+    private CachingJwtDecoder cachingDecoder;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
+    private String issuerUri;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}")
+    private String jwkSetUri;
+
+    @Value("${app.jwt.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${app.jwt.cache.maximum-size:100000}")
+    private int cacheMaximumSize;
+
+    @Value("${app.jwt.jwk.fetch-timeout:PT5S}")
+    private Duration fetchTimeout;
+
+    @Value("${app.jwt.jwk.min-refresh-interval:PT30S}")
+    private Duration minRefreshInterval;
+
+    @Bean
+    public RefreshingJwkSource refreshingJwkSource(MeterRegistry meterRegistry) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(fetchTimeout);
+        requestFactory.setReadTimeout(fetchTimeout);
+
+        jwkSource = new RefreshingJwkSource(
+                RestClient.builder().requestFactory(requestFactory).build(),
+                jwkSetUri,
+                Clock.systemUTC(),
+                minRefreshInterval);
+        // Loaded before the decoder is published, so the first requests are not rejected for want of keys
+        jwkSource.refresh();
+
+        Gauge.builder("shorty.jwt.jwk.keys", jwkSource, RefreshingJwkSource::size)
+                .description("Signing keys currently known")
+                .register(meterRegistry);
+        return jwkSource;
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(RefreshingJwkSource refreshingJwkSource, MeterRegistry meterRegistry) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, refreshingJwkSource));
+        // Claims are checked by Spring's validators below, as in the decoder Spring Boot would build
+        processor.setJWTClaimsSetVerifier((claims, context) -> {});
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+
+        if (!cacheEnabled) {
+            return decoder;
+        }
+        cachingDecoder = new CachingJwtDecoder(decoder, Clock.systemUTC(), cacheMaximumSize, meterRegistry);
+        return cachingDecoder;
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.jwt.jwk.refresh-interval:PT5M}",
+            fixedDelayString = "${app.jwt.jwk.refresh-interval:PT5M}")
+    public void refreshKeys() {
+        if (jwkSource != null) {
+            jwkSource.refresh();
+        }
+        if (cachingDecoder != null) {
+            cachingDecoder.purgeExpired();
+        }
+    }
+}
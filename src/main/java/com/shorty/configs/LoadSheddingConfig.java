@@ -0,0 +1,51 @@
+package com.shorty.configs;
+
+import com.shorty.configs.LoadSheddingFilter.RouteClass;
+import com.shorty.utils.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "app.load-shedding.enabled", havingValue = "true", matchIfMissing = true)
+public class LoadSheddingConfig {
+
+    @Value("${app.load-shedding.redirect.initial-limit:200}")
+    private int redirectInitialLimit;
+
+    @Value("${app.load-shedding.redirect.min-limit:20}")
+    private int redirectMinLimit;
+
+    @Value("${app.load-shedding.redirect.max-limit:2000}")
+    private int redirectMaxLimit;
+
+    @Value("${app.load-shedding.api.initial-limit:50}")
+    private int apiInitialLimit;
+
+    @Value("${app.load-shedding.api.min-limit:5}")
+    private int apiMinLimit;
+
+    @Value("${app.load-shedding.api.max-limit:200}")
+    private int apiMaxLimit;
+
+    @Bean
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(MeterRegistry meterRegistry) {
+        LoadSheddingFilter filter = new LoadSheddingFilter(
+                Map.of(
+                        RouteClass.REDIRECT,
+                        new AdaptiveConcurrencyLimiter(redirectInitialLimit, redirectMinLimit, redirectMaxLimit),
+                        RouteClass.API,
+                        new AdaptiveConcurrencyLimiter(apiInitialLimit, apiMinLimit, apiMaxLimit)),
+                meterRegistry);
+
+        FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(filter);
+        // Ahead of the security filter chain so shed requests never pay for token validation
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,125 @@
+package com.shorty.configs;
+
+import com.shorty.utils.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds requests beyond each route class's adaptive concurrency limit with an immediate 503, before security or
+ * any database work runs. Only real server errors and lookups that failed or timed out count against the limit; a 503
+ * that was itself load shedding, here or by the open database circuit, says nothing new about capacity.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    public enum RouteClass {
+        REDIRECT,
+        API
+    }
+
+    /**
+     * Request attribute marking a 503 that stands for a failed or timed out lookup rather than a rejection.
+     */
+    public static final String FAILED_ATTRIBUTE = LoadSheddingFilter.class.getName() + ".FAILED";
+
+    private static final byte[] SHED_BODY = """
+            {"type":"https://api.shorty.com/errors/overloaded","title":"Service Unavailable",\
+            "status":503,"detail":"The server is at capacity, please retry shortly"}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final Map<RouteClass, AdaptiveConcurrencyLimiter> limiters;
+    private final Map<RouteClass, Counter> shed = new EnumMap<>(RouteClass.class);
+
+    public LoadSheddingFilter(Map<RouteClass, AdaptiveConcurrencyLimiter> limiters, MeterRegistry meterRegistry) {
+        this.limiters = new EnumMap<>(limiters);
+
+        this.limiters.forEach((routeClass, limiter) -> {
+            String route = routeClass.name().toLowerCase();
+            Gauge.builder("shorty.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("route", route)
+                    .register(meterRegistry);
+            Gauge.builder("shorty.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests currently admitted")
+                    .tag("route", route)
+                    .register(meterRegistry);
+            shed.put(
+                    routeClass,
+                    Counter.builder("shorty.concurrency.shed")
+                            .description("Requests rejected with 503 because the limit was reached")
+                            .tag("route", route)
+                            .register(meterRegistry));
+        });
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RouteClass routeClass = classify(request);
+        AdaptiveConcurrencyLimiter limiter = routeClass != null ? limiters.get(routeClass) : null;
+        if (limiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!limiter.tryAcquire()) {
+            shed.get(routeClass).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+            response.getOutputStream().write(SHED_BODY);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = isFailure(request, response.getStatus());
+        } finally {
+            limiter.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    static boolean isFailure(HttpServletRequest request, int status) {
+        if (status == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            return request.getAttribute(FAILED_ATTRIBUTE) != null;
+        }
+        return status >= 500;
+    }
+
+    static RouteClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/")) {
+            return RouteClass.API;
+        }
+        if ("GET".equals(request.getMethod()) && isShortCodePath(path)) {
+            return RouteClass.REDIRECT;
+        }
+        return null;
+    }
+
+    static boolean isShortCodePath(String path) {
+        if (path.length() < 2 || path.length() > 11 || path.charAt(0) != '/') {
+            return false;
+        }
+        for (int i = 1; i < path.length(); i++) {
+            if (!Character.isLetterOrDigit(path.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
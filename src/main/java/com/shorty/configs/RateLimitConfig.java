@@ -0,0 +1,88 @@
+package com.shorty.configs;
+
+import com.shorty.configs.RateLimitFilter.Policy;
+import com.shorty.configs.RateLimitFilter.Route;
+import com.shorty.utils.SecurityUtils;
+import com.shorty.utils.TokenBucketStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    private final TokenBucketStore buckets;
+
+    @Value("${app.rate-limit.create.capacity:30}")
+    private int createCapacity;
+
+    @Value("${app.rate-limit.create.period:PT1M}")
+    private Duration createPeriod;
+
+    @Value("${app.rate-limit.api.capacity:300}")
+    private int apiCapacity;
+
+    @Value("${app.rate-limit.api.period:PT1M}")
+    private Duration apiPeriod;
+
+    // Off unless configured, since behind an untrusted proxy every visitor would share one bucket
+    @Value("${app.rate-limit.redirect.capacity:0}")
+    private int redirectCapacity;
+
+    @Value("${app.rate-limit.redirect.period:PT1M}")
+    private Duration redirectPeriod;
+
+    public RateLimitConfig(
+            MeterRegistry meterRegistry,
+            @Value("${app.rate-limit.stripes:64}") int stripes,
+            @Value("${app.rate-limit.max-buckets:1000000}") int maxBuckets) {
+        this.buckets = new TokenBucketStore(stripes, maxBuckets, System::nanoTime);
+
+        Gauge.builder("shorty.ratelimit.buckets", buckets, TokenBucketStore::size)
+                .description("Callers with a partially drained rate limit bucket")
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(SecurityUtils securityUtils, MeterRegistry meterRegistry) {
+        Map<Route, Policy> policies = new EnumMap<>(Route.class);
+        addPolicy(policies, Route.CREATE, createCapacity, createPeriod);
+        addPolicy(policies, Route.API, apiCapacity, apiPeriod);
+        addPolicy(policies, Route.REDIRECT, redirectCapacity, redirectPeriod);
+        return new RateLimitFilter(buckets, securityUtils, policies, meterRegistry);
+    }
+
+    // Registered inside the security filter chain, after the user is known, rather than as a servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval:PT1M}")
+    public void evictIdleBuckets() {
+        int evicted = buckets.evictIdle();
+        if (evicted > 0) {
+            log.debug("Evicted {} refilled rate limit buckets", evicted);
+        }
+    }
+
+    private static void addPolicy(Map<Route, Policy> policies, Route route, int capacity, Duration period) {
+        // A capacity of zero or less leaves the route unlimited
+        if (capacity > 0) {
+            policies.put(route, new Policy(capacity, period));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.shorty.configs;
+
+import com.shorty.utils.SecurityUtils;
+import com.shorty.utils.TokenBucketStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Applies a token bucket per route and caller. Authenticated API calls are keyed by the JWT subject and everything
+ * else by client address. Every limited response carries the {@code RateLimit-*} headers from the IETF draft.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public enum Route {
+        CREATE,
+        API,
+        REDIRECT
+    }
+
+    public record Policy(int capacity, Duration period) {}
+
+    private static final byte[] LIMITED_BODY = """
+            {"type":"https://api.shorty.com/errors/rate-limited","title":"Too Many Requests",\
+            "status":429,"detail":"Rate limit exceeded, retry after the time given in Retry-After"}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final TokenBucketStore buckets;
+    private final SecurityUtils securityUtils;
+    private final Map<Route, Policy> policies;
+    private final Map<Route, Counter> rejected = new EnumMap<>(Route.class);
+
+    public RateLimitFilter(
+            TokenBucketStore buckets,
+            SecurityUtils securityUtils,
+            Map<Route, Policy> policies,
+            MeterRegistry meterRegistry) {
+        this.buckets = buckets;
+        this.securityUtils = securityUtils;
+        this.policies = new EnumMap<>(policies);
+
+        for (Route route : this.policies.keySet()) {
+            rejected.put(
+                    route,
+                    Counter.builder("shorty.ratelimit.rejected")
+                            .description("Requests answered with 429")
+                            .tag("route", route.name().toLowerCase())
+                            .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Route route = classify(request);
+        Policy policy = route != null ? policies.get(route) : null;
+        if (policy == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = route.name() + ':' + callerKey(route, request);
+        TokenBucketStore.Decision decision =
+                buckets.tryConsume(key, policy.capacity(), policy.period().toNanos());
+
+        response.setHeader("RateLimit-Policy", policy.capacity() + ";w=" + policy.period().toSeconds());
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(ceilSeconds(decision.resetNanos())));
+
+        if (!decision.allowed()) {
+            rejected.get(route).increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ceilSeconds(decision.retryAfterNanos())));
+            response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+            response.getOutputStream().write(LIMITED_BODY);
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    private String callerKey(Route route, HttpServletRequest request) {
+        if (route != Route.REDIRECT) {
+            UUID userId = securityUtils.getCurrentUserId();
+            if (userId != null) {
+                return userId.toString();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    static Route classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if ("/api/v1/urls".equals(path) && "POST".equals(request.getMethod())) {
+            return Route.CREATE;
+        }
+        if (path.startsWith("/api/")) {
+            return Route.API;
+        }
+        if ("GET".equals(request.getMethod()) && LoadSheddingFilter.isShortCodePath(path)) {
+            return Route.REDIRECT;
+        }
+        return null;
+    }
+
+    private static long ceilSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
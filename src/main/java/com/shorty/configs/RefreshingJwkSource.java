@@ -0,0 +1,77 @@
+package com.shorty.configs;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.RestClient;
+
+/**
+ * JWK set that is refreshed on a schedule and read from memory on the request path. A token signed with an unknown key
+ * id, as after the issuer rotates its keys, fetches the set on the request thread so that the token is accepted right
+ * away, but at most once per {@code minRefreshInterval}; concurrent requests wait for that fetch instead of starting
+ * their own, and tokens with made-up key ids cannot make the node hammer the issuer.
+ */
+@Slf4j
+public class RefreshingJwkSource implements JWKSource<SecurityContext> {
+
+    private final RestClient restClient;
+    private final String jwkSetUri;
+    private final Clock clock;
+    private final Duration minRefreshInterval;
+
+    private volatile JWKSet keys = new JWKSet();
+    private Instant lastRefreshAttempt = Instant.EPOCH;
+
+    public RefreshingJwkSource(RestClient restClient, String jwkSetUri, Clock clock, Duration minRefreshInterval) {
+        this.restClient = restClient;
+        this.jwkSetUri = jwkSetUri;
+        this.clock = clock;
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) {
+        JWKSet known = keys;
+        List<JWK> selected = selector.select(known);
+        if (selected.isEmpty()) {
+            refreshForUnknownKey(known);
+            selected = selector.select(keys);
+        }
+        return selected;
+    }
+
+    /**
+     * Fetches the key set on the calling thread. Failures keep the previous keys so a flaky issuer never locks
+     * everyone out.
+     */
+    public synchronized void refresh() {
+        lastRefreshAttempt = clock.instant();
+        try {
+            String body = restClient.get().uri(jwkSetUri).retrieve().body(String.class);
+            JWKSet fetched = JWKSet.parse(body);
+            keys = fetched;
+            log.debug("Loaded {} signing keys from {}", fetched.getKeys().size(), jwkSetUri);
+        } catch (Exception e) {
+            log.warn("Failed to refresh JWK set from {}, keeping {} known keys: {}", jwkSetUri, size(), e.getMessage());
+        }
+    }
+
+    public int size() {
+        return keys.getKeys().size();
+    }
+
+    // Callers that queued behind another fetch use its result rather than fetching again
+    private synchronized void refreshForUnknownKey(JWKSet known) {
+        if (keys != known || clock.instant().isBefore(lastRefreshAttempt.plus(minRefreshInterval))) {
+            return;
+        }
+        refresh();
+    }
+}
@@ -0,0 +1,61 @@
+package com.shorty.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * With {@code spring.threads.virtual.enabled} Spring Boot already runs Tomcat requests, {@code @Async} tasks and
+ * {@code @Scheduled} jobs on virtual threads. This adds the one piece it leaves out: a bound on how many of those
+ * threads may hold a database connection at once.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.virtual-threads.db-permits:0}") int configuredPermits,
+            @Value("${app.virtual-threads.db-acquire-timeout:PT5S}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitingDataSource) {
+                    return bean;
+                }
+
+                // Default to the pool size so callers wait on the semaphore rather than inside Hikari
+                int permits = configuredPermits > 0
+                        ? configuredPermits
+                        : bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                log.info("Limiting data source '{}' to {} concurrent connections", beanName, permits);
+
+                ConcurrencyLimitingDataSource limited =
+                        new ConcurrencyLimitingDataSource(dataSource, permits, acquireTimeout.toMillis());
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder(
+                                    "shorty.db.permits.available",
+                                    limited,
+                                    ConcurrencyLimitingDataSource::getAvailablePermits)
+                            .description("Database permits not currently held")
+                            .register(registry);
+                    Gauge.builder("shorty.db.permits.waiting", limited, ConcurrencyLimitingDataSource::getQueueLength)
+                            .description("Threads waiting for a database permit")
+                            .register(registry);
+                });
+                return limited;
+            }
+        };
+    }
+}
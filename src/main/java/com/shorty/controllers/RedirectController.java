@@ -1,6 +1,8 @@
 package com.shorty.controllers;
 
 import com.shorty.dtos.responses.RedirectResponse;
+import com.shorty.services.RedirectResult;
+import com.shorty.services.RedirectRules;
 import com.shorty.services.UrlService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,21 +12,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
-@Slf4j
 @RestController
 @Tag(name = "Redirect", description = "Redirect operations for short URLs")
 @RequiredArgsConstructor
 public class RedirectController {
 
     private final UrlService urlService;
+    private final RedirectRules redirectRules;
 
     @Operation(
             summary = "Redirect to original URL",
@@ -32,6 +34,8 @@ public class RedirectController {
     @ApiResponses(
             value = {
                 @ApiResponse(responseCode = "302", description = "Successfully redirected to original URL"),
+                @ApiResponse(responseCode = "301", description = "Permanently redirected to original URL"),
+                @ApiResponse(responseCode = "308", description = "Permanently redirected to original URL"),
                 @ApiResponse(
                         responseCode = "404",
                         description = "Short code not found",
@@ -44,13 +48,21 @@ public class RedirectController {
     @GetMapping(value = "/{shortCode}", produces = MediaType.TEXT_PLAIN_VALUE)
     public void redirectToOriginalUrl(
             @Parameter(description = "The short code to redirect", required = true) @PathVariable String shortCode,
-            HttpServletResponse response) {
-        log.debug("Redirecting short code: {}", shortCode);
+            HttpServletResponse response)
+            throws IOException {
+        RedirectResult result = urlService.resolve(shortCode);
+        if (result instanceof RedirectResult.Found found) {
+            RedirectResponse redirectData = found.response();
+            response.setStatus(redirectRules.redirectStatus(redirectData.redirectPolicy()).value());
+            response.setHeader("Location", redirectData.originalUrl());
+            response.setHeader("Cache-Control", redirectRules.cacheControl(redirectData));
+            return;
+        }
 
-        RedirectResponse redirectData = urlService.resolveAndTrack(shortCode);
-
-        response.setStatus(HttpServletResponse.SC_FOUND);
-        response.setHeader("Location", redirectData.originalUrl());
-        response.setHeader("Cache-Control", "no-cache, no-store, must-revalidate");
+        byte[] body = redirectRules.missBody(result);
+        response.setStatus(redirectRules.missStatus(result).value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
     }
 }
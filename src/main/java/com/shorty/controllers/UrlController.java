@@ -3,6 +3,7 @@ package com.shorty.controllers;
 import com.shorty.dtos.requests.CreateUrlRequest;
 import com.shorty.dtos.responses.PageResponse;
 import com.shorty.dtos.responses.UrlResponse;
+import com.shorty.services.IdempotencyService;
 import com.shorty.services.UrlService;
 import com.shorty.utils.SecurityUtils;
 import io.swagger.v3.oas.annotations.Operation;
@@ -30,6 +31,7 @@ import org.springframework.web.bind.annotation.*;
 public class UrlController {
 
     private final UrlService urlService;
+    private final IdempotencyService idempotencyService;
     private final SecurityUtils securityUtils;
 
     @Operation(summary = "Get all URLs", description = "Retrieve a paginated list of all URLs")
@@ -80,18 +82,38 @@ public class UrlController {
                                         schema = @Schema(implementation = ProblemDetail.class))),
                 @ApiResponse(
                         responseCode = "409",
-                        description = "Custom alias already exists",
+                        description = "Custom alias already exists, or a request with the same idempotency key is"
+                                + " still in progress",
+                        content =
+                                @Content(
+                                        mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                        schema = @Schema(implementation = ProblemDetail.class))),
+                @ApiResponse(
+                        responseCode = "422",
+                        description = "Idempotency key was already used with a different request",
                         content =
                                 @Content(
                                         mediaType = MediaType.APPLICATION_JSON_VALUE,
                                         schema = @Schema(implementation = ProblemDetail.class))),
             })
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<UrlResponse> createShortUrl(@Valid @RequestBody CreateUrlRequest request) {
+    public ResponseEntity<UrlResponse> createShortUrl(
+            @Valid @RequestBody CreateUrlRequest request,
+            @Parameter(description = "Optional key that makes retries of this request return the original response")
+                    @RequestHeader(value = IdempotencyService.HEADER, required = false)
+                    String idempotencyKey) {
         log.info("Received request to create short URL");
         UUID userId = securityUtils.getCurrentUserId();
-        UrlResponse response = urlService.createShortUrl(request, userId);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        if (idempotencyKey == null) {
+            UrlResponse response = urlService.createShortUrl(request, userId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        }
+
+        IdempotencyService.Result result = idempotencyService.execute(
+                userId, idempotencyKey, request, () -> urlService.createShortUrl(request, userId));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.response());
     }
 
     @Operation(
@@ -1,6 +1,8 @@
 package com.shorty.dtos.requests;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.*;
 import java.time.Instant;
@@ -29,7 +31,29 @@ public record CreateUrlRequest(
                 @Min(value = 1, message = "Expiration hours must be at least 1")
                 @Max(value = 87600, message = "Expiration hours cannot exceed 10 years (87600 hours)")
                 @JsonInclude(JsonInclude.Include.NON_NULL)
-                Integer expirationHours) {
+                Integer expirationHours,
+        @Schema(
+                        description = "Optional click tracking policy, defaults to the server-wide policy",
+                        example = "SAMPLED",
+                        requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+                @JsonInclude(JsonInclude.Include.NON_NULL)
+                TrackingPolicy trackingPolicy,
+        @Schema(
+                        description = "Optional sampling rate N for the SAMPLED policy, counting 1 in N clicks",
+                        example = "100",
+                        requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+                @Min(value = 2, message = "Sample rate must be at least 2")
+                @Max(value = 1000000, message = "Sample rate cannot exceed 1000000")
+                @JsonInclude(JsonInclude.Include.NON_NULL)
+                Integer sampleRate,
+        @Schema(
+                        description =
+                                "Optional redirect caching policy. Cached redirects are answered by browsers and CDNs"
+                                        + " without reaching the server, so their clicks are not counted",
+                        example = "NO_STORE",
+                        requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+                @JsonInclude(JsonInclude.Include.NON_NULL)
+                RedirectPolicy redirectPolicy) {
     public Instant calculateExpirationTime() {
         if (expirationHours == null) {
             return null;
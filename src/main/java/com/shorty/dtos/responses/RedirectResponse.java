@@ -1,3 +1,6 @@
 package com.shorty.dtos.responses;
 
-public record RedirectResponse(String originalUrl, Long clickCount) {}
+import com.shorty.entities.RedirectPolicy;
+import java.time.Instant;
+
+public record RedirectResponse(String originalUrl, Long clickCount, RedirectPolicy redirectPolicy, Instant expiresAt) {}
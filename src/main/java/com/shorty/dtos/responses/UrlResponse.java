@@ -1,5 +1,7 @@
 package com.shorty.dtos.responses;
 
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.time.Instant;
 import java.util.UUID;
@@ -11,5 +13,13 @@ public record UrlResponse(
         @Schema(description = "The full short URL", example = "https://shorty.com/abc123") String shortUrl,
         @Schema(description = "The original long URL", example = "https://www.example.com") String originalUrl,
         @Schema(description = "The number of clicks this short URL has received", example = "15") Long clickCount,
+        @Schema(description = "How clicks on this short URL are counted", example = "EXACT")
+                TrackingPolicy trackingPolicy,
+        @Schema(description = "Whether the click count is a scaled-up estimate from sampled clicks", example = "false")
+                Boolean clickCountEstimated,
+        @Schema(description = "95% error bound of an estimated click count", example = "120")
+                Long clickCountErrorBound,
+        @Schema(description = "How redirects for this short URL may be cached", example = "NO_STORE")
+                RedirectPolicy redirectPolicy,
         @Schema(description = "Expiration timestamp", example = "2023-12-31T23:59:59Z") Instant expiresAt,
         @Schema(description = "Creation timestamp", example = "2023-01-01T00:00:00Z") Instant createdAt) {}
@@ -0,0 +1,6 @@
+package com.shorty.entities;
+
+public enum ChangeType {
+    CREATED,
+    DELETED
+}
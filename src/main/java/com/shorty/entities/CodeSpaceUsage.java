@@ -0,0 +1,36 @@
+package com.shorty.entities;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(CodeSpaceUsage.Key.class)
+@Table(name = "code_space_usage")
+public class CodeSpaceUsage {
+
+    @Id
+    @Column(name = "code_length", nullable = false)
+    private Integer codeLength;
+
+    // Each length's count is the sum over several rows, so concurrent creates rarely wait on the same row lock
+    @Id
+    @Column(name = "stripe", nullable = false)
+    private Integer stripe;
+
+    @Column(name = "allocated", nullable = false)
+    private Long allocated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Integer codeLength;
+        private Integer stripe;
+    }
+}
@@ -0,0 +1,41 @@
+package com.shorty.entities;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "job_runs",
+        indexes = {@Index(name = "idx_job_runs_job_status", columnList = "job_name, status")})
+public class JobRun {
+
+    @Id
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "job_name", nullable = false, length = 64)
+    private String jobName;
+
+    @Column(name = "partitions", nullable = false)
+    private Integer partitions;
+
+    // RUNNING until the last work unit completes, or ABANDONED when the next run starts first
+    @Column(name = "status", nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "started_by", nullable = false, length = 128)
+    private String startedBy;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+}
@@ -0,0 +1,54 @@
+package com.shorty.entities;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "job_work_units",
+        indexes = {
+            @Index(name = "idx_job_work_units_run", columnList = "run_id"),
+            @Index(name = "idx_job_work_units_open", columnList = "completed_at, lease_expires_at")
+        })
+public class JobWorkUnit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private UUID runId;
+
+    @Column(name = "job_name", nullable = false, length = 64)
+    private String jobName;
+
+    @Column(name = "partition_index", nullable = false)
+    private Integer partitionIndex;
+
+    @Column(name = "partitions", nullable = false)
+    private Integer partitions;
+
+    // Node holding the lease, which it loses to any other node once lease_expires_at has passed
+    @Column(name = "owner", length = 128)
+    private String owner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Builder.Default
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "processed")
+    private Long processed;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+}
@@ -0,0 +1,12 @@
+package com.shorty.entities;
+
+public enum RedirectPolicy {
+    NO_STORE,
+    MOVED_PERMANENTLY,
+    PERMANENT_REDIRECT,
+    SHARED_CACHE;
+
+    public boolean isCacheable() {
+        return this != NO_STORE;
+    }
+}
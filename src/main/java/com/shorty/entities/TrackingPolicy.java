@@ -0,0 +1,7 @@
+package com.shorty.entities;
+
+public enum TrackingPolicy {
+    EXACT,
+    SAMPLED,
+    UNTRACKED
+}
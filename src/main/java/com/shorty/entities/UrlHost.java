@@ -0,0 +1,23 @@
+package com.shorty.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "url_hosts",
+        indexes = {@Index(name = "idx_url_hosts_prefix", columnList = "prefix", unique = true)})
+public class UrlHost {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "prefix", nullable = false, unique = true, length = 255)
+    private String prefix;
+}
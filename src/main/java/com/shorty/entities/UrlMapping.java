@@ -1,5 +1,8 @@
 package com.shorty.entities;
 
+import com.shorty.mappers.CodeSpaceListener;
+import com.shorty.mappers.UrlCompressionListener;
+import com.shorty.utils.CoarseClock;
 import jakarta.persistence.*;
 import java.time.Instant;
 import java.util.UUID;
@@ -20,9 +23,11 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
             @Index(name = "idx_short_code", columnList = "short_code", unique = true),
             @Index(name = "idx_expires_at", columnList = "expires_at"),
             @Index(name = "idx_created_at", columnList = "created_at"),
-            @Index(name = "idx_user_id", columnList = "user_id")
+            @Index(name = "idx_updated_at", columnList = "updated_at"),
+            @Index(name = "idx_user_id", columnList = "user_id"),
+            @Index(name = "idx_user_url_hash", columnList = "user_id, url_hash")
         })
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, UrlCompressionListener.class, CodeSpaceListener.class})
 public class UrlMapping {
 
     @Id
@@ -33,9 +38,20 @@ public class UrlMapping {
     @Column(name = "short_code", nullable = false, unique = true, length = 10)
     private String shortCode;
 
-    @Column(name = "original_url", nullable = false, length = 2048)
+    @Transient
     private String originalUrl;
 
+    // The part after the host prefix when hostId is set, otherwise the full original URL
+    @Column(name = "original_url", nullable = false, length = 2048)
+    private String storedUrl;
+
+    @Column(name = "host_id")
+    private Integer hostId;
+
+    // Truncated SHA-256 of the canonical original URL, used to find a user's existing link to the same destination
+    @Column(name = "url_hash")
+    private Long urlHash;
+
     @Column(name = "expires_at")
     private Instant expiresAt;
 
@@ -58,11 +74,42 @@ public class UrlMapping {
     @Column(name = "user_id", nullable = false)
     private UUID userId;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tracking_policy", length = 16)
+    private TrackingPolicy trackingPolicy;
+
+    @Column(name = "sample_rate")
+    private Integer sampleRate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "redirect_policy", length = 24)
+    private RedirectPolicy redirectPolicy;
+
     public boolean isExpired() {
-        return expiresAt != null && Instant.now().isAfter(expiresAt);
+        return CoarseClock.isExpired(expiresAt);
     }
 
     public void incrementClickCount() {
         this.clickCount++;
     }
+
+    public TrackingPolicy getEffectiveTrackingPolicy() {
+        return trackingPolicy != null ? trackingPolicy : TrackingPolicy.EXACT;
+    }
+
+    public RedirectPolicy getEffectiveRedirectPolicy() {
+        return redirectPolicy != null ? redirectPolicy : RedirectPolicy.NO_STORE;
+    }
+
+    public boolean isClickCountEstimated() {
+        return getEffectiveTrackingPolicy() == TrackingPolicy.SAMPLED && sampleRate != null && sampleRate > 1;
+    }
+
+    public Long getClickCountErrorBound() {
+        if (!isClickCountEstimated()) {
+            return null;
+        }
+        // 95% confidence half-width of a 1-in-N binomial sample scaled back up by N
+        return Math.round(1.96 * Math.sqrt((double) clickCount * (sampleRate - 1)));
+    }
 }
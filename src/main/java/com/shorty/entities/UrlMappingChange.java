@@ -0,0 +1,31 @@
+package com.shorty.entities;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "url_mapping_changes",
+        indexes = {@Index(name = "idx_changed_at", columnList = "changed_at")})
+public class UrlMappingChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "short_code", nullable = false, length = 10)
+    private String shortCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private ChangeType changeType;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+}
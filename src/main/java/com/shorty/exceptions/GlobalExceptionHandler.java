@@ -1,12 +1,16 @@
 package com.shorty.exceptions;
 
+import com.shorty.configs.LoadSheddingFilter;
+import jakarta.servlet.http.HttpServletRequest;
 import java.net.URI;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -32,6 +36,34 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(value = IdempotencyConflictException.class)
+    public ResponseEntity<ProblemDetail> handleIdempotencyConflict(IdempotencyConflictException exception) {
+        log.debug("Idempotency conflict: {}", exception.getMessage());
+
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, exception.getMessage());
+        problemDetail.setTitle("Request In Progress");
+        problemDetail.setType(URI.create(ERRORS_BASE_URL + "/idempotency-conflict"));
+        problemDetail.setProperty("timestamp", Instant.now());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problemDetail);
+    }
+
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    @ExceptionHandler(value = IdempotencyKeyMismatchException.class)
+    public ProblemDetail handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException exception) {
+        log.warn("Idempotency key reused: {}", exception.getMessage());
+
+        ProblemDetail problemDetail =
+                ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_ENTITY, exception.getMessage());
+        problemDetail.setTitle("Idempotency Key Reused");
+        problemDetail.setType(URI.create(ERRORS_BASE_URL + "/idempotency-key-reused"));
+        problemDetail.setProperty("timestamp", Instant.now());
+
+        return problemDetail;
+    }
+
     @ResponseStatus(HttpStatus.GONE)
     @ExceptionHandler(value = UrlExpiredException.class)
     public ProblemDetail handleUrlExpired(UrlExpiredException exception) {
@@ -58,6 +90,25 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(value = LookupUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleLookupUnavailable(
+            LookupUnavailableException exception, HttpServletRequest request) {
+        log.warn("Lookup unavailable: {}", exception.getMessage());
+        if (!exception.isRejected()) {
+            request.setAttribute(LoadSheddingFilter.FAILED_ATTRIBUTE, Boolean.TRUE);
+        }
+
+        ProblemDetail problemDetail =
+                ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+        problemDetail.setTitle("Service Unavailable");
+        problemDetail.setType(URI.create(ERRORS_BASE_URL + "/lookup-unavailable"));
+        problemDetail.setProperty("timestamp", Instant.now());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(problemDetail);
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(value = MethodArgumentNotValidException.class)
     public ProblemDetail handleValidationErrors(MethodArgumentNotValidException exception) {
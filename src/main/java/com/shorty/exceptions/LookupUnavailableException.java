@@ -0,0 +1,22 @@
+package com.shorty.exceptions;
+
+import lombok.Getter;
+
+@Getter
+public class LookupUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    // Turned away by the open circuit without trying the database, as opposed to a lookup that failed or timed out
+    private final boolean rejected;
+
+    public LookupUnavailableException(String message, long retryAfterSeconds) {
+        this(message, retryAfterSeconds, false);
+    }
+
+    public LookupUnavailableException(String message, long retryAfterSeconds, boolean rejected) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.rejected = rejected;
+    }
+}
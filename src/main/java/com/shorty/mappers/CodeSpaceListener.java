@@ -0,0 +1,27 @@
+package com.shorty.mappers;
+
+import com.shorty.entities.UrlMapping;
+import com.shorty.services.CodeSpaceMonitor;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps the {@link CodeSpaceMonitor} counters in step with mappings stored and deleted through JPA. Bulk deletes in
+ * {@code UrlMappingRepository} update the counters in the same statement instead.
+ */
+@RequiredArgsConstructor
+public class CodeSpaceListener {
+
+    private final CodeSpaceMonitor codeSpaceMonitor;
+
+    @PostPersist
+    public void allocated(UrlMapping mapping) {
+        codeSpaceMonitor.allocated(mapping.getShortCode());
+    }
+
+    @PostRemove
+    public void released(UrlMapping mapping) {
+        codeSpaceMonitor.released(mapping.getShortCode());
+    }
+}
@@ -0,0 +1,44 @@
+package com.shorty.mappers;
+
+import com.shorty.caches.HostDictionary;
+import com.shorty.entities.UrlMapping;
+import com.shorty.services.HostDictionaryService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Splits {@link UrlMapping#getOriginalUrl()} into a host dictionary id and the remaining suffix when a mapping is
+ * stored, and reassembles it when one is loaded, so nothing outside the persistence layer sees the stored form.
+ */
+@RequiredArgsConstructor
+public class UrlCompressionListener {
+
+    private final HostDictionaryService hostDictionaryService;
+
+    @PrePersist
+    public void compress(UrlMapping mapping) {
+        String url = mapping.getOriginalUrl();
+        int prefixLength = HostDictionary.prefixLength(url);
+        int hostId =
+                prefixLength > 0 ? hostDictionaryService.intern(url.substring(0, prefixLength)) : HostDictionary.NONE;
+
+        if (hostId == HostDictionary.NONE) {
+            mapping.setHostId(null);
+            mapping.setStoredUrl(url);
+        } else {
+            mapping.setHostId(hostId);
+            mapping.setStoredUrl(url.substring(prefixLength));
+        }
+    }
+
+    @PostLoad
+    public void expand(UrlMapping mapping) {
+        Integer hostId = mapping.getHostId();
+        if (hostId == null) {
+            mapping.setOriginalUrl(mapping.getStoredUrl());
+        } else {
+            mapping.setOriginalUrl(hostDictionaryService.prefix(hostId) + mapping.getStoredUrl());
+        }
+    }
+}
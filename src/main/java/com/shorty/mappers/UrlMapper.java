@@ -1,5 +1,6 @@
 package com.shorty.mappers;
 
+import com.shorty.caches.RedirectTarget;
 import com.shorty.dtos.responses.UrlResponse;
 import com.shorty.entities.UrlMapping;
 import org.mapstruct.*;
@@ -11,8 +12,14 @@ import org.mapstruct.*;
 public interface UrlMapper {
 
     @Mapping(target = "shortUrl", expression = "java(buildShortUrl(mapping.getShortCode(), baseUrl))")
+    @Mapping(target = "trackingPolicy", source = "effectiveTrackingPolicy")
+    @Mapping(target = "redirectPolicy", source = "effectiveRedirectPolicy")
     UrlResponse toResponse(UrlMapping mapping, @Context String baseUrl);
 
+    @Mapping(target = "redirectPolicy", source = "effectiveRedirectPolicy")
+    @Mapping(target = "trackingPolicy", source = "effectiveTrackingPolicy")
+    RedirectTarget toRedirectTarget(UrlMapping mapping);
+
     default String buildShortUrl(String shortCode, String baseUrl) {
         return baseUrl + "/" + shortCode;
     }
@@ -0,0 +1,31 @@
+package com.shorty.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.shorty.CacheLoad")
+@Label("Cache Load")
+@Description("Cache miss or refresh-ahead loading a value that concurrent callers share")
+@Category({"Shorty", "Cache"})
+@StackTrace(false)
+public class CacheLoadEvent extends Event {
+
+    @Label("Key")
+    String key;
+
+    @Label("Outcome")
+    String outcome;
+
+    public void complete(Object key, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.key = String.valueOf(key);
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
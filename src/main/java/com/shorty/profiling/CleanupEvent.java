@@ -0,0 +1,31 @@
+package com.shorty.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.shorty.Cleanup")
+@Label("Cleanup")
+@Description("Delete of expired mappings by the cleanup job")
+@Category({"Shorty", "Database"})
+@StackTrace(false)
+public class CleanupEvent extends Event {
+
+    @Label("Deleted")
+    long deleted;
+
+    @Label("Outcome")
+    String outcome;
+
+    public void complete(long deleted, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.deleted = deleted;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.shorty.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.shorty.ClickFlush")
+@Label("Click Flush")
+@Description("Click count increment written to the database, or buffered when it could not be")
+@Category({"Shorty", "Database"})
+@StackTrace(false)
+public class ClickFlushEvent extends Event {
+
+    @Label("Short Code")
+    String shortCode;
+
+    @Label("Clicks")
+    long clicks;
+
+    @Label("Outcome")
+    String outcome;
+
+    public void complete(String shortCode, long clicks, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.shortCode = shortCode;
+            this.clicks = clicks;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.shorty.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.shorty.DatabaseLookup")
+@Label("Database Lookup")
+@Description("Redirect target read from the database, including the wait for a connection")
+@Category({"Shorty", "Database"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class DatabaseLookupEvent extends Event {
+
+    @Label("Short Code")
+    String shortCode;
+
+    @Label("Outcome")
+    String outcome;
+
+    public void complete(String shortCode, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.shortCode = shortCode;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.shorty.profiling;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Starts, dumps and stops a single flight recording on the running node, so latency spikes can be profiled without
+ * attaching a profiler. Recordings are bounded in duration, size and age and are written to the configured directory,
+ * keeping only the most recent files:
+ *
+ * <pre>
+ * GET  /actuator/flightrecorder
+ * POST /actuator/flightrecorder/start   {"profile": "profile", "duration": "PT5M", "threshold": "PT0S"}
+ * POST /actuator/flightrecorder/dump
+ * POST /actuator/flightrecorder/stop
+ * </pre>
+ */
+@Slf4j
+@Component
+@Endpoint(id = "flightrecorder")
+@ConditionalOnProperty(name = "app.jfr.enabled", havingValue = "true", matchIfMissing = true)
+public class FlightRecorderEndpoint {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final List<String> SHORTY_EVENTS = List.of(
+            "com.shorty.RedirectResolve",
+            "com.shorty.DatabaseLookup",
+            "com.shorty.CacheLoad",
+            "com.shorty.ClickFlush",
+            "com.shorty.Cleanup");
+
+    private final Path directory;
+    private final String defaultProfile;
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+    private final int keep;
+
+    private Recording recording;
+    private Path destination;
+
+    public FlightRecorderEndpoint(
+            @Value("${app.jfr.directory:./recordings}") Path directory,
+            @Value("${app.jfr.default-profile:default}") String defaultProfile,
+            @Value("${app.jfr.default-duration:PT5M}") Duration defaultDuration,
+            @Value("${app.jfr.max-duration:PT30M}") Duration maxDuration,
+            @Value("${app.jfr.max-size:250MB}") DataSize maxSize,
+            @Value("${app.jfr.keep:5}") int keep) {
+        this.directory = directory;
+        this.defaultProfile = defaultProfile;
+        this.defaultDuration = defaultDuration;
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+        this.keep = keep;
+    }
+
+    @ReadOperation
+    public synchronized Status status() {
+        return currentStatus();
+    }
+
+    /**
+     * @param action {@code start}, {@code dump} or {@code stop}
+     * @param profile a JFR configuration name, {@code default} or {@code profile} unless custom ones are installed
+     * @param duration recording length, capped at {@code app.jfr.max-duration}
+     * @param threshold overrides the threshold of this application's events, {@code PT0S} records every one
+     */
+    @WriteOperation
+    public synchronized Status control(
+            @Selector String action,
+            @OptionalParameter String profile,
+            @OptionalParameter Duration duration,
+            @OptionalParameter Duration threshold) {
+        return switch (action) {
+            case "start" -> start(profile, duration, threshold);
+            case "dump" -> dump();
+            case "stop" -> stop();
+            default -> throw new InvalidEndpointRequestException(
+                    "Unknown action '" + action + "', expected start, dump or stop", "Unknown action");
+        };
+    }
+
+    private Status start(String profile, Duration duration, Duration threshold) {
+        if (isRunning()) {
+            throw new InvalidEndpointRequestException(
+                    "A recording is already running until " + expectedEnd(), "Recording already running");
+        }
+
+        Configuration configuration = configuration(profile != null ? profile : defaultProfile);
+        Duration length = duration != null ? duration : defaultDuration;
+        if (length.isNegative() || length.isZero() || length.compareTo(maxDuration) > 0) {
+            length = maxDuration;
+        }
+
+        Recording started = new Recording(configuration);
+        started.setName("shorty-" + configuration.getName());
+        started.setToDisk(true);
+        started.setMaxSize(maxSize.toBytes());
+        started.setMaxAge(length);
+        started.setDuration(length);
+        if (threshold != null) {
+            SHORTY_EVENTS.forEach(event -> started.enable(event).withThreshold(threshold));
+        }
+
+        Path file = createDirectory().resolve(fileName("recording"));
+        try {
+            started.setDestination(file);
+        } catch (IOException e) {
+            started.close();
+            throw new UncheckedIOException("Cannot write recordings to " + directory, e);
+        }
+        started.start();
+
+        closeFinished();
+        recording = started;
+        destination = file;
+        log.info("Started {} flight recording for {}, writing to {}", configuration.getName(), length, file);
+        return currentStatus();
+    }
+
+    private Status dump() {
+        if (!isRunning()) {
+            throw new InvalidEndpointRequestException("No recording is running", "No recording");
+        }
+
+        Path file = createDirectory().resolve(fileName("dump"));
+        try {
+            recording.dump(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to dump the recording to " + file, e);
+        }
+        log.info("Dumped the running flight recording to {}", file);
+        prune();
+        return currentStatus();
+    }
+
+    private Status stop() {
+        if (!isRunning()) {
+            throw new InvalidEndpointRequestException("No recording is running", "No recording");
+        }
+
+        // Stopping writes the recording to its destination before returning
+        recording.stop();
+        log.info("Stopped the flight recording, written to {}", destination);
+        closeFinished();
+        return currentStatus();
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private Instant expectedEnd() {
+        return recording.getStartTime().plus(recording.getDuration());
+    }
+
+    private void closeFinished() {
+        if (recording != null && recording.getState() != RecordingState.RUNNING) {
+            recording.close();
+            recording = null;
+            prune();
+        }
+    }
+
+    private Configuration configuration(String profile) {
+        try {
+            return Configuration.getConfiguration(profile);
+        } catch (IOException | ParseException e) {
+            throw new InvalidEndpointRequestException(
+                    "Unknown recording profile '" + profile + "'", "Unknown recording profile");
+        }
+    }
+
+    private Path createDirectory() {
+        try {
+            return Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create recording directory " + directory, e);
+        }
+    }
+
+    private String fileName(String kind) {
+        return "shorty-" + FILE_TIMESTAMP.format(Instant.now()) + "-" + kind + ".jfr";
+    }
+
+    private List<Path> files() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jfr"))
+                    .sorted(Comparator.comparing(Path::getFileName).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list recording directory " + directory, e);
+        }
+    }
+
+    private void prune() {
+        // File names start with a UTC timestamp, so name order is creation order
+        files().stream().skip(keep).filter(file -> !file.equals(destination)).forEach(file -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete old recording {}: {}", file, e.getMessage());
+            }
+        });
+    }
+
+    private Status currentStatus() {
+        List<String> files = files().stream().map(file -> file.getFileName().toString()).toList();
+        if (!isRunning()) {
+            return new Status(false, null, null, null, directory.toAbsolutePath().toString(), files);
+        }
+        return new Status(
+                true,
+                recording.getName(),
+                recording.getStartTime(),
+                expectedEnd(),
+                directory.toAbsolutePath().toString(),
+                files);
+    }
+
+    public record Status(
+            boolean running, String name, Instant startedAt, Instant endsAt, String directory, List<String> files) {}
+}
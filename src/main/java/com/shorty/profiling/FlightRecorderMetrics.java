@@ -0,0 +1,82 @@
+package com.shorty.profiling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streams this application's flight recorder events, plus monitor contention from the JVM, into
+ * {@code shorty.jfr.events} timers. Unlike the request timers these include time spent inside the JVM, such as
+ * waiting to enter a lock, and they keep working when a recording is started through the endpoint.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.jfr.streaming.enabled", havingValue = "true")
+public class FlightRecorderMetrics {
+
+    private static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    private static final Map<String, String> EVENTS = Map.of(
+            "com.shorty.RedirectResolve", "redirect_resolve",
+            "com.shorty.DatabaseLookup", "database_lookup",
+            "com.shorty.CacheLoad", "cache_load",
+            "com.shorty.ClickFlush", "click_flush",
+            "com.shorty.Cleanup", "cleanup",
+            MONITOR_ENTER, "monitor_enter");
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Duration lockThreshold;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public FlightRecorderMetrics(
+            MeterRegistry meterRegistry,
+            @Value("${app.jfr.streaming.threshold:PT0S}") Duration threshold,
+            @Value("${app.jfr.streaming.lock-threshold:PT0.01S}") Duration lockThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+        this.lockThreshold = lockThreshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.setMaxAge(Duration.ofSeconds(10));
+        EVENTS.keySet().forEach(name -> {
+            stream.enable(name).withThreshold(name.equals(MONITOR_ENTER) ? lockThreshold : threshold);
+            stream.onEvent(name, this::record);
+        });
+        stream.onError(e -> log.warn("Flight recorder stream failed: {}", e.getMessage()));
+        stream.startAsync();
+        log.info("Streaming flight recorder events into metrics, threshold {}", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        String name = event.getEventType().getName();
+        String outcome = event.hasField("outcome") ? event.getString("outcome") : "none";
+        timers.computeIfAbsent(name + ':' + outcome, _ -> Timer.builder("shorty.jfr.events")
+                        .description("Duration of flight recorder events, streamed from the running JVM")
+                        .tag("event", EVENTS.get(name))
+                        .tag("outcome", outcome != null ? outcome.toLowerCase(Locale.ROOT) : "none")
+                        .register(meterRegistry))
+                .record(event.getDuration());
+    }
+}
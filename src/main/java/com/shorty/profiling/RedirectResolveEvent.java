@@ -0,0 +1,37 @@
+package com.shorty.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One redirect, from the lookup to the click being recorded. The default threshold keeps fast cache hits out of a
+ * recording, lower it with {@code threshold} when starting one through the endpoint.
+ */
+@Name("com.shorty.RedirectResolve")
+@Label("Redirect Resolve")
+@Description("Short code resolved to its destination")
+@Category({"Shorty", "Redirect"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class RedirectResolveEvent extends Event {
+
+    @Label("Short Code")
+    String shortCode;
+
+    @Label("Outcome")
+    String outcome;
+
+    public void complete(String shortCode, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.shortCode = shortCode;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.shorty.repositories;
+
+import com.shorty.entities.IdempotencyRecord;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Transactional
+    @Modifying
+    @Query(
+            value = "INSERT INTO idempotency_keys (idempotency_key, request_hash, created_at, expires_at)"
+                    + " VALUES (:key, :requestHash, :now, :expiresAt) ON CONFLICT (idempotency_key) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(
+            @Param("key") String key,
+            @Param("requestHash") String requestHash,
+            @Param("now") Instant now,
+            @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query(
+            "UPDATE IdempotencyRecord r SET r.responseBody = :responseBody, r.expiresAt = :expiresAt"
+                    + " WHERE r.key = :key")
+    int complete(
+            @Param("key") String key,
+            @Param("responseBody") String responseBody,
+            @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.responseBody IS NULL")
+    int deletePending(@Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.expiresAt <= :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,27 @@
+package com.shorty.repositories;
+
+import com.shorty.entities.ChangeType;
+import com.shorty.entities.UrlMappingChange;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface UrlMappingChangeRepository extends JpaRepository<UrlMappingChange, Long> {
+
+    List<UrlMappingChange> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    List<UrlMappingChange> findByChangeTypeAndChangedAtAfter(ChangeType changeType, Instant since);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM UrlMappingChange c")
+    long findMaxId();
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UrlMappingChange c WHERE c.changedAt < :before")
+    int deleteChangesBefore(@Param("before") Instant before);
+}
@@ -1,17 +1,23 @@
 package com.shorty.repositories;
 
+import com.shorty.entities.RedirectPolicy;
 import com.shorty.entities.UrlMapping;
 import jakarta.persistence.LockModeType;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UrlMappingRepository extends JpaRepository<UrlMapping, UUID> {
 
@@ -23,12 +29,73 @@ public interface UrlMappingRepository extends JpaRepository<UrlMapping, UUID> {
 
     boolean existsByShortCode(String shortCode);
 
+    List<UrlMapping> findByShortCodeIn(Collection<String> shortCodes);
+
+    @Transactional
     @Modifying
-    @Query("DELETE FROM UrlMapping u WHERE u.expiresAt IS NOT NULL AND u.expiresAt < :now")
-    int deleteExpiredMappings(@Param("now") Instant now);
+    @Query("UPDATE UrlMapping u SET u.clickCount = u.clickCount + :increment WHERE u.shortCode = :shortCode")
+    int incrementClickCount(@Param("shortCode") String shortCode, @Param("increment") long increment);
+
+    // Bulk deletes skip entity listeners and the change publisher, so these record the deleted codes in the change log
+    // for replicas and snapshot overlays, and release them from code_space_usage, in the same statement
+    String RECORD_DELETED_CODES = " RETURNING short_code),"
+            + " logged AS (INSERT INTO url_mapping_changes (short_code, change_type, changed_at)"
+            + " SELECT short_code, 'DELETED', now() FROM deleted),"
+            + " counts AS (SELECT char_length(short_code) AS code_length, count(*) AS n FROM deleted"
+            + " GROUP BY char_length(short_code)),"
+            + " released AS (INSERT INTO code_space_usage (code_length, stripe, allocated)"
+            + " SELECT code_length, 0, -n FROM counts ON CONFLICT (code_length, stripe)"
+            + " DO UPDATE SET allocated = code_space_usage.allocated + excluded.allocated)"
+            + " SELECT CAST(coalesce(sum(n), 0) AS integer) FROM counts";
+
+    @Transactional
+    @Query(
+            value = "WITH deleted AS (DELETE FROM url_mappings WHERE expires_at < :now"
+                    + " AND hashtext(short_code) BETWEEN :lowHash AND :highHash"
+                    + RECORD_DELETED_CODES,
+            nativeQuery = true)
+    int deleteExpiredMappingsInHashRange(
+            @Param("now") Instant now, @Param("lowHash") int lowHash, @Param("highHash") int highHash);
 
-    @Query("SELECT COUNT(u) FROM UrlMapping u WHERE u.expiresAt IS NOT NULL AND u.expiresAt < :now")
-    long countExpiredMappings(@Param("now") Instant now);
+    @Transactional
+    @Query(
+            value = "WITH deleted AS (DELETE FROM url_mappings WHERE short_code IN (:shortCodes)"
+                    + " AND expires_at < :now"
+                    + RECORD_DELETED_CODES,
+            nativeQuery = true)
+    int deleteExpiredByShortCodes(@Param("shortCodes") Collection<String> shortCodes, @Param("now") Instant now);
 
     Page<UrlMapping> findByUserId(Pageable pageable, UUID userId);
+
+    @Query("SELECT u FROM UrlMapping u WHERE u.userId = :userId AND u.urlHash = :urlHash"
+            + " AND (u.expiresAt IS NULL OR u.expiresAt > :now)")
+    List<UrlMapping> findActiveByUserIdAndUrlHash(
+            @Param("userId") UUID userId, @Param("urlHash") long urlHash, @Param("now") Instant now);
+
+    @Query("SELECT u FROM UrlMapping u WHERE u.redirectPolicy IN :policies"
+            + " AND (u.expiresAt IS NULL OR u.expiresAt > :now) AND u.updatedAt > :since")
+    Slice<UrlMapping> findCacheableActiveMappings(
+            @Param("policies") Collection<RedirectPolicy> policies,
+            @Param("now") Instant now,
+            @Param("since") Instant since,
+            Pageable pageable);
+
+    @Query("SELECT u FROM UrlMapping u WHERE u.id > :afterId AND u.redirectPolicy IN :policies"
+            + " AND (u.expiresAt IS NULL OR u.expiresAt > :now) ORDER BY u.id")
+    List<UrlMapping> findCacheableActiveMappingsAfter(
+            @Param("policies") Collection<RedirectPolicy> policies,
+            @Param("now") Instant now,
+            @Param("afterId") UUID afterId,
+            Limit limit);
+
+    @Query("SELECT u FROM UrlMapping u WHERE u.updatedAt > :since AND u.id > :afterId ORDER BY u.id")
+    List<UrlMapping> findUpdatedMappingsAfter(
+            @Param("since") Instant since, @Param("afterId") UUID afterId, Limit limit);
+
+    @Query("SELECT COUNT(u) FROM UrlMapping u WHERE u.expiresAt IS NULL OR u.expiresAt > :now")
+    long countActiveMappings(@Param("now") Instant now);
+
+    @Query("SELECT u FROM UrlMapping u WHERE u.id > :afterId"
+            + " AND (u.expiresAt IS NULL OR u.expiresAt > :now) ORDER BY u.id")
+    List<UrlMapping> findActiveMappingsAfter(@Param("now") Instant now, @Param("afterId") UUID afterId, Limit limit);
 }
@@ -0,0 +1,159 @@
+package com.shorty.services;
+
+import com.shorty.services.UrlMetrics.ResolveOutcome;
+import com.shorty.utils.AccessLogBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Structured access log for redirects. Request threads only decide whether to sample an entry and copy its fields
+ * into a lock-free ring buffer; a single background writer drains the buffer in batches and hands the entries to the
+ * {@code com.shorty.access} logger as key-value pairs. Entries that do not fit because the writer fell behind are
+ * dropped and counted rather than slowing the redirect down.
+ */
+@Slf4j
+@Service
+public class AccessLog {
+
+    private static final Logger ACCESS = LoggerFactory.getLogger("com.shorty.access");
+    private static final ResolveOutcome[] OUTCOMES = ResolveOutcome.values();
+
+    private final boolean enabled;
+    private final AccessLogBuffer buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int[] sampleRates = new int[OUTCOMES.length];
+    private final AccessLogBuffer.Sink sink = this::write;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter sampledOut;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AccessLog(
+            MeterRegistry meterRegistry,
+            @Value("${app.access-log.enabled:true}") boolean enabled,
+            @Value("${app.access-log.buffer-size:65536}") int bufferSize,
+            @Value("${app.access-log.batch-size:512}") int batchSize,
+            @Value("${app.access-log.flush-interval:PT0.2S}") Duration flushInterval,
+            @Value("${app.access-log.sample-rate.found:100}") int foundSampleRate,
+            @Value("${app.access-log.sample-rate.not-found:1}") int notFoundSampleRate,
+            @Value("${app.access-log.sample-rate.expired:1}") int expiredSampleRate,
+            @Value("${app.access-log.sample-rate.unavailable:1}") int unavailableSampleRate) {
+        this.enabled = enabled;
+        this.buffer = new AccessLogBuffer(bufferSize);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        sampleRates[ResolveOutcome.FOUND.ordinal()] = foundSampleRate;
+        sampleRates[ResolveOutcome.NOT_FOUND.ordinal()] = notFoundSampleRate;
+        sampleRates[ResolveOutcome.EXPIRED.ordinal()] = expiredSampleRate;
+        sampleRates[ResolveOutcome.UNAVAILABLE.ordinal()] = unavailableSampleRate;
+
+        this.written = counter(meterRegistry, "written");
+        this.dropped = counter(meterRegistry, "dropped");
+        this.sampledOut = counter(meterRegistry, "sampled_out");
+        Gauge.builder("shorty.access-log.backlog", buffer, AccessLogBuffer::size)
+                .description("Access log entries waiting for the writer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("access-log-writer").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(Duration.ofSeconds(5));
+        }
+    }
+
+    /**
+     * Records one redirect, with {@code clicks} set to -1 when the outcome carries no click count. Never blocks.
+     */
+    public void redirect(String shortCode, ResolveOutcome outcome, long durationNanos, long clicks) {
+        if (!enabled) {
+            return;
+        }
+        int sampleRate = sampleRates[outcome.ordinal()];
+        if (sampleRate <= 0 || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0)) {
+            sampledOut.increment();
+            return;
+        }
+
+        if (!buffer.offer(System.currentTimeMillis(), shortCode, outcome.ordinal(), durationNanos, clicks)) {
+            dropped.increment();
+        } else if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Writes everything buffered so far on the calling thread.
+     */
+    void flush() {
+        int drained;
+        while ((drained = buffer.drain(sink, batchSize)) > 0) {
+            written.increment(drained);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            int drained = buffer.drain(sink, batchSize);
+            if (drained > 0) {
+                written.increment(drained);
+            }
+            if (drained < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+        flush();
+    }
+
+    private void write(long timestamp, String shortCode, int outcome, long durationNanos, long clicks) {
+        String outcomeName = OUTCOMES[outcome].name().toLowerCase(Locale.ROOT);
+        long durationMicros = durationNanos / 1_000;
+        try {
+            var event = ACCESS.atInfo()
+                    .addKeyValue("timestamp", Instant.ofEpochMilli(timestamp))
+                    .addKeyValue("shortCode", shortCode)
+                    .addKeyValue("outcome", outcomeName)
+                    .addKeyValue("durationMicros", durationMicros);
+            if (clicks >= 0) {
+                event = event.addKeyValue("clicks", clicks);
+            }
+            event.log("redirect {} {} {}us", shortCode, outcomeName, durationMicros);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write access log entry for {}: {}", shortCode, e.getMessage());
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("shorty.access-log.entries")
+                .description("Redirect access log entries by what happened to them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
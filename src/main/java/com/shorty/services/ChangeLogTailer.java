@@ -0,0 +1,208 @@
+package com.shorty.services;
+
+import com.shorty.caches.MappingChangeListener;
+import com.shorty.caches.RedirectTarget;
+import com.shorty.entities.UrlMapping;
+import com.shorty.entities.UrlMappingChange;
+import com.shorty.mappers.UrlMapper;
+import com.shorty.repositories.UrlMappingChangeRepository;
+import com.shorty.repositories.UrlMappingRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Follows {@code url_mapping_changes} by id and hands subscribers the current state of each changed short code, so a
+ * change applied twice or out of order leaves them correct. Identity ids are taken before commit and transactions
+ * commit in any order, so an id can become visible after higher ones: ids passed over are remembered as gaps and
+ * looked up again on every poll until they appear or {@code gap-timeout} runs out, and subscriptions start
+ * {@code lookback} ids before the position they ask for to pick up transactions still in flight at that point.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChangeLogTailer {
+
+    // Gaps remembered per subscription. A longer run of missing ids is a pruned or skipped range, not in-flight commits
+    static final int MAX_GAPS = 10_000;
+
+    private final UrlMappingChangeRepository changeRepository;
+    private final UrlMappingRepository repository;
+    private final UrlMapper mapper;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Object polled = new Object();
+
+    private volatile Instant lastPolledAt = Instant.now();
+
+    @Value("${app.change-log.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.change-log.gap-timeout:PT1M}")
+    private Duration gapTimeout;
+
+    @Value("${app.change-log.lookback:1000}")
+    private long lookback;
+
+    public long currentPosition() {
+        return changeRepository.findMaxId();
+    }
+
+    public void subscribe(MappingChangeListener listener, long fromId) {
+        subscriptions.add(new Subscription(listener, Math.max(0, fromId - lookback)));
+    }
+
+    public void unsubscribe(MappingChangeListener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    public Instant getLastPolledAt() {
+        return lastPolledAt;
+    }
+
+    /**
+     * Waits up to {@code timeout} for a poll that started after {@code instant} to complete. Such a poll has applied
+     * every change committed before {@code instant}: later ids are read in its scan and lower ones it had passed over
+     * are looked up as gaps, short of a transaction that ran past {@code gap-timeout}.
+     *
+     * @return whether subscribers have caught up past {@code instant}
+     */
+    public boolean awaitPolledAfter(Instant instant, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (polled) {
+            while (!lastPolledAt.isAfter(instant)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                polled.wait(Math.max(1, remaining / 1_000_000));
+            }
+            return true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.change-log.poll-interval:PT1S}")
+    public synchronized void poll() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+
+        try {
+            Instant pollStartedAt = Instant.now();
+            List<UrlMappingChange> changes;
+            do {
+                long from = subscriptions.stream()
+                        .mapToLong(Subscription::position)
+                        .min()
+                        .orElseThrow();
+                changes = changeRepository.findByIdGreaterThanOrderByIdAsc(from, Limit.of(batchSize));
+                dispatch(changes);
+            } while (changes.size() == batchSize);
+            fillGaps();
+            synchronized (polled) {
+                lastPolledAt = pollStartedAt;
+                polled.notifyAll();
+            }
+        } catch (Exception e) {
+            log.error("Error while tailing the change log", e);
+        }
+    }
+
+    private void fillGaps() {
+        long expiredBefore = System.currentTimeMillis() - gapTimeout.toMillis();
+        Set<Long> ids = new TreeSet<>();
+        int abandoned = 0;
+        for (Subscription subscription : subscriptions) {
+            int before = subscription.gaps.size();
+            subscription.gaps.values().removeIf(noticedAt -> noticedAt < expiredBefore);
+            abandoned += before - subscription.gaps.size();
+            ids.addAll(subscription.gaps.keySet());
+        }
+        if (abandoned > 0) {
+            log.debug("Stopped waiting for {} change log id(s) that never committed", abandoned);
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        List<UrlMappingChange> late = new ArrayList<>(changeRepository.findAllById(ids));
+        late.sort(Comparator.comparing(UrlMappingChange::getId));
+        if (!late.isEmpty()) {
+            log.debug("Applying {} change log entr(ies) committed out of order", late.size());
+            dispatch(late);
+        }
+    }
+
+    private void dispatch(List<UrlMappingChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        List<String> shortCodes = changes.stream()
+                .map(UrlMappingChange::getShortCode)
+                .distinct()
+                .toList();
+        Map<String, RedirectTarget> current = repository.findByShortCodeIn(shortCodes).stream()
+                .collect(Collectors.toMap(UrlMapping::getShortCode, mapper::toRedirectTarget));
+
+        long now = System.currentTimeMillis();
+        for (Subscription subscription : subscriptions) {
+            for (UrlMappingChange change : changes) {
+                long id = change.getId();
+                if (id > subscription.position) {
+                    subscription.noteGaps(id, now);
+                    subscription.position = id;
+                } else if (subscription.gaps.remove(id) == null) {
+                    continue;
+                }
+                RedirectTarget target = current.get(change.getShortCode());
+                if (target != null) {
+                    subscription.listener.onMappingUpserted(change.getShortCode(), target);
+                } else {
+                    subscription.listener.onMappingRemoved(change.getShortCode());
+                }
+            }
+        }
+
+        log.debug("Applied {} change log entr(ies)", changes.size());
+    }
+
+    private static final class Subscription {
+        private final MappingChangeListener listener;
+        // Ids below position not seen yet, with the time they were first passed over
+        private final Map<Long, Long> gaps = new HashMap<>();
+        private volatile long position;
+
+        private Subscription(MappingChangeListener listener, long position) {
+            this.listener = listener;
+            this.position = position;
+        }
+
+        private long position() {
+            return position;
+        }
+
+        private void noteGaps(long id, long now) {
+            if (id - position > MAX_GAPS) {
+                return;
+            }
+            for (long missing = position + 1; missing < id && gaps.size() < MAX_GAPS; missing++) {
+                gaps.put(missing, now);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.shorty.services;
+
+import com.shorty.caches.InvalidationListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class ChangeNotificationListener {
+
+    private final ChangeLogTailer tailer;
+    private final List<InvalidationListener> listeners;
+    private final Counter notificationsReceived;
+    private final Counter reconnects;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread thread;
+
+    @Value("${spring.datasource.url}")
+    private String jdbcUrl;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${app.invalidation.coalesce-window:PT0.05S}")
+    private Duration coalesceWindow;
+
+    @Value("${app.invalidation.max-backoff:PT30S}")
+    private Duration maxBackoff;
+
+    public ChangeNotificationListener(
+            ChangeLogTailer tailer, List<InvalidationListener> listeners, MeterRegistry meterRegistry) {
+        this.tailer = tailer;
+        this.listeners = listeners;
+        this.notificationsReceived = Counter.builder("shorty.invalidation.notifications")
+                .description("Change notifications received from PostgreSQL")
+                .register(meterRegistry);
+        this.reconnects = Counter.builder("shorty.invalidation.reconnects")
+                .description("Times the change notification connection was re-established")
+                .register(meterRegistry);
+
+        Gauge.builder("shorty.invalidation.listening", this, listener -> listener.isListening() ? 1 : 0)
+                .description("1 while this node is subscribed to change notifications and in sync, 0 otherwise")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform()
+                .name("shorty-invalidation")
+                .daemon(true)
+                .start(this::listenLoop);
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        long backoffMillis = 100;
+        boolean firstConnect = true;
+
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + MappingChangePublisher.CHANNEL);
+                }
+                log.info("Listening for mapping change notifications");
+
+                // Anything published while we were not listening is lost, so start from a clean slate
+                if (!firstConnect) {
+                    reconnects.increment();
+                    resync();
+                }
+                firstConnect = false;
+                backoffMillis = 100;
+                listening = true;
+
+                receive(connection.unwrap(PGConnection.class));
+            } catch (SQLException | RuntimeException e) {
+                // A failed change log read loses the coalesced notifications, so it is handled like a lost connection:
+                // back off, reconnect and resync everything
+                listening = false;
+                if (!running) {
+                    return;
+                }
+                log.warn("Change notifications interrupted, resyncing in {} ms: {}", backoffMillis, e.toString());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, maxBackoff.toMillis());
+            }
+        }
+    }
+
+    Connection connect() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl, username, password);
+    }
+
+    private void receive(PGConnection connection) throws SQLException {
+        PendingChanges pending = new PendingChanges();
+        long flushAt = 0;
+
+        while (running) {
+            long waitMillis = pending.isEmpty() ? 1000 : Math.max(1, flushAt - System.currentTimeMillis());
+            PGNotification[] notifications = connection.getNotifications((int) waitMillis);
+
+            if (notifications != null && notifications.length > 0) {
+                if (pending.isEmpty()) {
+                    flushAt = System.currentTimeMillis() + coalesceWindow.toMillis();
+                }
+                for (PGNotification notification : notifications) {
+                    pending.add(notification.getParameter());
+                }
+                notificationsReceived.increment(notifications.length);
+            }
+
+            if (!pending.isEmpty() && System.currentTimeMillis() >= flushAt) {
+                flush(pending);
+                pending = new PendingChanges();
+            }
+        }
+    }
+
+    private void flush(PendingChanges pending) {
+        log.debug("Applying {} coalesced change notification(s)", pending.shortCodes.size());
+        tailer.poll();
+        for (InvalidationListener listener : listeners) {
+            try {
+                if (!pending.shortCodes.isEmpty()) {
+                    listener.invalidate(pending.shortCodes);
+                }
+                if (pending.expiredSweep) {
+                    listener.onExpiredSweep();
+                }
+            } catch (Exception e) {
+                log.error("Invalidation listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private void resync() {
+        log.info("Resynchronizing local structures after missed change notifications");
+        tailer.poll();
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.invalidateAll();
+            } catch (Exception e) {
+                log.error("Invalidation listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * Notifications received within one coalesce window. Payloads are {@code C:<code>} or {@code D:<code>} for a
+     * create or delete and {@code E} for an expired sweep; anything else is ignored.
+     */
+    static final class PendingChanges {
+        final Set<String> shortCodes = new HashSet<>();
+        boolean expiredSweep;
+
+        void add(String payload) {
+            if (payload == null) {
+                return;
+            }
+            if (MappingChangePublisher.EXPIRED_SWEEP.equals(payload)) {
+                expiredSweep = true;
+            } else if (payload.length() > 2 && payload.charAt(1) == ':') {
+                shortCodes.add(payload.substring(2));
+            }
+        }
+
+        boolean isEmpty() {
+            return shortCodes.isEmpty() && !expiredSweep;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.shorty.services;
+
+import com.shorty.exceptions.LookupUnavailableException;
+import com.shorty.profiling.ClickFlushEvent;
+import com.shorty.repositories.UrlMappingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class ClickRecorder {
+
+    private final UrlMappingRepository repository;
+    private final DatabaseCircuitBreaker circuitBreaker;
+    private final int maxPending;
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final Counter droppedBufferFull;
+    private final Counter droppedTimedOut;
+
+    public ClickRecorder(
+            UrlMappingRepository repository,
+            DatabaseCircuitBreaker circuitBreaker,
+            MeterRegistry meterRegistry,
+            @Value("${app.circuit-breaker.max-pending-clicks:100000}") int maxPending) {
+        this.repository = repository;
+        this.circuitBreaker = circuitBreaker;
+        this.maxPending = maxPending;
+
+        Gauge.builder("shorty.clicks.pending", pending, Map::size)
+                .description("Short codes with clicks buffered while the database was unavailable")
+                .register(meterRegistry);
+        this.droppedBufferFull = Counter.builder("shorty.clicks.dropped")
+                .description("Clicks neither written nor buffered")
+                .tag("reason", "buffer_full")
+                .register(meterRegistry);
+        this.droppedTimedOut = Counter.builder("shorty.clicks.dropped")
+                .description("Clicks neither written nor buffered")
+                .tag("reason", "timed_out")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the clicks within the breaker's call timeout, so a slow database never holds a redirect longer than a
+     * lookup would, and buffers them while the database is unavailable.
+     */
+    public void record(String shortCode, long increment) {
+        ClickFlushEvent event = new ClickFlushEvent();
+        event.begin();
+        try {
+            circuitBreaker.query(() -> repository.incrementClickCount(shortCode, increment));
+            event.complete(shortCode, increment, "WRITTEN");
+        } catch (QueryTimeoutException e) {
+            // The update keeps running and may still commit; buffering it as well could count the clicks twice
+            droppedTimedOut.increment(increment);
+            event.complete(shortCode, increment, "TIMED_OUT");
+        } catch (LookupUnavailableException | DataAccessException e) {
+            event.complete(shortCode, increment, buffer(shortCode, increment) ? "BUFFERED" : "DROPPED");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.circuit-breaker.reconcile-interval:PT5S}")
+    public void reconcile() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        int flushed = 0;
+        for (String shortCode : pending.keySet()) {
+            // Clicks buffered after the removal start a new entry and are picked up by the next run
+            Long increment = pending.remove(shortCode);
+            if (increment == null) {
+                continue;
+            }
+            ClickFlushEvent event = new ClickFlushEvent();
+            event.begin();
+            try {
+                circuitBreaker.call(() -> repository.incrementClickCount(shortCode, increment));
+                event.complete(shortCode, increment, "RECONCILED");
+                flushed++;
+            } catch (LookupUnavailableException | DataAccessException e) {
+                event.complete(shortCode, increment, buffer(shortCode, increment) ? "BUFFERED" : "DROPPED");
+                log.debug("Database still unavailable, {} short codes keep buffered clicks", pending.size());
+                return;
+            }
+        }
+        log.info("Reconciled buffered clicks for {} short codes", flushed);
+    }
+
+    // Bounded by short code, since a long outage with many distinct links would otherwise grow it without limit
+    private boolean buffer(String shortCode, long increment) {
+        if (pending.size() >= maxPending && !pending.containsKey(shortCode)) {
+            droppedBufferFull.increment(increment);
+            return false;
+        }
+        pending.merge(shortCode, increment, Long::sum);
+        return true;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+}
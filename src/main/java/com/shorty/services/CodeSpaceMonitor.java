@@ -0,0 +1,242 @@
+package com.shorty.services;
+
+import static com.shorty.utils.ShortCodeGenerator.MAX_LENGTH;
+import static com.shorty.utils.ShortCodeGenerator.MIN_LENGTH;
+
+import com.shorty.utils.ShortCodeGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tracks how full the short code space is at each length and moves generated codes to the next length before random
+ * generation starts failing. Occupancy comes from counters in {@code code_space_usage}, kept up to date by the
+ * transactions that store and delete mappings, so reading it never scans {@code url_mappings}. The chance that a
+ * random code collides is the occupancy of its length; the rate the generator actually observes is tracked too,
+ * and whichever is higher is compared with {@code collision-threshold}.
+ */
+@Slf4j
+@Service
+public class CodeSpaceMonitor {
+
+    static final int STRIPES = 16;
+
+    // Rows holding the counts taken from url_mappings when the counters were first created
+    static final int SEED_STRIPE = -1;
+
+    private static final double[] KEYSPACE = new double[MAX_LENGTH + 1];
+
+    static {
+        for (int length = MIN_LENGTH; length <= MAX_LENGTH; length++) {
+            KEYSPACE[length] = Math.pow(62, length);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShortCodeGenerator codeGenerator;
+    private final boolean growthEnabled;
+    private final double collisionThreshold;
+    private final int minSamples;
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final Counter growths;
+
+    private volatile long[] allocated = new long[MAX_LENGTH + 1];
+    private volatile double observedCollisionRate;
+    private volatile double allocationRate = Double.NaN;
+
+    // Only touched by refresh
+    private long windowAttempts;
+    private long windowCollisions;
+    private long lastRefreshNanos;
+
+    public CodeSpaceMonitor(
+            JdbcTemplate jdbcTemplate,
+            ShortCodeGenerator codeGenerator,
+            MeterRegistry meterRegistry,
+            @Value("${app.shortcode.growth.enabled:true}") boolean growthEnabled,
+            @Value("${app.shortcode.growth.collision-threshold:0.05}") double collisionThreshold,
+            @Value("${app.shortcode.growth.min-samples:1000}") int minSamples) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.codeGenerator = codeGenerator;
+        this.growthEnabled = growthEnabled;
+        this.collisionThreshold = collisionThreshold;
+        this.minSamples = minSamples;
+
+        Gauge.builder("shorty.shortcode.length", codeGenerator, ShortCodeGenerator::getLength)
+                .description("Length of newly generated short codes")
+                .register(meterRegistry);
+        for (int length = MIN_LENGTH; length <= MAX_LENGTH; length++) {
+            int codeLength = length;
+            Gauge.builder("shorty.shortcode.keyspace.utilization", this, monitor -> monitor.utilization(codeLength))
+                    .description("Fraction of the short codes of this length already taken")
+                    .tag("length", String.valueOf(length))
+                    .register(meterRegistry);
+        }
+        Gauge.builder("shorty.shortcode.collision-rate", this, monitor -> monitor.observedCollisionRate)
+                .description("Fraction of generated candidates that were already taken, over the last window")
+                .register(meterRegistry);
+        Gauge.builder("shorty.shortcode.keyspace.exhaustion", this, CodeSpaceMonitor::secondsUntilGrowth)
+                .description("Projected time until the current length reaches the collision threshold")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.growths = Counter.builder("shorty.shortcode.length.growths")
+                .description("Times generated short codes moved to a longer length")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts a stored short code. Runs inside the transaction that inserts it, so a rollback undoes both.
+     */
+    public void allocated(String shortCode) {
+        adjust(shortCode, 1);
+    }
+
+    /**
+     * Uncounts a deleted short code, inside the transaction that deletes it.
+     */
+    public void released(String shortCode) {
+        adjust(shortCode, -1);
+    }
+
+    /**
+     * Records one generation, where every attempt but the last successful one hit a taken code.
+     */
+    public void recordGeneration(int attemptCount, boolean succeeded) {
+        attempts.add(attemptCount);
+        collisions.add(succeeded ? attemptCount - 1 : attemptCount);
+    }
+
+    public double utilization(int length) {
+        return allocated[length] / KEYSPACE[length];
+    }
+
+    /**
+     * Creates the counters from {@code url_mappings} the first time this version starts against a database. The marker
+     * row for length 0 makes sure it only ever happens once, even if no mappings exist yet; creates that commit while
+     * the count runs may be counted twice, which only makes growth slightly earlier.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        try {
+            int seeded = jdbcTemplate.update(
+                    "INSERT INTO code_space_usage (code_length, stripe, allocated)"
+                            + " SELECT code_length, ?, n FROM (SELECT char_length(short_code) AS code_length,"
+                            + " count(*) AS n FROM url_mappings GROUP BY char_length(short_code)"
+                            + " UNION ALL SELECT 0, 0) seed"
+                            + " WHERE NOT EXISTS (SELECT 1 FROM code_space_usage WHERE stripe = ?)"
+                            + " ON CONFLICT (code_length, stripe) DO NOTHING",
+                    SEED_STRIPE,
+                    SEED_STRIPE);
+            if (seeded > 0) {
+                log.info("Seeded code space counters for {} length(s)", seeded - 1);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to seed code space counters: {}", e.getMessage());
+        }
+        refresh();
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.shortcode.growth.refresh-interval:PT1M}",
+            fixedDelayString = "${app.shortcode.growth.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        long[] counts = new long[MAX_LENGTH + 1];
+        try {
+            jdbcTemplate.query(
+                    "SELECT code_length, sum(allocated) AS allocated FROM code_space_usage GROUP BY code_length",
+                    (RowCallbackHandler) rs -> {
+                        int length = rs.getInt("code_length");
+                        if (length >= MIN_LENGTH && length <= MAX_LENGTH) {
+                            counts[length] = Math.max(0, rs.getLong("allocated"));
+                        }
+                    });
+        } catch (RuntimeException e) {
+            log.warn("Failed to read code space counters: {}", e.getMessage());
+            return;
+        }
+        update(counts, System.nanoTime());
+    }
+
+    synchronized void update(long[] counts, long nowNanos) {
+        int length = codeGenerator.getLength();
+        if (lastRefreshNanos != 0 && nowNanos > lastRefreshNanos) {
+            double perSecond = (counts[length] - allocated[length]) * 1e9 / (nowNanos - lastRefreshNanos);
+            allocationRate = Double.isNaN(allocationRate) ? perSecond : 0.7 * allocationRate + 0.3 * perSecond;
+        }
+        lastRefreshNanos = nowNanos;
+        allocated = counts;
+
+        windowAttempts += attempts.sumThenReset();
+        windowCollisions += collisions.sumThenReset();
+        if (windowAttempts >= minSamples) {
+            observedCollisionRate = (double) windowCollisions / windowAttempts;
+            windowAttempts = 0;
+            windowCollisions = 0;
+        }
+
+        if (growthEnabled) {
+            grow(length);
+        }
+    }
+
+    private void grow(int length) {
+        int target = length;
+        double collisionProbability = Math.max(utilization(target), observedCollisionRate);
+        while (collisionProbability >= collisionThreshold && target < MAX_LENGTH) {
+            target++;
+            collisionProbability = utilization(target);
+        }
+        if (target == length) {
+            if (collisionProbability >= collisionThreshold) {
+                log.warn(
+                        "Short codes of length {}, the longest supported, collide with probability {}",
+                        length,
+                        String.format("%.3f", collisionProbability));
+            }
+            return;
+        }
+
+        codeGenerator.growTo(target);
+        growths.increment();
+        observedCollisionRate = 0;
+        windowAttempts = 0;
+        windowCollisions = 0;
+        allocationRate = Double.NaN;
+        log.warn(
+                "Short codes of length {} are {}% taken, generating length {} from now on",
+                length,
+                String.format("%.2f", utilization(length) * 100),
+                target);
+    }
+
+    private double secondsUntilGrowth() {
+        int length = codeGenerator.getLength();
+        double remaining = collisionThreshold * KEYSPACE[length] - allocated[length];
+        if (Double.isNaN(allocationRate) || allocationRate <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.max(0, remaining / allocationRate);
+    }
+
+    private void adjust(String shortCode, int delta) {
+        int length = shortCode.length();
+        jdbcTemplate.update(
+                "INSERT INTO code_space_usage (code_length, stripe, allocated) VALUES (?, ?, ?)"
+                        + " ON CONFLICT (code_length, stripe)"
+                        + " DO UPDATE SET allocated = code_space_usage.allocated + excluded.allocated",
+                length,
+                ThreadLocalRandom.current().nextInt(STRIPES),
+                delta);
+    }
+}
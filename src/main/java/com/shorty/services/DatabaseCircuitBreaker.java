@@ -0,0 +1,132 @@
+package com.shorty.services;
+
+import com.shorty.exceptions.LookupUnavailableException;
+import com.shorty.utils.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class DatabaseCircuitBreaker {
+
+    private final CircuitBreaker breaker;
+    private final boolean enabled;
+    private final Counter rejected;
+    private final Counter timedOut;
+    private final long callTimeoutMillis;
+    private final ExecutorService lookupExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DatabaseCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${app.circuit-breaker.enabled:true}") boolean enabled,
+            @Value("${app.circuit-breaker.window-size:100}") int windowSize,
+            @Value("${app.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${app.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${app.circuit-breaker.slow-call-threshold:PT0.5S}") Duration slowCallThreshold,
+            @Value("${app.circuit-breaker.slow-call-rate-threshold:0.5}") double slowCallRateThreshold,
+            @Value("${app.circuit-breaker.open-duration:PT10S}") Duration openDuration,
+            @Value("${app.circuit-breaker.call-timeout:PT1S}") Duration callTimeout) {
+        this.enabled = enabled;
+        this.callTimeoutMillis = callTimeout.toMillis();
+        this.breaker = new CircuitBreaker(
+                Clock.systemUTC(),
+                windowSize,
+                minimumCalls,
+                failureRateThreshold,
+                slowCallThreshold,
+                slowCallRateThreshold,
+                openDuration);
+        this.rejected = Counter.builder("shorty.db.circuit.rejected")
+                .description("Redirect path database calls rejected while the circuit was open")
+                .register(meterRegistry);
+        this.timedOut = Counter.builder("shorty.db.circuit.timeouts")
+                .description("Redirect lookups abandoned after the call timeout")
+                .register(meterRegistry);
+
+        Gauge.builder("shorty.db.circuit.state", breaker, b -> b.getState().ordinal())
+                .description("Database circuit state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> query) {
+        if (!enabled) {
+            return query.get();
+        }
+
+        if (!breaker.tryAcquire()) {
+            rejected.increment();
+            throw new LookupUnavailableException("Database is unavailable", getRetryAfterSeconds(), true);
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = query.get();
+            failed = false;
+            return result;
+        } finally {
+            CircuitBreaker.State before = breaker.getState();
+            breaker.onResult(System.nanoTime() - start, failed);
+            if (before != CircuitBreaker.State.OPEN && breaker.getState() == CircuitBreaker.State.OPEN) {
+                log.warn("Database circuit opened for redirects");
+            }
+        }
+    }
+
+    /**
+     * Guards a redirect lookup like {@link #call}, but stops waiting for it after {@code call-timeout}. The breaker
+     * only sees a call's latency once it returns, so without a bound a redirect would sit out the whole pool
+     * connection timeout before anything counted as slow. A lookup that times out counts as failed and surfaces as a
+     * {@link QueryTimeoutException}; it keeps running on its own virtual thread until the driver gives up.
+     */
+    public <T> T query(Supplier<T> query) {
+        if (callTimeoutMillis <= 0) {
+            return call(query);
+        }
+        return call(() -> awaitWithinTimeout(query));
+    }
+
+    private <T> T awaitWithinTimeout(Supplier<T> query) {
+        Future<T> future = lookupExecutor.submit(query::get);
+        try {
+            return future.get(callTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new QueryTimeoutException("Redirect lookup did not finish within " + callTimeoutMillis + " ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Redirect lookup failed", e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted while waiting for a redirect lookup");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdownNow();
+    }
+
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (breaker.getRetryAfterMillis() + 999) / 1000);
+    }
+}
@@ -0,0 +1,56 @@
+package com.shorty.services;
+
+import com.shorty.repositories.IdempotencyRecordRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Shared store for multi-node deployments. The primary key on {@code idempotency_keys} is the lock: whichever node
+ * inserts the row first runs the request, and a node that crashes mid-request only holds the key until its lease ends.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "table")
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+
+    @Override
+    public Optional<Entry> claim(String key, String requestHash, Duration lease) {
+        Instant now = Instant.now();
+        if (insert(key, requestHash, now, lease)) {
+            return Optional.empty();
+        }
+        // An expired row is taken over once, a concurrent claimer that wins the re-insert is treated as in flight
+        if (repository.deleteIfExpired(key, now) > 0 && insert(key, requestHash, now, lease)) {
+            return Optional.empty();
+        }
+        return repository
+                .findById(key)
+                .map(existing -> new Entry(existing.getRequestHash(), existing.getResponseBody()))
+                .or(() -> Optional.of(new Entry(requestHash, null)));
+    }
+
+    @Override
+    public void complete(String key, String responseBody, Duration ttl) {
+        repository.complete(key, responseBody, Instant.now().plus(ttl));
+    }
+
+    @Override
+    public void release(String key) {
+        repository.deletePending(key);
+    }
+
+    @Override
+    public int purgeExpired() {
+        return repository.deleteExpired(Instant.now());
+    }
+
+    private boolean insert(String key, String requestHash, Instant now, Duration lease) {
+        return repository.insertIfAbsent(key, requestHash, now, now.plus(lease)) > 0;
+    }
+}
@@ -0,0 +1,247 @@
+package com.shorty.services;
+
+import com.shorty.entities.ChangeType;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.UrlMapping;
+import com.shorty.entities.UrlMappingChange;
+import com.shorty.repositories.UrlMappingChangeRepository;
+import com.shorty.repositories.UrlMappingRepository;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.edge-bundle.enabled", havingValue = "true")
+public class EdgeBundleService {
+
+    static final String BUNDLE_FILE = "redirects.map";
+    static final String MANIFEST_FILE = "manifest.json";
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private static final List<RedirectPolicy> CACHEABLE_POLICIES = Arrays.stream(RedirectPolicy.values())
+            .filter(RedirectPolicy::isCacheable)
+            .toList();
+
+    private final UrlMappingRepository repository;
+    private final UrlMappingChangeRepository changeRepository;
+    private final JobCoordinator jobs;
+
+    private final Map<String, BundleEntry> entries = new TreeMap<>();
+
+    // Latest updated_at and deletion changed_at read so far. Rows are read again from a margin before these, since
+    // timestamps are taken before commit and a row can become visible after newer ones
+    private Instant updatedWatermark;
+    private Instant deletedWatermark;
+    private String lastChecksum;
+    private long runs;
+
+    @Value("${app.edge-bundle.directory:./edge-bundle}")
+    private Path directory;
+
+    @Value("${app.edge-bundle.top-n:0}")
+    private int topN;
+
+    @Value("${app.edge-bundle.page-size:5000}")
+    private int pageSize;
+
+    @Value("${app.edge-bundle.full-rebuild-every:24}")
+    private int fullRebuildEvery;
+
+    @Value("${app.edge-bundle.watermark-margin:PT1M}")
+    private Duration watermarkMargin;
+
+    @PostConstruct
+    void validate() {
+        if (fullRebuildEvery < 1) {
+            throw new IllegalStateException(
+                    "app.edge-bundle.full-rebuild-every must be at least 1, was " + fullRebuildEvery);
+        }
+    }
+
+    // Only the job leader exports, so nodes sharing the bundle directory do not overwrite each other's files
+    @Scheduled(fixedDelayString = "${app.edge-bundle.interval:PT5M}")
+    public synchronized void generateBundle() {
+        jobs.runSingleton("edge-bundle", this::export);
+    }
+
+    private void export() {
+        long startTime = System.currentTimeMillis();
+        Instant now = Instant.now();
+
+        if (topN > 0) {
+            loadTopMappings(now);
+        } else if (updatedWatermark == null || runs % fullRebuildEvery == 0) {
+            entries.clear();
+            removeDeletedMappings(now);
+            updatedWatermark = Instant.EPOCH;
+            loadCacheableMappings(now);
+        } else {
+            entries.values().removeIf(entry -> entry.isExpiredAt(now));
+            removeDeletedMappings(now);
+            loadChangedMappings(now);
+        }
+        runs++;
+
+        try {
+            writeBundle(now);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the edge bundle to " + directory, e);
+        }
+        log.info(
+                "Edge bundle generated: {} mapping(s) in {} ms",
+                entries.size(),
+                System.currentTimeMillis() - startTime);
+    }
+
+    private void loadTopMappings(Instant now) {
+        entries.clear();
+        Pageable top = PageRequest.of(0, topN, Sort.by(Sort.Direction.DESC, "clickCount"));
+        repository
+                .findCacheableActiveMappings(CACHEABLE_POLICIES, now, Instant.EPOCH, top)
+                .forEach(this::addEntry);
+    }
+
+    // Keyset pages on id, so each page is an index range scan rather than an ever larger offset
+    private void loadCacheableMappings(Instant now) {
+        UUID afterId = FIRST_ID;
+        List<UrlMapping> page;
+        do {
+            page = repository.findCacheableActiveMappingsAfter(CACHEABLE_POLICIES, now, afterId, Limit.of(pageSize));
+            page.forEach(this::addEntry);
+            if (!page.isEmpty()) {
+                afterId = page.getLast().getId();
+            }
+        } while (page.size() == pageSize);
+    }
+
+    // Reads every changed row, whatever its policy, so links that stopped being cacheable leave the bundle too
+    private void loadChangedMappings(Instant now) {
+        Instant since = updatedWatermark.minus(watermarkMargin);
+        UUID afterId = FIRST_ID;
+        List<UrlMapping> page;
+        do {
+            page = repository.findUpdatedMappingsAfter(since, afterId, Limit.of(pageSize));
+            for (UrlMapping mapping : page) {
+                boolean active = mapping.getExpiresAt() == null || mapping.getExpiresAt().isAfter(now);
+                if (active && mapping.getEffectiveRedirectPolicy().isCacheable()) {
+                    addEntry(mapping);
+                } else {
+                    entries.remove(mapping.getShortCode());
+                }
+            }
+            if (!page.isEmpty()) {
+                afterId = page.getLast().getId();
+            }
+        } while (page.size() == pageSize);
+    }
+
+    // Runs before changed rows are loaded, so a short code deleted and created again ends up in the bundle
+    private void removeDeletedMappings(Instant now) {
+        Instant since = deletedWatermark != null ? deletedWatermark.minus(watermarkMargin) : now.minus(watermarkMargin);
+        for (UrlMappingChange change : changeRepository.findByChangeTypeAndChangedAtAfter(ChangeType.DELETED, since)) {
+            entries.remove(change.getShortCode());
+            deletedWatermark = latest(deletedWatermark, change.getChangedAt());
+        }
+        if (deletedWatermark == null) {
+            deletedWatermark = since;
+        }
+    }
+
+    // nginx expands variables in map values and has no escape for "$", so those links are left to the origin
+    private void addEntry(UrlMapping mapping) {
+        if (mapping.getOriginalUrl().indexOf('$') >= 0) {
+            entries.remove(mapping.getShortCode());
+        } else {
+            entries.put(mapping.getShortCode(), new BundleEntry(mapping.getOriginalUrl(), mapping.getExpiresAt()));
+        }
+        updatedWatermark = latest(updatedWatermark, mapping.getUpdatedAt());
+    }
+
+    private static Instant latest(Instant current, Instant candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+
+    private void writeBundle(Instant now) throws IOException {
+        StringBuilder bundle = new StringBuilder(entries.size() * 64);
+        entries.forEach((shortCode, entry) -> bundle.append('/')
+                .append(shortCode)
+                .append(" \"")
+                .append(escape(entry.originalUrl()))
+                .append("\";\n"));
+
+        byte[] content = bundle.toString().getBytes(StandardCharsets.UTF_8);
+        String checksum = sha256(content);
+        if (checksum.equals(lastChecksum)) {
+            log.debug("Edge bundle unchanged, skipping write");
+            return;
+        }
+
+        Files.createDirectories(directory);
+        writeAtomically(directory.resolve(BUNDLE_FILE), content);
+
+        String manifest = """
+                {"file":"%s","sha256":"%s","entries":%d,"generatedAt":"%s"}
+                """
+                .formatted(BUNDLE_FILE, checksum, entries.size(), now);
+        writeAtomically(directory.resolve(MANIFEST_FILE), manifest.getBytes(StandardCharsets.UTF_8));
+        lastChecksum = checksum;
+    }
+
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String escape(String url) {
+        return url.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record BundleEntry(String originalUrl, Instant expiresAt) {
+        boolean isExpiredAt(Instant now) {
+            return expiresAt != null && now.isAfter(expiresAt);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.shorty.services;
+
+import com.shorty.caches.ExpiryListener;
+import com.shorty.utils.CoarseClock;
+import com.shorty.utils.TimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fires at the {@code expiresAt} of mappings held in local read structures, so they are evicted when they expire
+ * rather than when a lookup happens to notice or the daily cleanup runs. Holders schedule the codes they keep and
+ * subscribe to be told when any scheduled code expires; one timer is kept per code however many holders schedule it.
+ */
+@Slf4j
+@Service
+public class ExpiryScheduler {
+
+    private final boolean enabled;
+    private final TimingWheel<String> wheel;
+    private final List<ExpiryListener> listeners = new CopyOnWriteArrayList<>();
+    private final Counter fired;
+
+    public ExpiryScheduler(
+            MeterRegistry meterRegistry,
+            @Value("${app.expiry.enabled:true}") boolean enabled,
+            @Value("${app.expiry.tick:PT1S}") Duration tick) {
+        this.enabled = enabled;
+        this.wheel = new TimingWheel<>(tick, CoarseClock.currentTimeMillis());
+
+        Gauge.builder("shorty.expiry.timers", wheel, TimingWheel::size)
+                .description("Mapping expiries scheduled on the timing wheel")
+                .register(meterRegistry);
+        this.fired = Counter.builder("shorty.expiry.fired")
+                .description("Mapping expiries fired by the timing wheel")
+                .register(meterRegistry);
+    }
+
+    public void subscribe(ExpiryListener listener) {
+        listeners.add(listener);
+    }
+
+    public void schedule(String shortCode, Instant expiresAt) {
+        if (enabled && expiresAt != null) {
+            wheel.schedule(shortCode, expiresAt.toEpochMilli());
+        }
+    }
+
+    public void cancel(String shortCode) {
+        if (enabled) {
+            wheel.cancel(shortCode);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.expiry.tick:PT1S}")
+    public void advance() {
+        if (!enabled) {
+            return;
+        }
+
+        List<String> expired = wheel.advance(CoarseClock.currentTimeMillis());
+        if (expired.isEmpty()) {
+            return;
+        }
+        fired.increment(expired.size());
+        for (ExpiryListener listener : listeners) {
+            try {
+                listener.onExpired(expired);
+            } catch (RuntimeException e) {
+                log.warn("Expiry listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+        log.debug("Expired {} short code(s)", expired.size());
+    }
+}
@@ -0,0 +1,149 @@
+package com.shorty.services;
+
+import com.shorty.caches.HostDictionary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the node's {@link HostDictionary} in step with the {@code url_hosts} table. Storing a mapping only reads the
+ * in-memory dictionary: a URL on a host it does not know yet is stored in full, and the host is queued once that
+ * transaction commits and added with the rest of the queue in one batch. Ids seen on rows written by other nodes are
+ * fetched together with every other prefix added since, so loading a page of such rows costs one query.
+ */
+@Slf4j
+@Service
+public class HostDictionaryService {
+
+    private static final RowMapper<Map.Entry<Integer, String>> HOST_ROW =
+            (rs, _) -> Map.entry(rs.getInt("id"), rs.getString("prefix"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HostDictionary dictionary = new HostDictionary();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger highestId = new AtomicInteger();
+    private final boolean enabled;
+    private final int maxHosts;
+
+    public HostDictionaryService(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.url-compression.enabled:true}") boolean enabled,
+            @Value("${app.url-compression.max-hosts:10000}") int maxHosts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxHosts = maxHosts;
+
+        Gauge.builder("shorty.url-compression.hosts", dictionary, HostDictionary::size)
+                .description("Host prefixes held in the in-memory dictionary")
+                .register(meterRegistry);
+    }
+
+    public HostDictionary getDictionary() {
+        return dictionary;
+    }
+
+    // Runs before replica and snapshot loading so that their mappings find the prefixes already in memory
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        register(jdbcTemplate.query("SELECT id, prefix FROM url_hosts ORDER BY id LIMIT ?", HOST_ROW, maxHosts));
+        log.info("Loaded {} host prefix(es) into the dictionary", dictionary.size());
+    }
+
+    /**
+     * Returns the prefix for an id read from a row, fetching it if another node added it.
+     */
+    public String prefix(int id) {
+        String prefix = dictionary.prefix(id);
+        return prefix != null ? prefix : fetch(id);
+    }
+
+    /**
+     * Returns the id for a prefix, or {@link HostDictionary#NONE} if the URL should be stored in full. A prefix the
+     * dictionary does not hold yet is queued for {@link #internPending()} while there is room.
+     */
+    public int intern(String prefix) {
+        if (!enabled) {
+            return HostDictionary.NONE;
+        }
+        int id = dictionary.idOf(prefix);
+        if (id != HostDictionary.NONE || dictionary.size() + pending.size() >= maxHosts) {
+            return id;
+        }
+
+        // Only queue the prefix once the URL is committed, a rolled back insert must not add a host nothing refers to
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.add(prefix);
+                }
+            });
+        } else {
+            pending.add(prefix);
+        }
+        return HostDictionary.NONE;
+    }
+
+    /**
+     * Adds the queued prefixes to {@code url_hosts} and reads their ids back. A prefix another node inserted first
+     * keeps that node's id, so every node agrees on it.
+     */
+    @Scheduled(fixedDelayString = "${app.url-compression.intern-interval:PT5S}")
+    public void internPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        String[] prefixes = pending.toArray(String[]::new);
+        jdbcTemplate.update(
+                "INSERT INTO url_hosts (prefix) SELECT unnest(?::text[]) ON CONFLICT (prefix) DO NOTHING",
+                (Object) prefixes);
+        register(jdbcTemplate.query(
+                "SELECT id, prefix FROM url_hosts WHERE prefix = ANY(?::text[])", HOST_ROW, (Object) prefixes));
+        pending.removeAll(List.of(prefixes));
+        log.debug("Added {} host prefix(es) to the dictionary", prefixes.length);
+    }
+
+    // One caller catches up for everyone; the id itself is asked for too, since ids can commit out of order
+    private synchronized String fetch(int id) {
+        if (dictionary.prefix(id) == null) {
+            register(jdbcTemplate.query(
+                    "SELECT id, prefix FROM url_hosts WHERE id > ? OR id = ? ORDER BY id = ? DESC, id LIMIT ?",
+                    HOST_ROW,
+                    highestId.get(),
+                    id,
+                    id,
+                    maxHosts));
+        }
+
+        String prefix = dictionary.prefix(id);
+        if (prefix == null) {
+            throw new IllegalStateException("Unknown host id " + id);
+        }
+        return prefix;
+    }
+
+    private void register(List<Map.Entry<Integer, String>> hosts) {
+        for (Map.Entry<Integer, String> host : hosts) {
+            dictionary.register(host.getKey(), host.getValue());
+            highestId.accumulateAndGet(host.getKey(), Math::max);
+        }
+    }
+}
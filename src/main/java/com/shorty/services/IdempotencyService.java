@@ -0,0 +1,130 @@
+package com.shorty.services;
+
+import com.shorty.dtos.requests.CreateUrlRequest;
+import com.shorty.dtos.responses.UrlResponse;
+import com.shorty.exceptions.IdempotencyConflictException;
+import com.shorty.exceptions.IdempotencyKeyMismatchException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Runs create requests at most once per {@code Idempotency-Key}. Keys are scoped to the calling user and bound to a
+ * hash of the request body, so a retry replays the stored response while a different body under the same key is
+ * rejected.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Counter replays;
+    private final Counter conflicts;
+
+    public IdempotencyService(
+            IdempotencyStore store,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${app.idempotency.lease:PT30S}") Duration lease) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.replays = Counter.builder("shorty.idempotency.requests")
+                .description("Keyed create requests that were not run again")
+                .tag("result", "replayed")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("shorty.idempotency.requests")
+                .description("Keyed create requests that were not run again")
+                .tag("result", "conflict")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws IdempotencyConflictException if a request with the same key is still running
+     * @throws IdempotencyKeyMismatchException if the key was used before with a different request body
+     */
+    public Result execute(UUID userId, String key, CreateUrlRequest request, Supplier<UrlResponse> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String scopedKey = sha256(userId + ":" + key);
+        String requestHash = sha256(objectMapper.writeValueAsString(request));
+
+        Optional<IdempotencyStore.Entry> existing = store.claim(scopedKey, requestHash, lease);
+        if (existing.isPresent()) {
+            return replay(existing.get(), requestHash);
+        }
+
+        UrlResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Nothing was created, so the client may retry with the same key
+            store.release(scopedKey);
+            throw e;
+        }
+        try {
+            store.complete(scopedKey, objectMapper.writeValueAsString(response), ttl);
+        } catch (RuntimeException e) {
+            // The link exists, so failing now would only invite a retry that creates it again. The claim stays in
+            // flight until its lease runs out, answering retries with a conflict rather than a second link meanwhile
+            log.warn("Failed to store the response for an idempotency key, retries will not replay it", e);
+        }
+        return new Result(response, false);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        int purged = store.purgeExpired();
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency key(s)", purged);
+        }
+    }
+
+    private Result replay(IdempotencyStore.Entry entry, String requestHash) {
+        if (!entry.requestHash().equals(requestHash)) {
+            conflicts.increment();
+            throw new IdempotencyKeyMismatchException(HEADER + " was already used for a different request");
+        }
+        if (!entry.isCompleted()) {
+            conflicts.increment();
+            throw new IdempotencyConflictException("A request with this " + HEADER + " is still being processed");
+        }
+        replays.increment();
+        return new Result(objectMapper.readValue(entry.responseBody(), UrlResponse.class), true);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record Result(UrlResponse response, boolean replayed) {}
+}
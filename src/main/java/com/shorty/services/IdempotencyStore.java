@@ -0,0 +1,35 @@
+package com.shorty.services;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Remembers the outcome of create requests by idempotency key. A key is claimed before the request runs and completed
+ * with the serialized response afterwards, so a second request with the same key sees either the in-flight claim or
+ * the stored response.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Atomically claims the key until the lease runs out.
+     *
+     * @return empty if this caller now holds the key, otherwise the entry that already holds it
+     */
+    Optional<Entry> claim(String key, String requestHash, Duration lease);
+
+    void complete(String key, String responseBody, Duration ttl);
+
+    /**
+     * Drops an in-flight claim so that the client can retry with the same key.
+     */
+    void release(String key);
+
+    int purgeExpired();
+
+    record Entry(String requestHash, String responseBody) {
+
+        public boolean isCompleted() {
+            return responseBody != null;
+        }
+    }
+}
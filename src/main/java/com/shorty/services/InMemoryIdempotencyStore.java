@@ -0,0 +1,68 @@
+package com.shorty.services;
+
+import com.shorty.caches.BoundedMap;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single node store. Keys only protect against replays that reach the same instance, so deployments with more than
+ * one node behind a load balancer should use the table store instead.
+ */
+@Service
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Clock clock;
+    private final BoundedMap<String, StoredEntry> entries;
+
+    @Autowired
+    public InMemoryIdempotencyStore(@Value("${app.idempotency.maximum-size:100000}") int maximumSize) {
+        this(Clock.systemUTC(), maximumSize);
+    }
+
+    InMemoryIdempotencyStore(Clock clock, int maximumSize) {
+        this.clock = clock;
+        // When full, forget the oldest completed responses, never a claim that is still running
+        this.entries = new BoundedMap<>(
+                maximumSize, stored -> !stored.entry.isCompleted() && stored.expiresAt > clock.millis());
+    }
+
+    @Override
+    public Optional<Entry> claim(String key, String requestHash, Duration lease) {
+        long now = clock.millis();
+        StoredEntry claimed = new StoredEntry(new Entry(requestHash, null), now + lease.toMillis());
+        StoredEntry winner =
+                entries.merge(key, claimed, (existing, _) -> existing.expiresAt <= now ? claimed : existing);
+        return winner == claimed ? Optional.empty() : Optional.of(winner.entry);
+    }
+
+    @Override
+    public void complete(String key, String responseBody, Duration ttl) {
+        long expiresAt = clock.millis() + ttl.toMillis();
+        entries.computeIfPresent(
+                key,
+                (_, existing) -> new StoredEntry(new Entry(existing.entry.requestHash(), responseBody), expiresAt));
+    }
+
+    @Override
+    public void release(String key) {
+        entries.computeIfPresent(key, (_, existing) -> existing.entry.isCompleted() ? existing : null);
+    }
+
+    @Override
+    public int purgeExpired() {
+        long now = clock.millis();
+        return entries.removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private record StoredEntry(Entry entry, long expiresAt) {}
+}
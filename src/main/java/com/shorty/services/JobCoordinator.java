@@ -0,0 +1,350 @@
+package com.shorty.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Coordinates scheduled jobs across nodes through the database, without any service beyond PostgreSQL. Singleton jobs
+ * run only on the node holding the {@link LeaderElection} lock. Partitioned jobs are started by the leader as a run of
+ * work units, each covering one range of {@code hashtext(short_code)}, which every node claims with a lease and
+ * processes in parallel. A unit whose owner dies is claimed again once its lease runs out, so units must be safe to
+ * process twice.
+ *
+ * <p>With {@code app.jobs.enabled: false} every node behaves as a single-node deployment: it runs singleton jobs
+ * itself and processes all partitions of a run inline.
+ */
+@Slf4j
+@Service
+public class JobCoordinator {
+
+    static final String RUNNING = "RUNNING";
+    static final String COMPLETED = "COMPLETED";
+    static final String ABANDONED = "ABANDONED";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LeaderElection leaderElection;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+    private final Map<String, Registration> partitionedJobs = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lastSuccess = new ConcurrentHashMap<>();
+
+    @Value("${app.jobs.lease:PT10M}")
+    private Duration lease;
+
+    @Value("${app.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.jobs.retention:P7D}")
+    private Duration retention;
+
+    public JobCoordinator(
+            JdbcTemplate jdbcTemplate,
+            LeaderElection leaderElection,
+            MeterRegistry meterRegistry,
+            @Value("${app.jobs.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaderElection = leaderElection;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Processes one work unit of a partitioned job.
+     *
+     * @return how many items the unit processed, for logging and metrics
+     */
+    @FunctionalInterface
+    public interface PartitionedJob {
+        long process(WorkUnit unit);
+    }
+
+    /**
+     * One of {@code partitions} equal ranges of the 32-bit {@code hashtext} space, from {@code lowHash} to
+     * {@code highHash} inclusive.
+     */
+    public record WorkUnit(int partition, int partitions) {
+
+        public int lowHash() {
+            return (int) (Integer.MIN_VALUE + partition * span());
+        }
+
+        public int highHash() {
+            return partition == partitions - 1 ? Integer.MAX_VALUE : (int) (lowHash() + span() - 1);
+        }
+
+        private long span() {
+            return (1L << 32) / partitions;
+        }
+    }
+
+    public void register(String job, int partitions, PartitionedJob handler) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("A partitioned job needs at least one partition: " + job);
+        }
+        partitionedJobs.put(job, new Registration(partitions, handler));
+        lastSuccess(job);
+    }
+
+    /**
+     * Runs {@code work} if this node is the leader, and skips it otherwise.
+     */
+    public void runSingleton(String job, Runnable work) {
+        lastSuccess(job);
+        if (!leaderElection.isLeader()) {
+            log.debug("Skipping {}, another node is the job leader", job);
+            skipped(job, "not_leader");
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            work.run();
+            completed(job, startTime);
+        } catch (RuntimeException e) {
+            runs(job, "failed").record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            log.error("Job {} failed", job, e);
+        }
+    }
+
+    /**
+     * Starts a run of a registered partitioned job. On the leader this records one work unit per partition for the
+     * nodes to claim, abandoning any earlier run that has not finished. Other nodes do nothing.
+     */
+    public void submit(String job) {
+        Registration registration = partitionedJobs.get(job);
+        if (registration == null) {
+            throw new IllegalArgumentException("Unknown partitioned job: " + job);
+        }
+        if (!enabled) {
+            runInline(job, registration);
+            return;
+        }
+        if (!leaderElection.isLeader()) {
+            log.debug("Not starting {}, another node is the job leader", job);
+            skipped(job, "not_leader");
+            return;
+        }
+
+        try {
+            pruneFinishedRuns();
+            int abandoned = jdbcTemplate.update(
+                    "UPDATE job_runs SET status = ?, finished_at = now() WHERE job_name = ? AND status = ?",
+                    ABANDONED,
+                    job,
+                    RUNNING);
+            if (abandoned > 0) {
+                log.warn("Abandoned {} unfinished run(s) of {}", abandoned, job);
+                Counter.builder("shorty.jobs.runs.abandoned")
+                        .description("Partitioned job runs superseded before all their work units completed")
+                        .tag("job", job)
+                        .register(meterRegistry)
+                        .increment(abandoned);
+            }
+
+            UUID runId = UUID.randomUUID();
+            jdbcTemplate.update(
+                    "INSERT INTO job_runs (id, job_name, partitions, status, started_by, started_at)"
+                            + " VALUES (?, ?, ?, ?, ?, now())",
+                    runId,
+                    job,
+                    registration.partitions(),
+                    RUNNING,
+                    nodeId);
+            List<Object[]> units = new ArrayList<>(registration.partitions());
+            for (int partition = 0; partition < registration.partitions(); partition++) {
+                units.add(new Object[] {runId, job, partition, registration.partitions()});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO job_work_units (run_id, job_name, partition_index, partitions, attempts)"
+                            + " VALUES (?, ?, ?, ?, 0)",
+                    units);
+            log.info("Started {} with {} work unit(s)", job, registration.partitions());
+        } catch (RuntimeException e) {
+            log.error("Failed to start job {}", job, e);
+        }
+    }
+
+    /**
+     * Claims and processes open work units of the jobs registered on this node until there are none left.
+     */
+    @Scheduled(fixedDelayString = "${app.jobs.poll-interval:PT5S}")
+    public void processWorkUnits() {
+        if (!enabled || partitionedJobs.isEmpty()) {
+            return;
+        }
+
+        try {
+            Claim claim;
+            while ((claim = claim()) != null) {
+                process(claim);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to claim job work units: {}", e.getMessage());
+        }
+    }
+
+    private Claim claim() {
+        List<String> jobs = List.copyOf(partitionedJobs.keySet());
+        String placeholders = String.join(", ", Collections.nCopies(jobs.size(), "?"));
+        List<Object> args = new ArrayList<>(List.of(nodeId, lease.toMillis(), maxAttempts));
+        args.addAll(jobs);
+
+        // SKIP LOCKED lets nodes claim concurrently without waiting on each other's row locks
+        List<Claim> claims = jdbcTemplate.query(
+                "UPDATE job_work_units SET owner = ?, lease_expires_at = now() + interval '1 millisecond' * ?,"
+                        + " attempts = attempts + 1"
+                        + " WHERE id = (SELECT u.id FROM job_work_units u JOIN job_runs r ON r.id = u.run_id"
+                        + " WHERE r.status = 'RUNNING' AND u.completed_at IS NULL"
+                        + " AND (u.lease_expires_at IS NULL OR u.lease_expires_at < now())"
+                        + " AND u.attempts < ? AND u.job_name IN (" + placeholders + ")"
+                        + " ORDER BY u.id LIMIT 1 FOR UPDATE OF u SKIP LOCKED)"
+                        + " RETURNING id, run_id, job_name, partition_index, partitions, attempts",
+                (rs, rowNum) -> new Claim(
+                        rs.getLong("id"),
+                        rs.getObject("run_id", UUID.class),
+                        rs.getString("job_name"),
+                        new WorkUnit(rs.getInt("partition_index"), rs.getInt("partitions")),
+                        rs.getInt("attempts")),
+                args.toArray());
+        return claims.isEmpty() ? null : claims.getFirst();
+    }
+
+    private void process(Claim claim) {
+        if (claim.attempts() > 1) {
+            log.info("Retrying {} partition {} (attempt {})", claim.job(), claim.unit().partition(), claim.attempts());
+        }
+
+        long startTime = System.nanoTime();
+        long processed;
+        try {
+            processed = partitionedJobs.get(claim.job()).handler().process(claim.unit());
+        } catch (RuntimeException e) {
+            // The lease is left to run out, so the unit is retried later, possibly by another node
+            units(claim.job(), "failed").record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            log.error("Job {} failed on partition {}", claim.job(), claim.unit().partition(), e);
+            return;
+        }
+
+        int updated = jdbcTemplate.update(
+                "UPDATE job_work_units SET completed_at = now(), processed = ? WHERE id = ? AND owner = ?",
+                processed,
+                claim.id(),
+                nodeId);
+        if (updated == 0) {
+            units(claim.job(), "lost").record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            log.warn("Lease on {} partition {} ran out before it completed", claim.job(), claim.unit().partition());
+            return;
+        }
+        units(claim.job(), "completed").record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        finishRunIfComplete(claim);
+    }
+
+    // Runs after this unit's update has committed, so of two nodes finishing the last units at once the later one
+    // always sees both, and the row lock on job_runs lets only one of them mark the run complete
+    private void finishRunIfComplete(Claim claim) {
+        List<Timestamp> startedAt = jdbcTemplate.queryForList(
+                "UPDATE job_runs SET status = ?, finished_at = now() WHERE id = ? AND status = ?"
+                        + " AND NOT EXISTS (SELECT 1 FROM job_work_units WHERE run_id = ? AND completed_at IS NULL)"
+                        + " RETURNING started_at",
+                Timestamp.class,
+                COMPLETED,
+                claim.runId(),
+                RUNNING,
+                claim.runId());
+        if (!startedAt.isEmpty()) {
+            Duration duration = Duration.between(startedAt.getFirst().toInstant(), Instant.now());
+            runs(claim.job(), "completed").record(duration);
+            lastSuccess(claim.job()).set(Instant.now().getEpochSecond());
+            log.info("Job {} completed in {} ms", claim.job(), duration.toMillis());
+        }
+    }
+
+    private void runInline(String job, Registration registration) {
+        long startTime = System.nanoTime();
+        try {
+            for (int partition = 0; partition < registration.partitions(); partition++) {
+                registration.handler().process(new WorkUnit(partition, registration.partitions()));
+            }
+            completed(job, startTime);
+        } catch (RuntimeException e) {
+            runs(job, "failed").record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            log.error("Job {} failed", job, e);
+        }
+    }
+
+    private void pruneFinishedRuns() {
+        Timestamp before = Timestamp.from(Instant.now().minus(retention));
+        jdbcTemplate.update(
+                "DELETE FROM job_work_units WHERE run_id IN"
+                        + " (SELECT id FROM job_runs WHERE status <> ? AND started_at < ?)",
+                RUNNING,
+                before);
+        jdbcTemplate.update("DELETE FROM job_runs WHERE status <> ? AND started_at < ?", RUNNING, before);
+    }
+
+    private void completed(String job, long startTime) {
+        runs(job, "completed").record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        lastSuccess(job).set(Instant.now().getEpochSecond());
+    }
+
+    private void skipped(String job, String reason) {
+        Counter.builder("shorty.jobs.skipped")
+                .description("Scheduled job triggers this node left to another node")
+                .tag("job", job)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer runs(String job, String outcome) {
+        return Timer.builder("shorty.jobs.runs")
+                .description("Job runs by outcome, timed from start to the last work unit for partitioned jobs")
+                .tag("job", job)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Timer units(String job, String outcome) {
+        return Timer.builder("shorty.jobs.units")
+                .description("Partitioned job work units processed by this node, by outcome")
+                .tag("job", job)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private AtomicLong lastSuccess(String job) {
+        return lastSuccess.computeIfAbsent(job, name -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("shorty.jobs.last-success", value, AtomicLong::get)
+                    .description("When this node last saw the job complete, in seconds since the epoch")
+                    .tag("job", name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            return value;
+        });
+    }
+
+    private record Registration(int partitions, PartitionedJob handler) {}
+
+    private record Claim(long id, UUID runId, String job, WorkUnit unit, int attempts) {}
+}
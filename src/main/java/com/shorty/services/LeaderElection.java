@@ -0,0 +1,148 @@
+package com.shorty.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Elects one node to run singleton jobs by holding a session-level PostgreSQL advisory lock on a dedicated connection.
+ * The lock goes with the session, so when the leader stops or loses its connection the next node to try takes over
+ * within one {@code check-interval}. Jobs still have to tolerate an occasional overlap, since a leader cut off from
+ * the database only notices at its next check.
+ */
+@Slf4j
+@Service
+public class LeaderElection {
+
+    // "shorty" in ASCII, so the lock is recognisable in pg_locks
+    static final long LOCK_KEY = 0x73686f727479L;
+
+    private final boolean enabled;
+    private final Counter acquisitions;
+
+    private volatile boolean leader;
+    private volatile boolean running;
+    private Thread thread;
+
+    @Value("${spring.datasource.url}")
+    private String jdbcUrl;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${app.jobs.leader.check-interval:PT5S}")
+    private Duration checkInterval;
+
+    public LeaderElection(MeterRegistry meterRegistry, @Value("${app.jobs.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+
+        Gauge.builder("shorty.jobs.leader", this, election -> election.isLeader() ? 1 : 0)
+                .description("Whether this node currently runs singleton jobs")
+                .register(meterRegistry);
+        this.acquisitions = Counter.builder("shorty.jobs.leader.acquisitions")
+                .description("Times this node became the job leader")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether this node should run singleton jobs, always true when coordination is disabled
+     */
+    public boolean isLeader() {
+        return !enabled || leader;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform()
+                .name("shorty-leader-election")
+                .daemon(true)
+                .start(this::electionLoop);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void electionLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+                holdOrAcquire(connection);
+            } catch (SQLException e) {
+                if (leader) {
+                    log.warn("Lost job leadership: {}", e.getMessage());
+                } else {
+                    log.debug("Leader election connection failed: {}", e.getMessage());
+                }
+            } finally {
+                leader = false;
+            }
+
+            if (!sleep()) {
+                return;
+            }
+        }
+    }
+
+    // Closing the connection, including when the loop exits, is what releases the lock
+    private void holdOrAcquire(Connection connection) throws SQLException {
+        int timeoutSeconds = (int) Math.max(1, checkInterval.toSeconds());
+        while (running) {
+            if (!leader) {
+                if (tryLock(connection, timeoutSeconds)) {
+                    leader = true;
+                    acquisitions.increment();
+                    log.info("Became job leader");
+                }
+            } else if (!connection.isValid(timeoutSeconds)) {
+                throw new SQLException("Leader connection is no longer valid");
+            }
+
+            if (!sleep()) {
+                return;
+            }
+        }
+    }
+
+    private boolean tryLock(Connection connection, int timeoutSeconds) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setQueryTimeout(timeoutSeconds);
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(checkInterval);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
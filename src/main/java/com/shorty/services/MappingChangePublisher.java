@@ -0,0 +1,70 @@
+package com.shorty.services;
+
+import com.shorty.entities.ChangeType;
+import com.shorty.entities.UrlMapping;
+import com.shorty.entities.UrlMappingChange;
+import com.shorty.repositories.UrlMappingChangeRepository;
+import java.time.Duration;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MappingChangePublisher {
+
+    static final String CHANNEL = "shorty_mapping_changes";
+    static final String EXPIRED_SWEEP = "E";
+
+    private final UrlMappingChangeRepository changeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final JobCoordinator jobs;
+
+    @Value("${app.change-log.retention:P7D}")
+    private Duration retention;
+
+    @Value("${app.invalidation.enabled:true}")
+    private boolean notifyEnabled;
+
+    public void publishCreated(UrlMapping mapping) {
+        publish(mapping.getShortCode(), ChangeType.CREATED);
+    }
+
+    public void publishDeleted(UrlMapping mapping) {
+        publish(mapping.getShortCode(), ChangeType.DELETED);
+    }
+
+    public void publishExpiredSweep() {
+        notifyNodes(EXPIRED_SWEEP);
+    }
+
+    private void publish(String shortCode, ChangeType changeType) {
+        changeRepository.save(UrlMappingChange.builder()
+                .shortCode(shortCode)
+                .changeType(changeType)
+                .changedAt(Instant.now())
+                .build());
+        notifyNodes(changeType.name().charAt(0) + ":" + shortCode);
+    }
+
+    // NOTIFY is transactional, so nodes only hear about a change once the surrounding transaction commits
+    private void notifyNodes(String payload) {
+        if (notifyEnabled) {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, CHANNEL, payload);
+        }
+    }
+
+    @Scheduled(cron = "${app.cleanup.cron:0 0 0 * * ?}")
+    public void pruneChangeLog() {
+        jobs.runSingleton("change-log-prune", () -> {
+            int deletedCount = changeRepository.deleteChangesBefore(Instant.now().minus(retention));
+            log.info("Change log pruned: {} entr(ies) older than {} deleted", deletedCount, retention);
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package com.shorty.services;
+
+import com.shorty.dtos.responses.RedirectResponse;
+import java.time.Instant;
+
+/**
+ * Outcome of resolving a short code on the redirect path. Misses are ordinary results rather than exceptions because
+ * unknown and expired codes are the most common requests from crawlers and cost the most to answer.
+ */
+public sealed interface RedirectResult {
+
+    RedirectResult NOT_FOUND = new NotFound();
+
+    record Found(RedirectResponse response) implements RedirectResult {}
+
+    record NotFound() implements RedirectResult {}
+
+    record Expired(Instant expiresAt) implements RedirectResult {}
+}
@@ -0,0 +1,107 @@
+package com.shorty.services;
+
+import com.shorty.caches.RedirectTarget;
+import com.shorty.dtos.responses.RedirectResponse;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.utils.CoarseClock;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redirect decisions shared by the servlet and reactive redirect paths: how many clicks to record, which status and
+ * caching headers to send, and the problem bodies for misses, so both stacks answer byte for byte the same.
+ */
+@Component
+public class RedirectRules {
+
+    private static final String NO_STORE = "no-cache, no-store, must-revalidate";
+
+    // Misses are what crawlers mostly hit, so their bodies are written once instead of per request
+    private static final byte[] NOT_FOUND_BODY = problem(HttpStatus.NOT_FOUND, "URL Not Found", "url-not-found");
+    private static final byte[] EXPIRED_BODY = problem(HttpStatus.GONE, "Url Expired", "url-expired");
+
+    @Value("${app.tracking.default-sample-rate:100}")
+    private int defaultSampleRate;
+
+    @Value("${app.redirect.max-age-seconds:86400}")
+    private long maxAgeSeconds;
+
+    @Value("${app.redirect.shared-max-age-seconds:60}")
+    private long sharedMaxAgeSeconds;
+
+    public long clickIncrement(RedirectTarget target) {
+        return switch (target.trackingPolicy()) {
+            case EXACT -> 1;
+            case UNTRACKED -> 0;
+            case SAMPLED -> {
+                int rate = target.sampleRate() != null ? target.sampleRate() : defaultSampleRate;
+                yield sampled(rate) ? rate : 0;
+            }
+        };
+    }
+
+    // Separate so tests can decide which clicks are sampled
+    boolean sampled(int rate) {
+        return ThreadLocalRandom.current().nextInt(rate) == 0;
+    }
+
+    public RedirectResponse toResponse(RedirectTarget target, long increment) {
+        return new RedirectResponse(
+                target.originalUrl(), target.clickCount() + increment, target.redirectPolicy(), target.expiresAt());
+    }
+
+    public HttpStatus redirectStatus(RedirectPolicy policy) {
+        return switch (policy) {
+            case MOVED_PERMANENTLY -> HttpStatus.MOVED_PERMANENTLY;
+            case PERMANENT_REDIRECT -> HttpStatus.PERMANENT_REDIRECT;
+            case NO_STORE, SHARED_CACHE -> HttpStatus.FOUND;
+        };
+    }
+
+    public String cacheControl(RedirectResponse redirectData) {
+        long maxAge = maxAgeSeconds;
+        if (redirectData.expiresAt() != null) {
+            long untilExpiryMillis = redirectData.expiresAt().toEpochMilli() - CoarseClock.currentTimeMillis();
+            maxAge = Math.min(maxAge, untilExpiryMillis / 1000);
+        }
+
+        if (maxAge <= 0) {
+            return NO_STORE;
+        }
+
+        return switch (redirectData.redirectPolicy()) {
+            case MOVED_PERMANENTLY, PERMANENT_REDIRECT -> "public, max-age=" + maxAge;
+            case SHARED_CACHE -> "public, max-age=0, s-maxage=" + Math.min(maxAge, sharedMaxAgeSeconds);
+            case NO_STORE -> NO_STORE;
+        };
+    }
+
+    public HttpStatus missStatus(RedirectResult miss) {
+        return switch (miss) {
+            case RedirectResult.NotFound _ -> HttpStatus.NOT_FOUND;
+            case RedirectResult.Expired _ -> HttpStatus.GONE;
+            case RedirectResult.Found _ -> throw new IllegalArgumentException("Not a miss: " + miss);
+        };
+    }
+
+    /**
+     * The shared, precomputed problem body for a miss. Callers write it as is and must not modify the array.
+     */
+    public byte[] missBody(RedirectResult miss) {
+        return switch (miss) {
+            case RedirectResult.NotFound _ -> NOT_FOUND_BODY;
+            case RedirectResult.Expired _ -> EXPIRED_BODY;
+            case RedirectResult.Found _ -> throw new IllegalArgumentException("Not a miss: " + miss);
+        };
+    }
+
+    private static byte[] problem(HttpStatus status, String title, String type) {
+        return """
+                {"type":"https://api.shorty.com/errors/%s","title":"%s","status":%d}"""
+                .formatted(type, title, status.value())
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
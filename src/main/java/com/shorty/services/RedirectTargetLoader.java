@@ -0,0 +1,155 @@
+package com.shorty.services;
+
+import com.shorty.caches.ExpiryListener;
+import com.shorty.caches.InvalidationListener;
+import com.shorty.caches.RedirectTarget;
+import com.shorty.caches.SingleFlightCache;
+import com.shorty.exceptions.LookupUnavailableException;
+import com.shorty.mappers.UrlMapper;
+import com.shorty.profiling.DatabaseLookupEvent;
+import com.shorty.repositories.UrlMappingRepository;
+import com.shorty.utils.CoarseClock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class RedirectTargetLoader implements InvalidationListener, ExpiryListener {
+
+    private final UrlMappingRepository repository;
+    private final UrlMapper mapper;
+    private final DatabaseCircuitBreaker circuitBreaker;
+    private final ExpiryScheduler expiryScheduler;
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SingleFlightCache<String, RedirectTarget> cache;
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final long retryAfterSeconds;
+    private final Counter staleServed;
+
+    public RedirectTargetLoader(
+            UrlMappingRepository repository,
+            UrlMapper mapper,
+            DatabaseCircuitBreaker circuitBreaker,
+            ExpiryScheduler expiryScheduler,
+            MeterRegistry meterRegistry,
+            @Value("${app.redirect-cache.enabled:true}") boolean enabled,
+            @Value("${app.redirect-cache.ttl:PT30S}") Duration ttl,
+            @Value("${app.redirect-cache.refresh-ahead:0.2}") double refreshAhead,
+            @Value("${app.redirect-cache.max-wait:PT2S}") Duration maxWait,
+            @Value("${app.redirect-cache.maximum-size:100000}") int maximumSize) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.circuitBreaker = circuitBreaker;
+        this.expiryScheduler = expiryScheduler;
+        this.enabled = enabled;
+        this.ttlMillis = ttl.toMillis();
+        this.retryAfterSeconds = Math.max(1, maxWait.toSeconds());
+        this.cache = new SingleFlightCache<>(
+                this::fetch, refreshExecutor, Clock.systemUTC(), ttl, refreshAhead, maxWait, maximumSize);
+
+        Gauge.builder("shorty.redirect.cache.size", cache, SingleFlightCache::size)
+                .description("Redirect targets cached in front of the database")
+                .register(meterRegistry);
+        Gauge.builder("shorty.redirect.cache.in-flight", cache, SingleFlightCache::inFlight)
+                .description("Database lookups currently shared by concurrent misses")
+                .register(meterRegistry);
+        this.staleServed = Counter.builder("shorty.redirect.cache.stale")
+                .description("Redirects answered from a cached target because the database was unavailable")
+                .register(meterRegistry);
+
+        if (enabled) {
+            expiryScheduler.subscribe(this);
+        }
+    }
+
+    /**
+     * @throws LookupUnavailableException if the database cannot be reached and no earlier result is cached
+     */
+    public Optional<RedirectTarget> load(String shortCode) {
+        try {
+            return Optional.ofNullable(enabled ? cache.get(shortCode) : fetch(shortCode));
+        } catch (TimeoutException e) {
+            return stale(
+                    shortCode,
+                    new LookupUnavailableException("Timed out resolving short code: " + shortCode, retryAfterSeconds));
+        } catch (LookupUnavailableException e) {
+            return stale(shortCode, e);
+        } catch (DataAccessException e) {
+            log.warn("Database lookup failed for {}: {}", shortCode, e.getMessage());
+            return stale(
+                    shortCode,
+                    new LookupUnavailableException("Database is unavailable", circuitBreaker.getRetryAfterSeconds()));
+        }
+    }
+
+    @Override
+    public void invalidate(Set<String> shortCodes) {
+        shortCodes.forEach(cache::invalidate);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onExpired(List<String> shortCodes) {
+        shortCodes.forEach(cache::invalidate);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private Optional<RedirectTarget> stale(String shortCode, LookupUnavailableException unavailable) {
+        RedirectTarget target = cache.peek(shortCode);
+        if (target == null) {
+            throw unavailable;
+        }
+        staleServed.increment();
+        return Optional.of(target);
+    }
+
+    private RedirectTarget fetch(String shortCode) {
+        DatabaseLookupEvent event = new DatabaseLookupEvent();
+        event.begin();
+        String outcome = "FAILED";
+        try {
+            RedirectTarget target = circuitBreaker.query(() -> repository
+                    .findByShortCode(shortCode)
+                    .map(mapper::toRedirectTarget)
+                    .orElse(null));
+            outcome = target != null ? "FOUND" : "NOT_FOUND";
+            scheduleExpiry(shortCode, target);
+            return target;
+        } finally {
+            event.complete(shortCode, outcome);
+        }
+    }
+
+    // Entries expiring after their TTL are reloaded before then, so only the rest need a timer
+    private void scheduleExpiry(String shortCode, RedirectTarget target) {
+        if (enabled
+                && target != null
+                && target.expiresAt() != null
+                && target.expiresAt().toEpochMilli() < CoarseClock.currentTimeMillis() + ttlMillis) {
+            expiryScheduler.schedule(shortCode, target.expiresAt());
+        }
+    }
+}
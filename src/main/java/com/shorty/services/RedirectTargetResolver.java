@@ -0,0 +1,63 @@
+package com.shorty.services;
+
+import com.shorty.caches.LocalRedirectSource;
+import com.shorty.caches.RedirectTarget;
+import com.shorty.exceptions.LookupUnavailableException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RedirectTargetResolver {
+
+    private final RedirectTargetLoader loader;
+    private final List<LocalRedirectSource> localSources;
+
+    @Value("${app.replica.miss-wait:PT1S}")
+    private Duration missWait;
+
+    public Optional<RedirectTarget> resolve(String shortCode) {
+        Instant requestedAt = Instant.now();
+        for (LocalRedirectSource source : localSources) {
+            if (source.isReady()) {
+                Optional<RedirectTarget> target = source.find(shortCode);
+                if (target.isPresent()) {
+                    return target;
+                }
+            }
+        }
+
+        // A code created just before this request may not have reached the source yet, so a miss is only final once
+        // the source has caught up past the moment the request arrived
+        if (missWait.isPositive()) {
+            for (LocalRedirectSource source : localSources) {
+                if (source.isReady() && source.awaitCaughtUp(requestedAt, missWait)) {
+                    return source.find(shortCode);
+                }
+            }
+        }
+
+        try {
+            return loader.load(shortCode);
+        } catch (LookupUnavailableException e) {
+            // A lagging replica or an old snapshot still beats failing the redirect, but one still loading has nothing
+            for (LocalRedirectSource source : localSources) {
+                if (source.isLoaded()) {
+                    Optional<RedirectTarget> target = source.find(shortCode);
+                    if (target.isPresent()) {
+                        log.debug("Serving {} from a stale local source", shortCode);
+                        return target;
+                    }
+                }
+            }
+            throw e;
+        }
+    }
+}
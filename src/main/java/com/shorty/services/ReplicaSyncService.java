@@ -0,0 +1,202 @@
+package com.shorty.services;
+
+import com.shorty.caches.HostDictionary;
+import com.shorty.caches.InvalidationListener;
+import com.shorty.caches.LocalRedirectSource;
+import com.shorty.caches.MappingChangeListener;
+import com.shorty.caches.RedirectTarget;
+import com.shorty.caches.ReplicaStore;
+import com.shorty.entities.UrlMapping;
+import com.shorty.mappers.UrlMapper;
+import com.shorty.repositories.UrlMappingRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@Order(1)
+@ConditionalOnProperty(name = "app.replica.enabled", havingValue = "true")
+public class ReplicaSyncService implements LocalRedirectSource, MappingChangeListener, InvalidationListener {
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final UrlMappingRepository repository;
+    private final UrlMapper mapper;
+    private final ChangeLogTailer tailer;
+    private final ExpiryScheduler expiryScheduler;
+    private final HostDictionary hosts;
+    private final int expectedSize;
+
+    private volatile ReplicaStore store;
+    private volatile boolean loaded;
+    // Polls started before this ran for the previous copy, so they say nothing about the current one
+    private volatile Instant swappedAt = Instant.EPOCH;
+
+    @Value("${app.replica.max-staleness:PT30S}")
+    private Duration maxStaleness;
+
+    @Value("${app.replica.load-page-size:10000}")
+    private int loadPageSize;
+
+    @Value("${app.replica.expired-retention:P2D}")
+    private Duration expiredRetention;
+
+    public ReplicaSyncService(
+            UrlMappingRepository repository,
+            UrlMapper mapper,
+            ChangeLogTailer tailer,
+            ExpiryScheduler expiryScheduler,
+            HostDictionaryService hostDictionaryService,
+            MeterRegistry meterRegistry,
+            @Value("${app.replica.expected-size:1000000}") int expectedSize) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.tailer = tailer;
+        this.expiryScheduler = expiryScheduler;
+        this.hosts = hostDictionaryService.getDictionary();
+        this.expectedSize = expectedSize;
+        this.store = new ReplicaStore(expectedSize, hosts);
+
+        Gauge.builder("shorty.replica.staleness", this, service -> service.staleness().toMillis() / 1000.0)
+                .description("Time since the replica last caught up with the change log")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("shorty.replica.size", this, service -> service.store.size())
+                .description("Active mappings held in the in-memory replica")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bulkLoad() {
+        log.info("Loading active URL mappings into the replica");
+        load(store);
+        loaded = true;
+    }
+
+    /**
+     * Rebuilds the replica after change notifications may have been lost, in case the change log missed something
+     * too. The current copy keeps answering while the new one loads, and is swapped out once it has caught up.
+     */
+    @Override
+    public void invalidateAll() {
+        if (loaded) {
+            log.info("Reloading the replica after missed change notifications");
+            load(new ReplicaStore(expectedSize, hosts));
+        }
+    }
+
+    private synchronized void load(ReplicaStore target) {
+        long startTime = System.currentTimeMillis();
+
+        long position = tailer.currentPosition();
+        Instant now = Instant.now();
+        UUID afterId = FIRST_ID;
+        List<UrlMapping> page;
+        do {
+            page = repository.findActiveMappingsAfter(now, afterId, Limit.of(loadPageSize));
+            for (UrlMapping mapping : page) {
+                put(target, mapping.getShortCode(), mapper.toRedirectTarget(mapping));
+            }
+            if (!page.isEmpty()) {
+                afterId = page.getLast().getId();
+            }
+        } while (page.size() == loadPageSize);
+
+        // Changes since position are replayed into the new copy, whatever the old subscription already applied
+        tailer.unsubscribe(this);
+        store = target;
+        tailer.subscribe(this, position);
+        swappedAt = Instant.now();
+        tailer.poll();
+
+        log.info(
+                "Replica loaded: {} mapping(s) in {} ms", target.size(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Expired mappings stay in the replica so their codes keep answering 410 until cleanup deletes the rows, which
+     * reaches the replica through the change log. This only drops entries whose deletion was never seen; a code
+     * missing from the replica is looked up in the database anyway.
+     */
+    @Scheduled(fixedDelayString = "${app.replica.purge-interval:PT10M}")
+    public void purgeExpired() {
+        if (loaded) {
+            int purged = store.purgeExpired(Instant.now().minus(expiredRetention));
+            log.debug("Purged {} long expired mapping(s) from the replica", purged);
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return loaded && staleness().compareTo(maxStaleness) <= 0;
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public Optional<RedirectTarget> find(String shortCode) {
+        return store.find(shortCode);
+    }
+
+    @Override
+    public boolean awaitCaughtUp(Instant instant, Duration timeout) {
+        if (!loaded) {
+            return false;
+        }
+        Instant since = instant.isAfter(swappedAt) ? instant : swappedAt;
+        try {
+            return tailer.awaitPolledAfter(since, timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void onMappingUpserted(String shortCode, RedirectTarget target) {
+        put(store, shortCode, target);
+    }
+
+    @Override
+    public void onMappingRemoved(String shortCode) {
+        store.remove(shortCode);
+        expiryScheduler.cancel(shortCode);
+    }
+
+    @Override
+    public void invalidate(Set<String> shortCodes) {
+        // Creates and deletes reach the replica through the change log, which the notification has just polled
+    }
+
+    // Timers only queue the code for deletion, the entry stays until the deletion comes back through the change log
+    private void put(ReplicaStore into, String shortCode, RedirectTarget target) {
+        into.put(shortCode, target);
+        if (target.expiresAt() != null) {
+            expiryScheduler.schedule(shortCode, target.expiresAt());
+        } else {
+            expiryScheduler.cancel(shortCode);
+        }
+    }
+
+    private Duration staleness() {
+        return Duration.between(tailer.getLastPolledAt(), Instant.now());
+    }
+}
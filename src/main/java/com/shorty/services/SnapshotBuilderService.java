@@ -0,0 +1,112 @@
+package com.shorty.services;
+
+import com.shorty.caches.SnapshotWriter;
+import com.shorty.entities.UrlMapping;
+import com.shorty.mappers.UrlMapper;
+import com.shorty.repositories.UrlMappingRepository;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.snapshot.builder.enabled", havingValue = "true")
+public class SnapshotBuilderService {
+
+    static final String CURRENT_FILE = "CURRENT";
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".idx";
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final UrlMappingRepository repository;
+    private final UrlMapper mapper;
+    private final ChangeLogTailer tailer;
+
+    @Value("${app.snapshot.directory:./snapshots}")
+    private Path directory;
+
+    @Value("${app.snapshot.builder.page-size:10000}")
+    private int pageSize;
+
+    @Value("${app.snapshot.builder.keep:3}")
+    private int keep;
+
+    @Scheduled(cron = "${app.snapshot.builder.cron:0 */15 * * * ?}")
+    public synchronized void buildSnapshot() {
+        log.info("Starting snapshot build");
+        long startTime = System.currentTimeMillis();
+
+        try {
+            Files.createDirectories(directory);
+            long position = tailer.currentPosition();
+            Instant now = Instant.now();
+            String name = SNAPSHOT_PREFIX + now.toEpochMilli() + SNAPSHOT_SUFFIX;
+            Path temp = directory.resolve(name + ".tmp");
+
+            long entries;
+            try (SnapshotWriter writer = new SnapshotWriter(temp, repository.countActiveMappings(now), position)) {
+                UUID afterId = FIRST_ID;
+                List<UrlMapping> page;
+                do {
+                    page = repository.findActiveMappingsAfter(now, afterId, Limit.of(pageSize));
+                    for (UrlMapping mapping : page) {
+                        writer.add(mapping.getShortCode(), mapper.toRedirectTarget(mapping));
+                    }
+                    if (!page.isEmpty()) {
+                        afterId = page.getLast().getId();
+                    }
+                } while (page.size() == pageSize);
+                writer.finish();
+                entries = writer.entryCount();
+            }
+
+            Files.move(temp, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+            Path pointer = directory.resolve(CURRENT_FILE + ".tmp");
+            Files.writeString(pointer, name, StandardCharsets.UTF_8);
+            Files.move(
+                    pointer,
+                    directory.resolve(CURRENT_FILE),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+
+            deleteOldSnapshots();
+            log.info(
+                    "Snapshot {} built: {} mapping(s) in {} ms",
+                    name,
+                    entries,
+                    System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("Error during snapshot build", e);
+        }
+    }
+
+    private void deleteOldSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> snapshots = files.filter(file -> {
+                        String fileName = file.getFileName().toString();
+                        return fileName.startsWith(SNAPSHOT_PREFIX) && fileName.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparing(Path::getFileName).reversed())
+                    .toList();
+            for (Path old : snapshots.subList(Math.min(keep, snapshots.size()), snapshots.size())) {
+                Files.deleteIfExists(old);
+            }
+        }
+    }
+}
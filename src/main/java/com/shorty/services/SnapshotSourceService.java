@@ -0,0 +1,134 @@
+package com.shorty.services;
+
+import com.shorty.caches.LocalRedirectSource;
+import com.shorty.caches.MappingChangeListener;
+import com.shorty.caches.RedirectTarget;
+import com.shorty.caches.SnapshotIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@Order(2)
+@ConditionalOnProperty(name = "app.snapshot.enabled", havingValue = "true")
+public class SnapshotSourceService implements LocalRedirectSource {
+
+    private final ChangeLogTailer tailer;
+
+    private volatile View view;
+
+    @Value("${app.snapshot.directory:./snapshots}")
+    private Path directory;
+
+    @Value("${app.snapshot.max-staleness:PT30S}")
+    private Duration maxStaleness;
+
+    public SnapshotSourceService(ChangeLogTailer tailer, MeterRegistry meterRegistry) {
+        this.tailer = tailer;
+
+        Gauge.builder("shorty.snapshot.entries", this, service -> {
+                    View current = service.view;
+                    return current != null ? current.index.getEntryCount() : 0;
+                })
+                .description("Mappings in the memory-mapped snapshot")
+                .register(meterRegistry);
+        Gauge.builder("shorty.snapshot.delta.size", this, service -> {
+                    View current = service.view;
+                    return current != null ? current.delta.entries.size() : 0;
+                })
+                .description("Changes applied on top of the memory-mapped snapshot")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.snapshot.reload-interval:PT1M}")
+    public synchronized void reloadIfChanged() {
+        try {
+            Path pointer = directory.resolve(SnapshotBuilderService.CURRENT_FILE);
+            if (!Files.exists(pointer)) {
+                log.debug("No snapshot published yet in {}", directory);
+                return;
+            }
+
+            Path file = directory.resolve(Files.readString(pointer, StandardCharsets.UTF_8).trim());
+            View current = view;
+            if (current != null && current.index.getFile().equals(file)) {
+                return;
+            }
+
+            swap(SnapshotIndex.open(file));
+        } catch (Exception e) {
+            log.error("Error while loading snapshot", e);
+        }
+    }
+
+    private void swap(SnapshotIndex index) {
+        DeltaOverlay delta = new DeltaOverlay();
+        tailer.subscribe(delta, index.getChangeLogPosition());
+        tailer.poll();
+
+        View previous = view;
+        view = new View(index, delta);
+        if (previous != null) {
+            tailer.unsubscribe(previous.delta);
+        }
+
+        log.info("Snapshot {} mapped with {} mapping(s)", index.getFile().getFileName(), index.getEntryCount());
+    }
+
+    @Override
+    public boolean isReady() {
+        return view != null
+                && Duration.between(tailer.getLastPolledAt(), Instant.now()).compareTo(maxStaleness) <= 0;
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return view != null;
+    }
+
+    @Override
+    public Optional<RedirectTarget> find(String shortCode) {
+        View current = view;
+        if (current == null) {
+            return Optional.empty();
+        }
+        Optional<RedirectTarget> overlay = current.delta.entries.get(shortCode);
+        if (overlay != null) {
+            return overlay;
+        }
+        return current.index.find(shortCode);
+    }
+
+    private record View(SnapshotIndex index, DeltaOverlay delta) {}
+
+    private static final class DeltaOverlay implements MappingChangeListener {
+        private final Map<String, Optional<RedirectTarget>> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public void onMappingUpserted(String shortCode, RedirectTarget target) {
+            entries.put(shortCode, Optional.of(target));
+        }
+
+        @Override
+        public void onMappingRemoved(String shortCode) {
+            entries.put(shortCode, Optional.empty());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.shorty.services;
+
+import com.shorty.caches.BoundedMap;
+import com.shorty.caches.InvalidationListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short codes recently found to be expired, so repeated requests for them are answered without a lookup. Entries live
+ * for a short TTL and are dropped when the code changes, in case it is deleted and the alias is taken again.
+ */
+@Component
+public class TombstoneCache implements InvalidationListener {
+
+    private final Clock clock;
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final BoundedMap<String, Tombstone> tombstones;
+
+    @Autowired
+    public TombstoneCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.tombstones.enabled:true}") boolean enabled,
+            @Value("${app.tombstones.ttl:PT1M}") Duration ttl,
+            @Value("${app.tombstones.maximum-size:100000}") int maximumSize) {
+        this(Clock.systemUTC(), enabled, ttl, maximumSize);
+
+        Gauge.builder("shorty.redirect.tombstones", tombstones, BoundedMap::size)
+                .description("Expired short codes answered without a lookup")
+                .register(meterRegistry);
+    }
+
+    TombstoneCache(Clock clock, boolean enabled, Duration ttl, int maximumSize) {
+        this.clock = clock;
+        this.enabled = enabled;
+        this.ttlMillis = ttl.toMillis();
+        this.tombstones = new BoundedMap<>(maximumSize);
+    }
+
+    public RedirectResult.Expired get(String shortCode) {
+        Tombstone tombstone = tombstones.get(shortCode);
+        if (tombstone == null) {
+            return null;
+        }
+        if (tombstone.until <= clock.millis()) {
+            tombstones.remove(shortCode, tombstone);
+            return null;
+        }
+        return tombstone.expired;
+    }
+
+    public RedirectResult.Expired remember(String shortCode, Instant expiresAt) {
+        RedirectResult.Expired expired = new RedirectResult.Expired(expiresAt);
+        if (!enabled) {
+            return expired;
+        }
+
+        tombstones.put(shortCode, new Tombstone(expired, clock.millis() + ttlMillis));
+        return expired;
+    }
+
+    public int size() {
+        return tombstones.size();
+    }
+
+    @Override
+    public void invalidate(Set<String> shortCodes) {
+        shortCodes.forEach(tombstones::remove);
+    }
+
+    @Override
+    public void invalidateAll() {
+        tombstones.clear();
+    }
+
+    private record Tombstone(RedirectResult.Expired expired, long until) {}
+}
@@ -1,50 +1,139 @@
 package com.shorty.services;
 
+import com.shorty.caches.ExpiryListener;
+import com.shorty.profiling.CleanupEvent;
 import com.shorty.repositories.UrlMappingRepository;
+import jakarta.annotation.PostConstruct;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class UrlCleanupService {
+public class UrlCleanupService implements ExpiryListener {
+
+    static final String CLEANUP_JOB = "url-cleanup";
 
     private final UrlMappingRepository repository;
+    private final MappingChangePublisher changePublisher;
+    private final UrlMetrics metrics;
+    private final ExpiryScheduler expiryScheduler;
+    private final JobCoordinator jobs;
+    private final Queue<String> expiredCodes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
 
-    @Scheduled(cron = "${app.cleanup.cron:0 0 0 * * ?}")
-    @Transactional
-    public void cleanupExpiredUrls() {
-        log.info("Starting cleanup of expired URLs");
+    @Value("${app.cleanup.partitions:16}")
+    private int cleanupPartitions;
+
+    @Value("${app.expiry.cleanup-batch-size:500}")
+    private int cleanupBatchSize;
+
+    @Value("${app.expiry.max-pending:100000}")
+    private int maxPending;
+
+    @PostConstruct
+    public void register() {
+        expiryScheduler.subscribe(this);
+        jobs.register(CLEANUP_JOB, cleanupPartitions, this::cleanupPartition);
+    }
+
+    /**
+     * Queues codes that expired on this node for {@link #cleanupExpiredCodes()}. Codes beyond {@code max-pending} are
+     * left to the daily cleanup.
+     */
+    @Override
+    public void onExpired(List<String> shortCodes) {
+        if (pending.addAndGet(shortCodes.size()) > maxPending) {
+            pending.addAndGet(-shortCodes.size());
+            log.debug("Cleanup queue is full, leaving {} expired code(s) to the daily cleanup", shortCodes.size());
+            return;
+        }
+        expiredCodes.addAll(shortCodes);
+    }
 
-        long startTime = System.currentTimeMillis();
+    /**
+     * Deletes the queued codes in chunks of {@code cleanup-batch-size}, each in its own transaction, so expired rows go
+     * away within minutes without the daily job's single large delete. The deletes are recorded in the change log,
+     * which is how replicas and snapshot overlays on other nodes drop the codes.
+     */
+    @Scheduled(fixedDelayString = "${app.expiry.cleanup-interval:PT1M}")
+    public void cleanupExpiredCodes() {
+        if (expiredCodes.isEmpty()) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
         Instant now = Instant.now();
+        int batchSize = Math.max(1, cleanupBatchSize);
+        List<String> batch = new ArrayList<>(batchSize);
+        int deletedCount = 0;
 
         try {
-            long expiredCount = repository.countExpiredMappings(now);
-
-            if (expiredCount == 0) {
-                log.info("No expired URLs to clean up");
-                return;
+            String shortCode;
+            while ((shortCode = expiredCodes.poll()) != null) {
+                pending.decrementAndGet();
+                batch.add(shortCode);
+                if (batch.size() == batchSize) {
+                    deletedCount += deleteChunk(batch, now);
+                    batch = new ArrayList<>(batchSize);
+                }
             }
+            if (!batch.isEmpty()) {
+                deletedCount += deleteChunk(batch, now);
+            }
+        } catch (Exception e) {
+            log.error("Error during incremental cleanup of expired URLs", e);
+        }
 
-            log.info("Found {} expired URL(s) to delete", expiredCount);
+        metrics.recordCleanup(deletedCount, startTime);
+        log.debug("Incremental cleanup deleted {} expired URL(s)", deletedCount);
+    }
 
-            int deletedCount = repository.deleteExpiredMappings(now);
+    /**
+     * Starts the daily cleanup. On the job leader this splits it into {@code app.cleanup.partitions} hash ranges of
+     * short codes, which every node deletes in parallel through {@link #cleanupPartition}.
+     */
+    @Scheduled(cron = "${app.cleanup.cron:0 0 0 * * ?}")
+    public void cleanupExpiredUrls() {
+        log.info("Starting cleanup of expired URLs");
+        jobs.submit(CLEANUP_JOB);
+    }
 
-            long duration = System.currentTimeMillis() - startTime;
+    long cleanupPartition(JobCoordinator.WorkUnit unit) {
+        long startTime = System.nanoTime();
 
-            log.info("Cleanup completed: {} URL(s) deleted in {} ms", deletedCount, duration);
+        CleanupEvent event = new CleanupEvent();
+        event.begin();
+        int deletedCount = repository.deleteExpiredMappingsInHashRange(Instant.now(), unit.lowHash(), unit.highHash());
+        event.complete(deletedCount, "PARTITION");
+        if (deletedCount > 0) {
+            changePublisher.publishExpiredSweep();
+        }
 
-            if (deletedCount != expiredCount) {
-                log.warn("Mismatch in cleanup: expected {}, deleted {}", expiredCount, deletedCount);
-            }
+        metrics.recordCleanup(deletedCount, startTime);
+        log.info(
+                "Cleanup of partition {}/{} completed: {} URL(s) deleted in {} ms",
+                unit.partition() + 1,
+                unit.partitions(),
+                deletedCount,
+                (System.nanoTime() - startTime) / 1_000_000);
+        return deletedCount;
+    }
 
-        } catch (Exception e) {
-            log.error("Error during cleanup of expired URLs", e);
-        }
+    private int deleteChunk(List<String> shortCodes, Instant now) {
+        CleanupEvent event = new CleanupEvent();
+        event.begin();
+        int deletedCount = repository.deleteExpiredByShortCodes(shortCodes, now);
+        event.complete(deletedCount, "INCREMENTAL");
+        return deletedCount;
     }
 }
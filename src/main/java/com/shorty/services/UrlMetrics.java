@@ -0,0 +1,136 @@
+package com.shorty.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for resolving and creating short URLs. Every timer and counter is registered up front so the hot path only
+ * records a duration or increments, and timers publish fixed SLO buckets rather than full percentile histograms.
+ * {@link #observe} and {@link #run} wrap a stage in an observation, which shows up as a child span of the request when
+ * a tracing bridge is on the classpath and as a timer named after the stage otherwise.
+ */
+@Component
+public class UrlMetrics {
+
+    public enum ResolveOutcome {
+        FOUND,
+        NOT_FOUND,
+        EXPIRED,
+        UNAVAILABLE
+    }
+
+    public enum CreateOutcome {
+        CREATED,
+        REUSED,
+        ALIAS_TAKEN,
+        INVALID,
+        FAILED
+    }
+
+    private static final Duration[] RESOLVE_SLOS = {
+        Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50)
+    };
+    private static final Duration[] CREATE_SLOS = {
+        Duration.ofMillis(10),
+        Duration.ofMillis(25),
+        Duration.ofMillis(50),
+        Duration.ofMillis(100),
+        Duration.ofMillis(250)
+    };
+
+    private final ObservationRegistry observationRegistry;
+    private final Map<ResolveOutcome, Timer> resolveTimers = new EnumMap<>(ResolveOutcome.class);
+    private final Map<CreateOutcome, Timer> createTimers = new EnumMap<>(CreateOutcome.class);
+    private final DistributionSummary generationAttempts;
+    private final Counter collisions;
+    private final Counter exhausted;
+    private final Timer cleanupDuration;
+    private final Counter cleanupDeleted;
+
+    public UrlMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+
+        for (ResolveOutcome outcome : ResolveOutcome.values()) {
+            resolveTimers.put(
+                    outcome,
+                    Timer.builder("shorty.redirect.resolve")
+                            .description("Time to resolve a short code and record its click")
+                            .tag("outcome", tagValue(outcome))
+                            .serviceLevelObjectives(RESOLVE_SLOS)
+                            .register(meterRegistry));
+        }
+        for (CreateOutcome outcome : CreateOutcome.values()) {
+            createTimers.put(
+                    outcome,
+                    Timer.builder("shorty.urls.create")
+                            .description("Time to create a short URL, including code generation and the insert")
+                            .tag("outcome", tagValue(outcome))
+                            .serviceLevelObjectives(CREATE_SLOS)
+                            .register(meterRegistry));
+        }
+
+        this.generationAttempts = DistributionSummary.builder("shorty.shortcode.attempts")
+                .description("Candidates tried per generated short code")
+                .serviceLevelObjectives(1, 2, 3)
+                .register(meterRegistry);
+        this.collisions = Counter.builder("shorty.shortcode.collisions")
+                .description("Generated short codes that were already taken")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("shorty.shortcode.exhausted")
+                .description("Code generations that ran out of retry attempts")
+                .register(meterRegistry);
+        this.cleanupDuration = Timer.builder("shorty.cleanup.duration")
+                .description("Duration of the expired URL sweep")
+                .register(meterRegistry);
+        this.cleanupDeleted = Counter.builder("shorty.cleanup.deleted")
+                .description("Expired URLs deleted by the sweep")
+                .register(meterRegistry);
+    }
+
+    public void recordResolve(ResolveOutcome outcome, long startNanos) {
+        resolveTimers.get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCreate(CreateOutcome outcome, long startNanos) {
+        createTimers.get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCollision() {
+        collisions.increment();
+    }
+
+    public void recordGeneration(int attempts, boolean succeeded) {
+        generationAttempts.record(attempts);
+        if (!succeeded) {
+            exhausted.increment();
+        }
+    }
+
+    public void recordCleanup(int deleted, long startNanos) {
+        cleanupDuration.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        cleanupDeleted.increment(deleted);
+    }
+
+    public <T> T observe(String stage, Supplier<T> work) {
+        return Observation.createNotStarted(stage, observationRegistry).observe(work);
+    }
+
+    public void run(String stage, Runnable work) {
+        Observation.createNotStarted(stage, observationRegistry).observe(work);
+    }
+
+    private static String tagValue(Enum<?> outcome) {
+        return outcome.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,17 +1,27 @@
 package com.shorty.services;
 
+import com.shorty.caches.RedirectTarget;
 import com.shorty.dtos.requests.CreateUrlRequest;
 import com.shorty.dtos.responses.PageResponse;
 import com.shorty.dtos.responses.RedirectResponse;
 import com.shorty.dtos.responses.UrlResponse;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
 import com.shorty.entities.UrlMapping;
 import com.shorty.exceptions.AliasAlreadyExistsException;
+import com.shorty.exceptions.LookupUnavailableException;
 import com.shorty.exceptions.UrlExpiredException;
 import com.shorty.exceptions.UrlNotFoundException;
 import com.shorty.mappers.UrlMapper;
+import com.shorty.profiling.RedirectResolveEvent;
 import com.shorty.repositories.UrlMappingRepository;
+import com.shorty.services.UrlMetrics.CreateOutcome;
+import com.shorty.services.UrlMetrics.ResolveOutcome;
 import com.shorty.utils.ShortCodeGenerator;
+import com.shorty.utils.UrlCanonicalizer;
 import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +41,14 @@ public class UrlService {
     private final UrlMappingRepository repository;
     private final ShortCodeGenerator codeGenerator;
     private final UrlMapper mapper;
+    private final RedirectTargetResolver targetResolver;
+    private final MappingChangePublisher changePublisher;
+    private final ClickRecorder clickRecorder;
+    private final RedirectRules redirectRules;
+    private final UrlMetrics metrics;
+    private final AccessLog accessLog;
+    private final TombstoneCache tombstones;
+    private final CodeSpaceMonitor codeSpaceMonitor;
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
@@ -41,6 +59,15 @@ public class UrlService {
     @Value("${app.url-expiration.default-hours:8760}")
     private int defaultExpirationHours;
 
+    @Value("${app.tracking.default-policy:EXACT}")
+    private TrackingPolicy defaultTrackingPolicy;
+
+    @Value("${app.tracking.default-sample-rate:100}")
+    private int defaultSampleRate;
+
+    @Value("${app.dedup.enabled:false}")
+    private boolean dedupEnabled;
+
     @Transactional(readOnly = true)
     public PageResponse<UrlResponse> getAllUrls(int page, int size, UUID userId) {
         log.info("Getting all URLs for user ID: {}", userId);
@@ -64,53 +91,136 @@ public class UrlService {
     public UrlResponse createShortUrl(CreateUrlRequest request, UUID userId) {
         log.info("Creating short URL for: {} with user ID: {}", request.originalUrl(), userId);
 
+        long start = System.nanoTime();
+        CreateOutcome outcome = CreateOutcome.FAILED;
+        try {
+            Created created = create(request, userId);
+            outcome = created.outcome();
+            return created.response();
+        } catch (AliasAlreadyExistsException e) {
+            outcome = CreateOutcome.ALIAS_TAKEN;
+            throw e;
+        } catch (IllegalArgumentException e) {
+            outcome = CreateOutcome.INVALID;
+            throw e;
+        } finally {
+            metrics.recordCreate(outcome, start);
+        }
+    }
+
+    private Created create(CreateUrlRequest request, UUID userId) {
+        String canonicalUrl = UrlCanonicalizer.canonicalize(request.originalUrl());
+        long urlHash = UrlCanonicalizer.hash(canonicalUrl);
+
+        TrackingPolicy trackingPolicy =
+                request.trackingPolicy() != null ? request.trackingPolicy() : defaultTrackingPolicy;
+
+        UrlMapping mapping = UrlMapping.builder()
+                .originalUrl(request.originalUrl())
+                .urlHash(urlHash)
+                .expiresAt(calculateDefaultExpirationTime(request))
+                .userId(userId)
+                .trackingPolicy(trackingPolicy)
+                .sampleRate(trackingPolicy == TrackingPolicy.SAMPLED ? resolveSampleRate(request) : null)
+                .redirectPolicy(
+                        request.redirectPolicy() != null ? request.redirectPolicy() : RedirectPolicy.NO_STORE)
+                .build();
+
+        // A custom alias asks for a specific code and an explicit lifetime for a link of its own, so neither is reused
+        if (dedupEnabled && !StringUtils.hasText(request.customAlias()) && request.expirationHours() == null) {
+            Optional<UrlMapping> existing =
+                    metrics.observe("shorty.create.dedup", () -> findActiveDuplicate(canonicalUrl, mapping));
+            if (existing.isPresent()) {
+                log.info("Reusing short URL {} for user: {}", existing.get().getShortCode(), userId);
+                return new Created(mapper.toResponse(existing.get(), baseUrl), CreateOutcome.REUSED);
+            }
+        }
+
         String shortCode;
 
         if (StringUtils.hasText(request.customAlias())) {
-            shortCode = request.customAlias();
+            String alias = request.customAlias();
+            shortCode = alias;
 
             if (!codeGenerator.isValidAlias(shortCode)) {
                 throw new IllegalArgumentException("Invalid custom alias format");
             }
 
-            if (repository.existsByShortCode(shortCode)) {
+            if (metrics.observe("shorty.create.alias-check", () -> repository.existsByShortCode(alias))) {
                 throw new AliasAlreadyExistsException("Custom alias '" + shortCode + "' is already in use");
             }
         } else {
-            shortCode = generateUniqueShortCode();
+            shortCode = metrics.observe("shorty.create.generate", this::generateUniqueShortCode);
         }
+        mapping.setShortCode(shortCode);
 
-        UrlMapping mapping = UrlMapping.builder()
-                .shortCode(shortCode)
-                .originalUrl(request.originalUrl())
-                .expiresAt(calculateDefaultExpirationTime(request))
-                .userId(userId)
-                .build();
-
-        UrlMapping saved = repository.save(mapping);
+        UrlMapping saved = metrics.observe("shorty.create.persist", () -> repository.save(mapping));
+        changePublisher.publishCreated(saved);
         log.info("Short URL created successfully: {} for user: {}", shortCode, userId);
-        return mapper.toResponse(saved, baseUrl);
+        return new Created(mapper.toResponse(saved, baseUrl), CreateOutcome.CREATED);
     }
 
-    @Transactional(isolation = Isolation.READ_COMMITTED)
+    /**
+     * Resolves a short code and records the click, signalling misses through exceptions.
+     *
+     * @see #resolve(String)
+     */
     public RedirectResponse resolveAndTrack(String shortCode) {
-        log.debug("Resolving short code: {}", shortCode);
-
-        UrlMapping mapping = repository
-                .findByShortCodeForUpdate(shortCode)
-                .orElseThrow(() -> new UrlNotFoundException("Short URL not found: " + shortCode));
+        return switch (resolve(shortCode)) {
+            case RedirectResult.Found found -> found.response();
+            case RedirectResult.NotFound _ -> throw new UrlNotFoundException("Short URL not found: " + shortCode);
+            case RedirectResult.Expired expired ->
+                throw new UrlExpiredException("This short URL has expired on " + expired.expiresAt());
+        };
+    }
 
-        if (mapping.isExpired()) {
-            log.warn("Attempted to access expired URL: {}", shortCode);
-            throw new UrlExpiredException("This short URL has expired on " + mapping.getExpiresAt());
-        }
+    /**
+     * Resolves a short code and records the click. Unknown and expired codes are returned as results without
+     * allocating exceptions, and codes seen expired recently are answered from tombstones without a lookup.
+     *
+     * @throws LookupUnavailableException if the database cannot be reached and no earlier result is cached
+     */
+    public RedirectResult resolve(String shortCode) {
+        long start = System.nanoTime();
+        ResolveOutcome outcome = ResolveOutcome.UNAVAILABLE;
+        long clicks = -1;
+        RedirectResolveEvent event = new RedirectResolveEvent();
+        event.begin();
+        try {
+            RedirectResult.Expired tombstone = tombstones.get(shortCode);
+            if (tombstone != null) {
+                outcome = ResolveOutcome.EXPIRED;
+                return tombstone;
+            }
 
-        mapping.incrementClickCount();
-        repository.save(mapping);
+            Optional<RedirectTarget> lookup =
+                    metrics.observe("shorty.redirect.lookup", () -> targetResolver.resolve(shortCode));
+            if (lookup.isEmpty()) {
+                outcome = ResolveOutcome.NOT_FOUND;
+                return RedirectResult.NOT_FOUND;
+            }
 
-        log.info("Short code {} resolved. Click count: {}", shortCode, mapping.getClickCount());
+            RedirectTarget target = lookup.get();
+            if (target.isExpired()) {
+                outcome = ResolveOutcome.EXPIRED;
+                return tombstones.remember(shortCode, target.expiresAt());
+            }
 
-        return new RedirectResponse(mapping.getOriginalUrl(), mapping.getClickCount());
+            long increment = redirectRules.clickIncrement(target);
+            if (increment > 0) {
+                metrics.run("shorty.redirect.track", () -> clickRecorder.record(shortCode, increment));
+            }
+            RedirectResponse response = redirectRules.toResponse(target, increment);
+            outcome = ResolveOutcome.FOUND;
+            if (response.clickCount() != null) {
+                clicks = response.clickCount();
+            }
+            return new RedirectResult.Found(response);
+        } finally {
+            metrics.recordResolve(outcome, start);
+            event.complete(shortCode, outcome.name());
+            accessLog.redirect(shortCode, outcome, System.nanoTime() - start, clicks);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -137,23 +247,48 @@ public class UrlService {
         }
 
         repository.delete(mapping);
+        changePublisher.publishDeleted(mapping);
         log.info("Short URL deleted: {} by user: {}", shortCode, userId);
     }
 
+    /**
+     * Finds the user's unexpired link to the same destination that redirects and counts clicks the way the requested
+     * one would.
+     */
+    private Optional<UrlMapping> findActiveDuplicate(String canonicalUrl, UrlMapping requested) {
+        return repository
+                .findActiveByUserIdAndUrlHash(requested.getUserId(), requested.getUrlHash(), Instant.now())
+                .stream()
+                .filter(mapping -> canonicalUrl.equals(UrlCanonicalizer.canonicalize(mapping.getOriginalUrl())))
+                .filter(mapping -> mapping.getEffectiveRedirectPolicy() == requested.getEffectiveRedirectPolicy()
+                        && mapping.getEffectiveTrackingPolicy() == requested.getEffectiveTrackingPolicy()
+                        && Objects.equals(mapping.getSampleRate(), requested.getSampleRate()))
+                .findFirst();
+    }
+
     private String generateUniqueShortCode() {
         for (int attempt = 0; attempt < maxRetryAttempts; attempt++) {
             String code = codeGenerator.generate();
 
             if (!repository.existsByShortCode(code)) {
+                metrics.recordGeneration(attempt + 1, true);
+                codeSpaceMonitor.recordGeneration(attempt + 1, true);
                 return code;
             }
 
+            metrics.recordCollision();
             log.debug("Short code collision on attempt {}: {}", attempt + 1, code);
         }
 
+        metrics.recordGeneration(maxRetryAttempts, false);
+        codeSpaceMonitor.recordGeneration(maxRetryAttempts, false);
         throw new IllegalStateException("Failed to generate unique short code after " + maxRetryAttempts + " attempts");
     }
 
+    private int resolveSampleRate(CreateUrlRequest request) {
+        return request.sampleRate() != null ? request.sampleRate() : defaultSampleRate;
+    }
+
     private Instant calculateDefaultExpirationTime(CreateUrlRequest request) {
         if (request.expirationHours() != null) {
             return Instant.now().plusSeconds(request.expirationHours() * 3600L);
@@ -161,4 +296,6 @@ public class UrlService {
             return Instant.now().plusSeconds(defaultExpirationHours * 3600L);
         }
     }
+
+    private record Created(UrlResponse response, CreateOutcome outcome) {}
 }
@@ -0,0 +1,103 @@
+package com.shorty.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer of access log entries. Entries live in preallocated parallel
+ * arrays, so offering one allocates nothing. A producer claims a slot with one CAS on the tail and publishes it by
+ * advancing the slot's sequence, which is also what makes the plain field writes visible to the consumer. A full buffer
+ * rejects the entry instead of making the request wait.
+ */
+public class AccessLogBuffer {
+
+    public interface Sink {
+        void accept(long timestamp, String shortCode, int outcome, long durationNanos, long clicks);
+    }
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] timestamps;
+    private final String[] shortCodes;
+    private final int[] outcomes;
+    private final long[] durations;
+    private final long[] clicks;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public AccessLogBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.timestamps = new long[size];
+        this.shortCodes = new String[size];
+        this.outcomes = new int[size];
+        this.durations = new long[size];
+        this.clicks = new long[size];
+    }
+
+    /**
+     * @return {@code false} if the buffer is full and the entry was dropped
+     */
+    public boolean offer(long timestamp, String shortCode, int outcome, long durationNanos, long clickCount) {
+        long position = tail.get();
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long available = sequences.getAcquire(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                // The consumer has not freed this slot since the previous lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+
+        timestamps[index] = timestamp;
+        shortCodes[index] = shortCode;
+        outcomes[index] = outcome;
+        durations[index] = durationNanos;
+        clicks[index] = clickCount;
+        sequences.setRelease(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} published entries to the sink in order. Only one thread may drain.
+     *
+     * @return the number of entries drained
+     */
+    public int drain(Sink sink, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.getAcquire(index) != position + 1) {
+                break;
+            }
+            sink.accept(timestamps[index], shortCodes[index], outcomes[index], durations[index], clicks[index]);
+            shortCodes[index] = null;
+            sequences.setRelease(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head.lazySet(position);
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
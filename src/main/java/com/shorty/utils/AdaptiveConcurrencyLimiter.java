@@ -0,0 +1,95 @@
+package com.shorty.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Concurrency limit that follows observed latency, in the style of the gradient limiters used for load shedding. A
+ * fast-moving average of request latency is compared with a slow-moving baseline: while they agree the limit grows by
+ * roughly its square root, and as queueing pushes latency above the baseline the limit shrinks in proportion. Failed
+ * requests cut the limit multiplicatively, as in AIMD. The limit and both averages form one immutable snapshot that
+ * each completion replaces with a compare-and-set, so no request thread ever waits on another to record its latency.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_WINDOW_WEIGHT = 0.1;
+    private static final double LONG_WINDOW_WEIGHT = 0.001;
+    private static final double SMOOTHING = 0.2;
+    private static final double FAILURE_BACKOFF = 0.9;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicReference<Window> window;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.window = new AtomicReference<>(new Window(initialLimit, 0, 0));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, boolean failed) {
+        int startedWith = inFlight.getAndDecrement();
+        update(rttNanos, failed, startedWith);
+    }
+
+    public int getLimit() {
+        return (int) window.get().limit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(long rttNanos, boolean failed, int inFlightAtCompletion) {
+        Window current;
+        Window next;
+        do {
+            current = window.get();
+            next = next(current, rttNanos, failed, inFlightAtCompletion);
+        } while (!window.compareAndSet(current, next));
+    }
+
+    private Window next(Window current, long rttNanos, boolean failed, int inFlightAtCompletion) {
+        double limit = current.limit();
+        if (failed) {
+            return new Window(Math.max(minLimit, limit * FAILURE_BACKOFF), current.shortRtt(), current.longRtt());
+        }
+
+        if (current.longRtt() == 0) {
+            return new Window(limit, rttNanos, rttNanos);
+        }
+        double shortRtt = current.shortRtt() + (rttNanos - current.shortRtt()) * SHORT_WINDOW_WEIGHT;
+        double longRtt = current.longRtt() + (rttNanos - current.longRtt()) * LONG_WINDOW_WEIGHT;
+
+        // Let the baseline recover quickly once a latency spike is over instead of dragging it out for minutes
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        // Below half the limit the service is not what is holding requests back, so latency says nothing about it
+        if (inFlightAtCompletion < limit / 2) {
+            return new Window(limit, shortRtt, longRtt);
+        }
+
+        double gradient = Math.clamp(longRtt / shortRtt, 0.5, 1.0);
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        return new Window(
+                Math.clamp(limit * (1 - SMOOTHING) + newLimit * SMOOTHING, minLimit, maxLimit), shortRtt, longRtt);
+    }
+
+    private record Window(double limit, double shortRtt, double longRtt) {}
+}
@@ -0,0 +1,133 @@
+package com.shorty.utils;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker over the last {@code windowSize} calls. It opens when either the failure rate or the
+ * slow-call rate reaches its threshold, rejects calls for {@code openDuration}, then lets a single probe through and
+ * closes again only if that probe is fast and succeeds.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final byte SLOW = 1;
+    private static final byte FAILED = 2;
+
+    private final Clock clock;
+    private final byte[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+    private long openUntil;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(
+            Clock clock,
+            int windowSize,
+            int minimumCalls,
+            double failureRateThreshold,
+            Duration slowCallThreshold,
+            double slowCallRateThreshold,
+            Duration openDuration) {
+        this.clock = clock;
+        this.window = new byte[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openMillis = openDuration.toMillis();
+    }
+
+    public synchronized boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (clock.millis() < openUntil) {
+                    yield false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                yield true;
+            }
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    yield false;
+                }
+                probeInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void onResult(long durationNanos, boolean failed) {
+        boolean slow = durationNanos > slowCallNanos;
+        switch (state) {
+            case HALF_OPEN -> {
+                probeInFlight = false;
+                if (failed || slow) {
+                    open();
+                } else {
+                    reset();
+                }
+            }
+            case CLOSED -> record((byte) ((slow ? SLOW : 0) | (failed ? FAILED : 0)));
+            case OPEN -> {
+                // A call admitted before the breaker opened; its outcome is already accounted for
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state == State.OPEN && clock.millis() >= openUntil ? State.HALF_OPEN : state;
+    }
+
+    public synchronized long getRetryAfterMillis() {
+        return state == State.OPEN ? Math.max(0, openUntil - clock.millis()) : 0;
+    }
+
+    private void record(byte outcome) {
+        if (calls == window.length) {
+            byte evicted = window[next];
+            failures -= (evicted & FAILED) != 0 ? 1 : 0;
+            slowCalls -= (evicted & SLOW) != 0 ? 1 : 0;
+        } else {
+            calls++;
+        }
+        window[next] = outcome;
+        next = (next + 1) % window.length;
+        failures += (outcome & FAILED) != 0 ? 1 : 0;
+        slowCalls += (outcome & SLOW) != 0 ? 1 : 0;
+
+        if (calls >= minimumCalls
+                && (failures >= failureRateThreshold * calls || slowCalls >= slowCallRateThreshold * calls)) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = clock.millis() + openMillis;
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        next = 0;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
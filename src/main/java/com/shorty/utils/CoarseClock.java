@@ -0,0 +1,66 @@
+package com.shorty.utils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * UTC clock that reads a volatile field refreshed by a daemon thread every {@value #RESOLUTION_MILLIS} ms instead of
+ * asking the operating system. Expiry checks on the redirect path run once per request and only need to be right to
+ * within a tick, so they use {@link #currentTimeMillis()} and skip both the clock read and the {@link Instant}.
+ */
+public final class CoarseClock extends Clock {
+
+    public static final long RESOLUTION_MILLIS = 10;
+
+    private static final CoarseClock INSTANCE = new CoarseClock();
+
+    private volatile long now = System.currentTimeMillis();
+
+    private CoarseClock() {
+        Thread.ofPlatform().name("coarse-clock").daemon().start(() -> {
+            while (true) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RESOLUTION_MILLIS));
+                now = System.currentTimeMillis();
+            }
+        });
+    }
+
+    public static CoarseClock get() {
+        return INSTANCE;
+    }
+
+    public static long currentTimeMillis() {
+        return INSTANCE.now;
+    }
+
+    /**
+     * Whether {@code expiresAt} has passed, with {@code null} meaning the mapping never expires.
+     */
+    public static boolean isExpired(Instant expiresAt) {
+        return expiresAt != null && INSTANCE.now > expiresAt.toEpochMilli();
+    }
+
+    @Override
+    public long millis() {
+        return now;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(now);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return ZoneOffset.UTC.equals(zone) ? this : Clock.system(zone);
+    }
+}
@@ -0,0 +1,53 @@
+package com.shorty.utils;
+
+import java.util.Arrays;
+
+public final class ShortCodeCodec {
+
+    public static final long INVALID = -1L;
+
+    private static final String BASE62_ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int MAX_LENGTH = 10;
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < BASE62_ALPHABET.length(); i++) {
+            DIGITS[BASE62_ALPHABET.charAt(i)] = (byte) i;
+        }
+    }
+
+    private ShortCodeCodec() {}
+
+    // Bijective base-62 keeps codes of different lengths distinct and never yields 0 for a non-empty code
+    public static long encode(String shortCode) {
+        if (shortCode == null || shortCode.isEmpty() || shortCode.length() > MAX_LENGTH) {
+            return INVALID;
+        }
+
+        long value = 0;
+        for (int i = 0; i < shortCode.length(); i++) {
+            char c = shortCode.charAt(i);
+            int digit = c < 128 ? DIGITS[c] : -1;
+            if (digit < 0) {
+                return INVALID;
+            }
+            value = value * 62 + digit + 1;
+        }
+        return value;
+    }
+
+    public static String decode(long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Not an encoded short code: " + value);
+        }
+
+        StringBuilder code = new StringBuilder(MAX_LENGTH);
+        while (value > 0) {
+            long digit = (value - 1) % 62;
+            code.append(BASE62_ALPHABET.charAt((int) digit));
+            value = (value - 1) / 62;
+        }
+        return code.reverse().toString();
+    }
+}
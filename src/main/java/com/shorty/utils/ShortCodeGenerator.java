@@ -11,9 +11,15 @@ public class ShortCodeGenerator {
 
     private static final String BASE62_ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
 
+    public static final int MIN_LENGTH = 3;
+    public static final int MAX_LENGTH = 10;
+
     @Value("${app.shortcode.length:7}")
     private int shortCodeLength;
 
+    // Raised as shorter codes fill up, never lowered while the node runs
+    private volatile int grownLength;
+
     private final SecureRandom secureRandom;
 
     public ShortCodeGenerator() {
@@ -21,11 +27,28 @@ public class ShortCodeGenerator {
     }
 
     public String generate() {
-        return generate(shortCodeLength);
+        return generate(getLength());
+    }
+
+    /**
+     * @return the length of codes returned by {@link #generate()}
+     */
+    public int getLength() {
+        return Math.max(shortCodeLength, grownLength);
+    }
+
+    /**
+     * Makes {@link #generate()} return codes of at least {@code length} characters from now on.
+     */
+    public synchronized void growTo(int length) {
+        if (length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Code length must be between 3 and 10");
+        }
+        grownLength = Math.max(grownLength, length);
     }
 
     public String generate(int length) {
-        if (length < 3 || length > 10) {
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
             throw new IllegalArgumentException("Code length must be between 3 and 10");
         }
 
@@ -44,7 +67,7 @@ public class ShortCodeGenerator {
             return false;
         }
 
-        if (alias.length() < 3 || alias.length() > 10) {
+        if (alias.length() < MIN_LENGTH || alias.length() > MAX_LENGTH) {
             return false;
         }
 
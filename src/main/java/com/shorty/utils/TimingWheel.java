@@ -0,0 +1,186 @@
+package com.shorty.utils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel laid out like the classic Linux kernel timer wheel. Level 0 has one slot per tick and each
+ * level above it has slots {@value #SLOTS} times as wide, so {@value #LEVELS} levels cover 64^6 ticks ahead. Timers
+ * sit in circular doubly linked lists and are indexed by key, so scheduling, rescheduling and cancelling are O(1)
+ * whatever the number of timers. Each tick fires one level-0 slot; whenever the level-0 index wraps, the next slot of
+ * the level above is cascaded down and re-sorted into finer slots. Deadlines beyond the top level wait in its
+ * farthest slot and are re-sorted on every pass until they come into range.
+ *
+ * <p>All methods are synchronized. The wheel is meant to be advanced by one ticking thread while a few others add and
+ * cancel timers.
+ */
+public class TimingWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+    private static final long MAX_DELAY_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final Node<K>[][] wheels;
+    private final Map<K, Node<K>> timers = new HashMap<>();
+
+    // The next tick to fire; every deadline before it has already been returned by advance
+    private long nextTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(Duration tick, long startMillis) {
+        if (tick.toMillis() <= 0) {
+            throw new IllegalArgumentException("Tick must be at least one millisecond: " + tick);
+        }
+        this.tickMillis = tick.toMillis();
+        this.nextTick = startMillis / tickMillis;
+        this.wheels = new Node[LEVELS][SLOTS];
+        for (Node<K>[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = Node.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Schedules {@code key} to be returned by the first {@link #advance} at or after {@code deadlineMillis}, replacing
+     * any timer already scheduled for it. Deadlines in the past fire on the next advance.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        Node<K> node = timers.get(key);
+        if (node == null) {
+            node = new Node<>(key);
+            timers.put(key, node);
+        } else {
+            node.unlink();
+        }
+        node.expires = Math.ceilDiv(deadlineMillis, tickMillis);
+        add(node);
+    }
+
+    /**
+     * @return whether a timer was scheduled for {@code key}
+     */
+    public synchronized boolean cancel(K key) {
+        Node<K> node = timers.remove(key);
+        if (node == null) {
+            return false;
+        }
+        node.unlink();
+        return true;
+    }
+
+    /**
+     * Fires every tick up to and including the one containing {@code nowMillis}.
+     *
+     * @return the keys whose deadline has passed, each removed from the wheel
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+        while (nextTick <= target) {
+            int index = (int) (nextTick & SLOT_MASK);
+            if (index == 0) {
+                cascade();
+            }
+            fire(wheels[0][index], expired);
+            nextTick++;
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int index = (int) ((nextTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Node<K> head = wheels[level][index];
+            Node<K> node = head.next;
+            head.next = head;
+            head.prev = head;
+            while (node != head) {
+                Node<K> next = node.next;
+                add(node);
+                node = next;
+            }
+            if (index != 0) {
+                return;
+            }
+        }
+    }
+
+    private void fire(Node<K> head, List<K> expired) {
+        Node<K> node = head.next;
+        head.next = head;
+        head.prev = head;
+        while (node != head) {
+            Node<K> next = node.next;
+            node.next = null;
+            node.prev = null;
+            timers.remove(node.key);
+            expired.add(node.key);
+            node = next;
+        }
+    }
+
+    private void add(Node<K> node) {
+        long expires = node.expires;
+        long delay = expires - nextTick;
+        Node<K> head;
+        if (delay < 0) {
+            head = wheels[0][(int) (nextTick & SLOT_MASK)];
+        } else {
+            if (delay > MAX_DELAY_TICKS) {
+                expires = nextTick + MAX_DELAY_TICKS;
+                delay = MAX_DELAY_TICKS;
+            }
+            int level = 0;
+            while (delay >= 1L << (SLOT_BITS * (level + 1))) {
+                level++;
+            }
+            head = wheels[level][(int) ((expires >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        }
+        node.linkBefore(head);
+    }
+
+    private static final class Node<K> {
+        private final K key;
+        private long expires;
+        private Node<K> prev;
+        private Node<K> next;
+
+        private Node(K key) {
+            this.key = key;
+        }
+
+        private static <K> Node<K> sentinel() {
+            Node<K> head = new Node<>(null);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        private void linkBefore(Node<K> head) {
+            prev = head.prev;
+            next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        private void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
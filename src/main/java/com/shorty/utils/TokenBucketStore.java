@@ -0,0 +1,140 @@
+package com.shorty.utils;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by caller, kept in a fixed number of independently bounded stripes. Each bucket is a single
+ * {@code AtomicLong} holding the time at which it will be full again (the GCRA form of a token bucket), so refill is
+ * computed lazily on access, consuming is one CAS, and a bucket whose refill time has passed carries no state and can
+ * be dropped at any time. No lock is taken: a stripe is a concurrent map plus a queue of its keys in insertion order,
+ * and a new caller arriving at a full stripe displaces the oldest bucket, passing over a few that are still refilling.
+ */
+public class TokenBucketStore {
+
+    public record Decision(boolean allowed, int limit, int remaining, long resetNanos, long retryAfterNanos) {}
+
+    // Buckets still refilling that a full stripe skips before it evicts one anyway
+    static final int SECOND_CHANCES = 4;
+
+    private final Stripe[] stripes;
+    private final int maxBucketsPerStripe;
+    private final LongSupplier nanoClock;
+
+    public TokenBucketStore(int stripeCount, int maxBuckets, LongSupplier nanoClock) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.maxBucketsPerStripe = Math.max(1, maxBuckets / count);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one token from the bucket for {@code key}, which holds at most {@code capacity} tokens and regains them
+     * all over {@code periodNanos}.
+     */
+    public Decision tryConsume(String key, int capacity, long periodNanos) {
+        long interval = periodNanos / capacity;
+        long burst = interval * capacity;
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucket(key, now);
+
+        while (true) {
+            long fullAt = bucket.get();
+            long newFullAt = Math.max(fullAt, now) + interval;
+            long debt = newFullAt - now;
+            if (debt > burst) {
+                long current = Math.max(fullAt, now) - now;
+                return new Decision(false, capacity, 0, current, debt - burst);
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                return new Decision(true, capacity, (int) ((burst - debt) / interval), debt, 0);
+            }
+        }
+    }
+
+    /**
+     * Drops every bucket that has refilled completely, which is indistinguishable from having no bucket at all.
+     */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            Iterator<String> keys = stripe.order.iterator();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                AtomicLong bucket = stripe.buckets.get(key);
+                if (bucket == null) {
+                    keys.remove();
+                } else if (bucket.get() - now <= 0 && stripe.buckets.remove(key, bucket)) {
+                    keys.remove();
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        Stripe stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        AtomicLong created = new AtomicLong(now);
+        AtomicLong existing = stripe.buckets.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        stripe.order.offer(key);
+        if (stripe.buckets.size() > maxBucketsPerStripe) {
+            evictOldest(stripe, now);
+        }
+        return created;
+    }
+
+    // Forgetting a bucket that is still refilling merely gives that caller a fresh burst, so in the end any bucket goes
+    private static void evictOldest(Stripe stripe, long now) {
+        for (int attempt = 0; attempt <= SECOND_CHANCES; attempt++) {
+            String key = stripe.order.poll();
+            if (key == null) {
+                return;
+            }
+            AtomicLong bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                continue;
+            }
+            if (bucket.get() - now > 0 && attempt < SECOND_CHANCES) {
+                stripe.order.offer(key);
+                continue;
+            }
+            stripe.buckets.remove(key, bucket);
+            return;
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Stripe {
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final Queue<String> order = new ConcurrentLinkedQueue<>();
+    }
+}
@@ -0,0 +1,72 @@
+package com.shorty.utils;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+public final class UrlCanonicalizer {
+
+    private UrlCanonicalizer() {}
+
+    /**
+     * Normalizes the parts of a URL that do not change where it points: scheme and host case, a trailing dot on the
+     * host, default ports and an empty path. Path, query and fragment are kept as sent since servers may treat them
+     * case-sensitively. URLs that do not parse are only trimmed.
+     */
+    public static String canonicalize(String url) {
+        String trimmed = url.strip();
+        try {
+            URI uri = new URI(trimmed);
+            if (uri.getScheme() == null || uri.getRawAuthority() == null || uri.getHost() == null) {
+                return trimmed;
+            }
+
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            String host = uri.getHost().toLowerCase(Locale.ROOT);
+            if (host.endsWith(".")) {
+                host = host.substring(0, host.length() - 1);
+            }
+
+            StringBuilder canonical = new StringBuilder(trimmed.length()).append(scheme).append("://");
+            if (uri.getRawUserInfo() != null) {
+                canonical.append(uri.getRawUserInfo()).append('@');
+            }
+            canonical.append(host);
+            if (uri.getPort() != -1 && uri.getPort() != defaultPort(scheme)) {
+                canonical.append(':').append(uri.getPort());
+            }
+            canonical.append(uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath());
+            if (uri.getRawQuery() != null) {
+                canonical.append('?').append(uri.getRawQuery());
+            }
+            if (uri.getRawFragment() != null) {
+                canonical.append('#').append(uri.getRawFragment());
+            }
+            return canonical.toString();
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+    }
+
+    // The first 64 bits of SHA-256, callers compare canonical URLs on a match to rule out collisions
+    public static long hash(String canonicalUrl) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(canonicalUrl.getBytes(StandardCharsets.UTF_8))).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static int defaultPort(String scheme) {
+        return switch (scheme) {
+            case "http" -> 80;
+            case "https" -> 443;
+            default -> -1;
+        };
+    }
+}
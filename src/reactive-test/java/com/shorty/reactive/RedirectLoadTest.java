@@ -0,0 +1,142 @@
+package com.shorty.reactive;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Drives the same short code against a servlet node and an edge node at fixed concurrency and prints throughput,
+ * latency and the resources each node used, read from its actuator metrics. Both nodes must already be running
+ * against the same database:
+ *
+ * <pre>
+ * mvn -Preactive test -Dtest=RedirectLoadTest -Dloadtest.mvc-url=http://localhost:8080
+ *     -Dloadtest.edge-url=http://localhost:8081 -Dloadtest.short-code=abc123
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "loadtest.mvc-url", matches = ".+")
+class RedirectLoadTest {
+
+    private static final Pattern VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.eE+-]+)");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 500);
+    private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+    private final String shortCode = System.getProperty("loadtest.short-code", "abc123");
+
+    @Test
+    @DisplayName("Servlet and reactive redirect nodes under the same load")
+    void compareRedirectStacks() throws Exception {
+        report("mvc", run(System.getProperty("loadtest.mvc-url")));
+        report("edge", run(System.getProperty("loadtest.edge-url")));
+    }
+
+    private Result run(String baseUrl) throws Exception {
+        URI target = URI.create(baseUrl + "/" + shortCode);
+        AtomicLong requests = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> workers = new ArrayList<>();
+
+        double cpuBefore = metric(baseUrl, "process.cpu.time");
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] samples = new long[1 << 16];
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpRequest request = HttpRequest.newBuilder(target).build();
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        // Keeps the most recent samples once a worker exceeds the buffer
+                        samples[n++ & (samples.length - 1)] = System.nanoTime() - start;
+                    }
+                    requests.addAndGet(n);
+                    return Arrays.copyOf(samples, Math.min(n, samples.length));
+                }));
+            }
+        }
+
+        List<long[]> perWorker = new ArrayList<>();
+        for (Future<long[]> worker : workers) {
+            perWorker.add(worker.get());
+        }
+        long[] sorted = perWorker.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+
+        return new Result(
+                requests.get() / (double) duration.toSeconds(),
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99),
+                errors.get(),
+                metric(baseUrl, "process.cpu.time") - cpuBefore,
+                metric(baseUrl, "jvm.threads.live"),
+                metric(baseUrl, "jvm.memory.used"));
+    }
+
+    private double metric(String baseUrl, String name) {
+        try {
+            String body = client.send(
+                            HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name))
+                                    .build(),
+                            HttpResponse.BodyHandlers.ofString())
+                    .body();
+            Matcher matcher = VALUE.matcher(body);
+            return matcher.find() ? Double.parseDouble(matcher.group(1)) : Double.NaN;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, sorted.length * quantile)] / 1_000_000.0;
+    }
+
+    private static void report(String name, Result result) {
+        System.out.printf(
+                "%-4s %,10.0f req/s  p50 %6.2f ms  p99 %7.2f ms  errors %d  cpu %6.1f s  threads %4.0f  heap %6.0f MiB%n",
+                name,
+                result.throughput(),
+                result.p50Millis(),
+                result.p99Millis(),
+                result.errors(),
+                result.cpuSeconds(),
+                result.liveThreads(),
+                result.memoryUsedBytes() / (1024 * 1024));
+    }
+
+    private record Result(
+            double throughput,
+            double p50Millis,
+            double p99Millis,
+            long errors,
+            double cpuSeconds,
+            double liveThreads,
+            double memoryUsedBytes) {}
+}
@@ -0,0 +1,32 @@
+package com.shorty.reactive;
+
+import com.shorty.services.RedirectRules;
+import com.shorty.services.TombstoneCache;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Entry point for dedicated redirect nodes that serve {@code /{shortCode}} on WebFlux and R2DBC without the servlet
+ * stack or JDBC. The condition keeps the main application from picking these beans up when it scans the
+ * {@code com.shorty} package.
+ */
+@SpringBootApplication(
+        excludeName = {
+            "org.springframework.boot.jdbc.autoconfigure.DataSourceAutoConfiguration",
+            "org.springframework.boot.hibernate.autoconfigure.HibernateJpaAutoConfiguration",
+            "org.springframework.boot.data.jpa.autoconfigure.DataJpaRepositoriesAutoConfiguration"
+        })
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Import({RedirectRules.class, TombstoneCache.class})
+public class EdgeRedirectApplication {
+
+    static void main(String[] args) {
+        new SpringApplicationBuilder(EdgeRedirectApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("edge")
+                .run(args);
+    }
+}
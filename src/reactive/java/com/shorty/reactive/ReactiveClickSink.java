@@ -0,0 +1,77 @@
+package com.shorty.reactive;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Collects clicks with a lock-free merge on the request path and writes the per-code sums on a timer, so a redirect
+ * never waits for its click to be stored.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveClickSink {
+
+    private final ReactiveRedirectRepository repository;
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    private Disposable flusher;
+
+    @Value("${app.edge.click-flush-interval:PT1S}")
+    private Duration flushInterval;
+
+    @Value("${app.edge.click-flush-concurrency:4}")
+    private int flushConcurrency;
+
+    public void record(String shortCode, long increment) {
+        pending.merge(shortCode, increment, Long::sum);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Flux.interval(flushInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> flush())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.dispose();
+        }
+        flush().block(Duration.ofSeconds(5));
+    }
+
+    Mono<Void> flush() {
+        return Flux.fromIterable(pending.keySet())
+                .flatMap(
+                        shortCode -> {
+                            Long increment = pending.remove(shortCode);
+                            if (increment == null) {
+                                return Mono.empty();
+                            }
+                            return repository
+                                    .incrementClickCount(shortCode, increment)
+                                    .onErrorResume(e -> {
+                                        log.warn("Failed to store clicks for {}: {}", shortCode, e.getMessage());
+                                        pending.merge(shortCode, increment, Long::sum);
+                                        return Mono.empty();
+                                    });
+                        },
+                        flushConcurrency)
+                .then();
+    }
+}
@@ -0,0 +1,65 @@
+package com.shorty.reactive;
+
+import com.shorty.caches.RedirectTarget;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import io.r2dbc.spi.Readable;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@code UrlMappingRepository#findByShortCode} and {@code incrementClickCount}, reading
+ * only the columns a redirect needs.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRedirectRepository {
+
+    // Rows stored against the host dictionary keep only the suffix in original_url
+    private static final String FIND_BY_SHORT_CODE = """
+            SELECT COALESCE(h.prefix, '') || m.original_url AS original_url,
+                   m.expires_at, m.redirect_policy, m.tracking_policy, m.sample_rate, m.click_count
+            FROM url_mappings m
+            LEFT JOIN url_hosts h ON h.id = m.host_id
+            WHERE m.short_code = :shortCode
+            """;
+
+    private static final String INCREMENT_CLICK_COUNT =
+            "UPDATE url_mappings SET click_count = click_count + :increment WHERE short_code = :shortCode";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<RedirectTarget> findByShortCode(String shortCode) {
+        return databaseClient
+                .sql(FIND_BY_SHORT_CODE)
+                .bind("shortCode", shortCode)
+                .map(ReactiveRedirectRepository::toRedirectTarget)
+                .one();
+    }
+
+    public Mono<Long> incrementClickCount(String shortCode, long increment) {
+        return databaseClient
+                .sql(INCREMENT_CLICK_COUNT)
+                .bind("shortCode", shortCode)
+                .bind("increment", increment)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static RedirectTarget toRedirectTarget(Readable row) {
+        String redirectPolicy = row.get("redirect_policy", String.class);
+        String trackingPolicy = row.get("tracking_policy", String.class);
+        return new RedirectTarget(
+                row.get("original_url", String.class),
+                row.get("expires_at", Instant.class),
+                redirectPolicy != null ? RedirectPolicy.valueOf(redirectPolicy) : RedirectPolicy.NO_STORE,
+                trackingPolicy != null ? TrackingPolicy.valueOf(trackingPolicy) : TrackingPolicy.EXACT,
+                row.get("sample_rate", Integer.class),
+                row.get("click_count", Long.class));
+    }
+}
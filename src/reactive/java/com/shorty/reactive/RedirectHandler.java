@@ -0,0 +1,74 @@
+package com.shorty.reactive;
+
+import com.shorty.caches.RedirectTarget;
+import com.shorty.dtos.responses.RedirectResponse;
+import com.shorty.services.RedirectResult;
+import com.shorty.services.RedirectRules;
+import com.shorty.services.TombstoneCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@code RedirectController}: it resolves to the same {@link RedirectResult}, answers
+ * recently expired codes from {@link TombstoneCache} and writes the shared precomputed miss bodies, so a 404 or 410
+ * from an edge node is identical to one from a servlet node.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class RedirectHandler {
+
+    private final ReactiveRedirectRepository repository;
+    private final ReactiveClickSink clickSink;
+    private final RedirectRules redirectRules;
+    private final TombstoneCache tombstones;
+
+    public Mono<ServerResponse> redirect(ServerRequest request) {
+        String shortCode = request.pathVariable("shortCode");
+
+        RedirectResult.Expired tombstone = tombstones.get(shortCode);
+        if (tombstone != null) {
+            return respond(tombstone);
+        }
+
+        return repository
+                .findByShortCode(shortCode)
+                .map(target -> resolve(shortCode, target))
+                .defaultIfEmpty(RedirectResult.NOT_FOUND)
+                .flatMap(this::respond);
+    }
+
+    private RedirectResult resolve(String shortCode, RedirectTarget target) {
+        if (target.isExpired()) {
+            return tombstones.remember(shortCode, target.expiresAt());
+        }
+
+        long increment = redirectRules.clickIncrement(target);
+        if (increment > 0) {
+            clickSink.record(shortCode, increment);
+        }
+        return new RedirectResult.Found(redirectRules.toResponse(target, increment));
+    }
+
+    private Mono<ServerResponse> respond(RedirectResult result) {
+        if (result instanceof RedirectResult.Found found) {
+            RedirectResponse redirectData = found.response();
+            return ServerResponse.status(redirectRules.redirectStatus(redirectData.redirectPolicy()))
+                    .header(HttpHeaders.LOCATION, redirectData.originalUrl())
+                    .header(HttpHeaders.CACHE_CONTROL, redirectRules.cacheControl(redirectData))
+                    .build();
+        }
+
+        byte[] body = redirectRules.missBody(result);
+        return ServerResponse.status(redirectRules.missStatus(result))
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .contentLength(body.length)
+                .bodyValue(body);
+    }
+}
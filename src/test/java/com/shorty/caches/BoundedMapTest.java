@@ -0,0 +1,109 @@
+package com.shorty.caches;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BoundedMapTest {
+
+    @Test
+    @DisplayName("Should displace the oldest entry when an insert takes the map over its size")
+    void shouldDisplaceOldestEntry() {
+        // Given
+        BoundedMap<String, Integer> map = new BoundedMap<>(3);
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+
+        // When
+        map.put("d", 4);
+
+        // Then
+        assertEquals(3, map.size());
+        assertNull(map.get("a"));
+        assertEquals(4, map.get("d"));
+    }
+
+    @Test
+    @DisplayName("Should pass over pinned entries and run over its size rather than drop them")
+    void shouldKeepPinnedEntries() {
+        // Given
+        Set<Integer> running = new HashSet<>(Set.of(1, 2, 3));
+        BoundedMap<String, Integer> map = new BoundedMap<>(2, running::contains);
+        map.put("a", 1);
+        map.put("b", 2);
+
+        // When
+        map.put("c", 3);
+
+        // Then
+        assertEquals(3, map.size());
+
+        // When
+        running.remove(1);
+        map.put("d", 4);
+
+        // Then
+        assertEquals(2, map.size());
+        assertNull(map.get("a"));
+        assertEquals(2, map.get("b"));
+        assertEquals(3, map.get("c"));
+    }
+
+    @Test
+    @DisplayName("Should not let a key that was removed or replaced displace the live entries")
+    void shouldSkipStaleQueueEntries() {
+        // Given
+        BoundedMap<String, Integer> map = new BoundedMap<>(2);
+        map.put("a", 1);
+        map.remove("a");
+        map.put("a", 2);
+        map.put("b", 3);
+
+        // When
+        map.put("c", 4);
+
+        // Then
+        assertEquals(2, map.size());
+        assertNull(map.get("a"));
+        assertEquals(3, map.get("b"));
+        assertEquals(4, map.get("c"));
+    }
+
+    @Test
+    @DisplayName("Should keep its size bounded while the same keys are replaced over and over")
+    void shouldStayBoundedUnderReplacement() {
+        // Given
+        BoundedMap<String, Integer> map = new BoundedMap<>(10);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            map.put("key-" + (i % 20), i);
+        }
+
+        // Then
+        assertEquals(10, map.size());
+        assertEquals(9_999, map.get("key-19"));
+    }
+
+    @Test
+    @DisplayName("Should merge into the current value and remove it when the remapping returns null")
+    void shouldMergeAndRemove() {
+        // Given
+        BoundedMap<String, Integer> map = new BoundedMap<>(10);
+
+        // When
+        Integer first = map.merge("a", 1, Integer::sum);
+        Integer second = map.merge("a", 2, Integer::sum);
+        Integer removed = map.computeIfPresent("a", (_, _) -> null);
+
+        // Then
+        assertEquals(1, first);
+        assertEquals(3, second);
+        assertNull(removed);
+        assertEquals(0, map.size());
+    }
+}
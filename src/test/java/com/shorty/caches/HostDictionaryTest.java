@@ -0,0 +1,41 @@
+package com.shorty.caches;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class HostDictionaryTest {
+
+    @Test
+    @DisplayName("Should split after the scheme and authority")
+    void shouldSplitAfterSchemeAndAuthority() {
+        assertEquals(19, HostDictionary.prefixLength("https://example.com/path"));
+        assertEquals(23, HostDictionary.prefixLength("http://example.com:8080?q=1"));
+        assertEquals(19, HostDictionary.prefixLength("https://example.com"));
+    }
+
+    @Test
+    @DisplayName("Should not split URLs without a host prefix")
+    void shouldNotSplitUrlsWithoutHostPrefix() {
+        assertEquals(-1, HostDictionary.prefixLength("example.com/path"));
+        assertEquals(-1, HostDictionary.prefixLength("https:///path"));
+        assertEquals(-1, HostDictionary.prefixLength("https://" + "a".repeat(HostDictionary.MAX_PREFIX_LENGTH)));
+    }
+
+    @Test
+    @DisplayName("Should look up registered prefixes in both directions")
+    void shouldLookUpRegisteredPrefixes() {
+        // Given
+        HostDictionary dictionary = new HostDictionary();
+
+        // When
+        dictionary.register(7, "https://example.com");
+
+        // Then
+        assertEquals("https://example.com", dictionary.prefix(7));
+        assertEquals(7, dictionary.idOf("https://example.com"));
+        assertEquals(HostDictionary.NONE, dictionary.idOf("https://example.org"));
+        assertNull(dictionary.prefix(8));
+    }
+}
@@ -0,0 +1,160 @@
+package com.shorty.caches;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class ReplicaStoreTest {
+
+    private ReplicaStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ReplicaStore(4);
+    }
+
+    private RedirectTarget target(String originalUrl, Instant expiresAt) {
+        return new RedirectTarget(
+                originalUrl, expiresAt, RedirectPolicy.SHARED_CACHE, TrackingPolicy.SAMPLED, 50, 12L);
+    }
+
+    @Nested
+    @DisplayName("Put and Find Tests")
+    class PutAndFindTests {
+
+        @Test
+        @DisplayName("Should return stored target with all fields")
+        void shouldReturnStoredTarget() {
+            // Given
+            Instant expiresAt = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+            RedirectTarget target = target("https://example.com", expiresAt);
+
+            // When
+            store.put("abc123", target);
+
+            // Then
+            assertEquals(Optional.of(target), store.find("abc123"));
+            assertEquals(1, store.size());
+        }
+
+        @Test
+        @DisplayName("Should return empty for unknown or invalid codes")
+        void shouldReturnEmptyForUnknownCodes() {
+            // Given
+            store.put("abc123", target("https://example.com", null));
+
+            // When/Then
+            assertTrue(store.find("abc124").isEmpty());
+            assertTrue(store.find("not-a-code").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should grow beyond the expected size")
+        void shouldGrowBeyondExpectedSize() {
+            // When
+            for (int i = 0; i < 10_000; i++) {
+                store.put("c" + i, target("https://example.com/" + i, null));
+            }
+
+            // Then
+            assertEquals(10_000, store.size());
+            for (int i = 0; i < 10_000; i++) {
+                assertEquals(
+                        "https://example.com/" + i,
+                        store.find("c" + i).orElseThrow().originalUrl());
+            }
+        }
+
+        @Test
+        @DisplayName("Should overwrite existing code without growing")
+        void shouldOverwriteExistingCode() {
+            // When
+            store.put("abc123", target("https://old.example.com", null));
+            store.put("abc123", target("https://new.example.com", null));
+
+            // Then
+            assertEquals(1, store.size());
+            assertEquals("https://new.example.com", store.find("abc123").orElseThrow().originalUrl());
+        }
+    }
+
+    @Nested
+    @DisplayName("Removal Tests")
+    class RemovalTests {
+
+        @Test
+        @DisplayName("Should keep probing past removed entries")
+        void shouldKeepProbingPastRemovedEntries() {
+            // Given
+            for (int i = 0; i < 100; i++) {
+                store.put("c" + i, target("https://example.com/" + i, null));
+            }
+
+            // When
+            for (int i = 0; i < 100; i += 2) {
+                store.remove("c" + i);
+            }
+
+            // Then
+            assertEquals(50, store.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i % 2 == 1, store.find("c" + i).isPresent());
+            }
+        }
+
+        @Test
+        @DisplayName("Should purge only expired entries")
+        void shouldPurgeOnlyExpiredEntries() {
+            // Given
+            Instant now = Instant.now();
+            store.put("expired", target("https://example.com/old", now.minusSeconds(60)));
+            store.put("active", target("https://example.com/new", now.plusSeconds(60)));
+            store.put("forever", target("https://example.com/always", null));
+
+            // When
+            int purged = store.purgeExpired(now);
+
+            // Then
+            assertEquals(1, purged);
+            assertTrue(store.find("expired").isEmpty());
+            assertTrue(store.find("active").isPresent());
+            assertTrue(store.find("forever").isPresent());
+        }
+    }
+
+    @Nested
+    @DisplayName("Host Dictionary Tests")
+    class HostDictionaryTests {
+
+        @Test
+        @DisplayName("Should reassemble URLs stored against a known host")
+        void shouldReassembleUrlsStoredAgainstKnownHost() {
+            // Given
+            HostDictionary hosts = new HostDictionary();
+            hosts.register(1, "https://shop.example.com");
+            ReplicaStore compressed = new ReplicaStore(4, hosts);
+            RedirectTarget known = target("https://shop.example.com/items/42?ref=mail", null);
+            RedirectTarget unknown = target("https://other.example.org/", null);
+
+            // When
+            compressed.put("known", known);
+            compressed.put("unknown", unknown);
+            for (int i = 0; i < 20; i++) {
+                compressed.put("grow" + i, target("https://shop.example.com/" + i, null));
+            }
+
+            // Then
+            assertEquals(Optional.of(known), compressed.find("known"));
+            assertEquals(Optional.of(unknown), compressed.find("unknown"));
+            assertEquals("https://shop.example.com/7", compressed.find("grow7").orElseThrow().originalUrl());
+        }
+    }
+}
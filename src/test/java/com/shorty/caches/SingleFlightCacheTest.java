@@ -0,0 +1,215 @@
+package com.shorty.caches;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightCacheTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SingleFlightCache<String, String> cache(Function<String, String> loader) {
+        return new SingleFlightCache<>(
+                key -> {
+                    loads.incrementAndGet();
+                    return loader.apply(key);
+                },
+                Runnable::run,
+                clock,
+                Duration.ofSeconds(10),
+                0.2,
+                Duration.ofMillis(200),
+                100);
+    }
+
+    @Test
+    @DisplayName("Should share a single load between concurrent misses")
+    void shouldShareSingleLoadBetweenConcurrentMisses() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(
+                key -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "https://example.com";
+                },
+                Runnable::run,
+                clock,
+                Duration.ofSeconds(10),
+                0.2,
+                Duration.ofSeconds(5),
+                100);
+
+        // When
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 50; i++) {
+                results.add(executor.submit(() -> cache.get("abc123")));
+            }
+            while (cache.inFlight() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertEquals("https://example.com", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, cache.inFlight());
+    }
+
+    @Test
+    @DisplayName("Should stop waiting for another caller's load after the bounded wait")
+    void shouldTimeOutWaitingForSlowLoad() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlightCache<String, String> cache = cache(key -> {
+            await(release);
+            return "https://example.com";
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> cache.get("abc123"));
+            while (cache.inFlight() == 0) {
+                Thread.onSpinWait();
+            }
+
+            // When / Then
+            assertThrows(TimeoutException.class, () -> cache.get("abc123"));
+
+            release.countDown();
+            assertEquals("https://example.com", leader.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve cached value and reload it once past the refresh-ahead point")
+    void shouldRefreshAheadOfExpiry() throws Exception {
+        // Given
+        AtomicInteger version = new AtomicInteger();
+        SingleFlightCache<String, String> cache = cache(key -> "v" + version.incrementAndGet());
+        assertEquals("v1", cache.get("abc123"));
+
+        // When
+        clock.advance(Duration.ofSeconds(9));
+        String served = cache.get("abc123");
+
+        // Then
+        assertEquals("v1", served);
+        assertEquals("v2", cache.get("abc123"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should reload after expiry and after invalidation")
+    void shouldReloadAfterExpiryAndInvalidation() throws Exception {
+        // Given
+        SingleFlightCache<String, String> cache = cache(key -> "https://example.com");
+        cache.get("abc123");
+        cache.get("abc123");
+        assertEquals(1, loads.get());
+
+        // When
+        clock.advance(Duration.ofSeconds(11));
+        cache.get("abc123");
+        cache.invalidate("abc123");
+        cache.get("abc123");
+
+        // Then
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should keep expired values for peek while loads keep failing")
+    void shouldKeepExpiredValuesWhileLoadsFail() throws Exception {
+        // Given
+        AtomicInteger failing = new AtomicInteger();
+        SingleFlightCache<String, String> cache = cache(key -> {
+            if (failing.get() > 0) {
+                throw new IllegalStateException("Database is unavailable");
+            }
+            return "https://example.com/" + key;
+        });
+        for (int i = 0; i < 100; i++) {
+            cache.get("code" + i);
+        }
+
+        // When
+        failing.set(1);
+        clock.advance(Duration.ofSeconds(11));
+        for (int i = 100; i < 200; i++) {
+            String key = "code" + i;
+            assertThrows(IllegalStateException.class, () -> cache.get(key));
+        }
+
+        // Then
+        assertEquals(100, cache.size());
+        assertEquals("https://example.com/code0", cache.peek("code0"));
+    }
+
+    @Test
+    @DisplayName("Should not cache missing values")
+    void shouldNotCacheMissingValues() throws Exception {
+        // Given
+        SingleFlightCache<String, String> cache = cache(key -> null);
+
+        // When
+        assertNull(cache.get("missing"));
+        assertNull(cache.get("missing"));
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.shorty.caches;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Nested
+    @DisplayName("Write and Read Tests")
+    class WriteAndReadTests {
+
+        @Test
+        @DisplayName("Should read back every written mapping")
+        void shouldReadBackEveryWrittenMapping() throws Exception {
+            // Given
+            Path file = directory.resolve("snapshot.idx");
+            Instant expiresAt = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MILLIS);
+            RedirectTarget special = new RedirectTarget(
+                    "https://example.com/ünïcödé?q=1",
+                    expiresAt,
+                    RedirectPolicy.PERMANENT_REDIRECT,
+                    TrackingPolicy.SAMPLED,
+                    100,
+                    4200L);
+
+            try (SnapshotWriter writer = new SnapshotWriter(file, 1_000, 42L)) {
+                for (int i = 0; i < 1_000; i++) {
+                    writer.add(
+                            "c" + i,
+                            new RedirectTarget(
+                                    "https://example.com/" + i,
+                                    null,
+                                    RedirectPolicy.NO_STORE,
+                                    TrackingPolicy.EXACT,
+                                    null,
+                                    (long) i));
+                }
+                writer.add("special", special);
+                writer.finish();
+            }
+
+            // When
+            SnapshotIndex index = SnapshotIndex.open(file);
+
+            // Then
+            assertEquals(1_001, index.getEntryCount());
+            assertEquals(42L, index.getChangeLogPosition());
+            assertEquals(Optional.of(special), index.find("special"));
+            for (int i = 0; i < 1_000; i++) {
+                RedirectTarget target = index.find("c" + i).orElseThrow();
+                assertEquals("https://example.com/" + i, target.originalUrl());
+                assertEquals(i, target.clickCount());
+            }
+        }
+
+        @Test
+        @DisplayName("Should return empty for codes missing from the snapshot")
+        void shouldReturnEmptyForMissingCodes() throws Exception {
+            // Given
+            Path file = directory.resolve("snapshot.idx");
+            try (SnapshotWriter writer = new SnapshotWriter(file, 10, 0L)) {
+                writer.add(
+                        "abc123",
+                        new RedirectTarget(
+                                "https://example.com", null, RedirectPolicy.NO_STORE, TrackingPolicy.EXACT, null, 0L));
+                writer.finish();
+            }
+
+            // When
+            SnapshotIndex index = SnapshotIndex.open(file);
+
+            // Then
+            assertTrue(index.find("abc124").isEmpty());
+            assertTrue(index.find("not-a-code").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should reject files that are not snapshots")
+        void shouldRejectFilesThatAreNotSnapshots() throws Exception {
+            // Given
+            Path file = directory.resolve("garbage.idx");
+            Files.write(file, new byte[128]);
+
+            // When/Then
+            assertThrows(IllegalStateException.class, () -> SnapshotIndex.open(file));
+        }
+    }
+}
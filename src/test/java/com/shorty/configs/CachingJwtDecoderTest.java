@@ -0,0 +1,127 @@
+package com.shorty.configs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Mock
+    private JwtDecoder delegate;
+
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new CachingJwtDecoder(delegate, Clock.fixed(NOW, ZoneOffset.UTC), 100, new SimpleMeterRegistry());
+    }
+
+    private Jwt jwt(String token, String subject, Instant issuedAt, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject(subject)
+                .issuedAt(issuedAt)
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should verify a token once and serve repeats from the cache")
+    void shouldServeRepeatsFromCache() {
+        // Given
+        Jwt jwt = jwt("token-1", "user-1", NOW.minusSeconds(60), NOW.plusSeconds(300));
+        when(delegate.decode("token-1")).thenReturn(jwt);
+
+        // When
+        Jwt first = decoder.decode("token-1");
+        Jwt second = decoder.decode("token-1");
+
+        // Then
+        assertSame(jwt, first);
+        assertSame(jwt, second);
+        verify(delegate, times(1)).decode("token-1");
+    }
+
+    @Test
+    @DisplayName("Should not serve cached tokens past their expiry")
+    void shouldNotServeExpiredTokensFromCache() {
+        // Given
+        CachingJwtDecoder later = new CachingJwtDecoder(
+                delegate, Clock.fixed(NOW.plusSeconds(600), ZoneOffset.UTC), 100, new SimpleMeterRegistry());
+        Jwt jwt = jwt("token-1", "user-1", NOW.minusSeconds(60), NOW.plusSeconds(300));
+        when(delegate.decode("token-1")).thenReturn(jwt);
+
+        // When
+        later.decode("token-1");
+        later.decode("token-1");
+
+        // Then
+        verify(delegate, times(2)).decode("token-1");
+    }
+
+    @Test
+    @DisplayName("Should purge tokens that have expired")
+    void shouldPurgeExpiredTokens() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MutableClock clock = new MutableClock(NOW);
+        CachingJwtDecoder purging = new CachingJwtDecoder(delegate, clock, 100, meterRegistry);
+        when(delegate.decode("token-1")).thenReturn(jwt("token-1", "user-1", NOW, NOW.plusSeconds(60)));
+        when(delegate.decode("token-2")).thenReturn(jwt("token-2", "user-2", NOW, NOW.plusSeconds(300)));
+        purging.decode("token-1");
+        purging.decode("token-2");
+
+        // When
+        clock.advance(Duration.ofSeconds(120));
+        purging.purgeExpired();
+
+        // Then
+        assertEquals(1, meterRegistry.get("shorty.jwt.cache.size").gauge().value());
+        purging.decode("token-2");
+        verify(delegate, times(1)).decode("token-2");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.shorty.configs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    private ConcurrencyLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ConcurrencyLimitingDataSource(target, 2, 50);
+    }
+
+    @Test
+    @DisplayName("Should hold a permit while a connection is open and return it on close")
+    void shouldReleasePermitOnClose() throws Exception {
+        // Given
+        when(target.getConnection()).thenReturn(connection);
+
+        // When
+        Connection leased = dataSource.getConnection();
+
+        // Then
+        assertEquals(1, dataSource.getAvailablePermits());
+        leased.close();
+        assertEquals(2, dataSource.getAvailablePermits());
+        verify(connection).close();
+    }
+
+    @Test
+    @DisplayName("Should return the permit only once when a connection is closed twice")
+    void shouldReleasePermitOnceOnDoubleClose() throws Exception {
+        // Given
+        when(target.getConnection()).thenReturn(connection);
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+
+        // When
+        first.close();
+        first.close();
+
+        // Then
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    @DisplayName("Should return the permit when close fails")
+    void shouldReleasePermitWhenCloseFails() throws Exception {
+        // Given
+        when(target.getConnection()).thenReturn(connection);
+        doThrow(new SQLException("Connection reset")).when(connection).close();
+        Connection leased = dataSource.getConnection();
+
+        // When / Then
+        assertThrows(SQLException.class, leased::close);
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    @DisplayName("Should return the permit when the pool fails to hand out a connection")
+    void shouldReleasePermitWhenGetConnectionFails() throws Exception {
+        // Given
+        when(target.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // When / Then
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    @DisplayName("Should fail with a transient error when no permit frees up within the acquire timeout")
+    void shouldTimeOutWaitingForPermit() throws Exception {
+        // Given
+        when(target.getConnection()).thenReturn(connection);
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // When
+        SQLTransientConnectionException exception =
+                assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        // Then
+        assertTrue(exception.getMessage().contains("50 ms"));
+        assertEquals(0, dataSource.getAvailablePermits());
+        verify(target, times(2)).getConnection();
+    }
+}
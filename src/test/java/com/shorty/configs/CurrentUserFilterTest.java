@@ -0,0 +1,77 @@
+package com.shorty.configs;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.shorty.utils.SecurityUtils;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+class CurrentUserFilterTest {
+
+    private final CurrentUserFilter filter = new CurrentUserFilter();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private AtomicReference<UUID> runFilter() throws Exception {
+        AtomicReference<UUID> seen = new AtomicReference<>();
+        filter.doFilter(
+                new MockHttpServletRequest(),
+                new MockHttpServletResponse(),
+                (_, _) -> seen.set(SecurityUtils.CURRENT_USER.orElse(null)));
+        return seen;
+    }
+
+    @Test
+    @DisplayName("Should bind the JWT subject as the current user for the rest of the request only")
+    void shouldBindCurrentUserDuringRequest() throws Exception {
+        // Given
+        UUID userId = UUID.randomUUID();
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject(userId.toString())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+
+        // When
+        AtomicReference<UUID> seen = runFilter();
+
+        // Then
+        assertEquals(userId, seen.get());
+        assertFalse(SecurityUtils.CURRENT_USER.isBound());
+    }
+
+    @Test
+    @DisplayName("Should leave the current user unbound for anonymous requests")
+    void shouldNotBindWithoutAuthentication() throws Exception {
+        // When
+        AtomicReference<UUID> seen = runFilter();
+
+        // Then
+        assertNull(seen.get());
+    }
+
+    @Test
+    @DisplayName("Should leave the current user unbound for a principal that is not a JWT")
+    void shouldNotBindForOtherPrincipals() throws Exception {
+        // Given
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", "password"));
+
+        // When
+        AtomicReference<UUID> seen = runFilter();
+
+        // Then
+        assertNull(seen.get());
+    }
+}
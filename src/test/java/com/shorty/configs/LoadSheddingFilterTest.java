@@ -0,0 +1,25 @@
+package com.shorty.configs;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class LoadSheddingFilterTest {
+
+    @Test
+    @DisplayName("Should count server errors but not 503s that only turned the request away")
+    void shouldNotCountRejectionsAsFailures() {
+        // Given
+        MockHttpServletRequest rejected = new MockHttpServletRequest();
+        MockHttpServletRequest timedOut = new MockHttpServletRequest();
+        timedOut.setAttribute(LoadSheddingFilter.FAILED_ATTRIBUTE, Boolean.TRUE);
+
+        // When / Then
+        assertFalse(LoadSheddingFilter.isFailure(rejected, 503));
+        assertTrue(LoadSheddingFilter.isFailure(timedOut, 503));
+        assertTrue(LoadSheddingFilter.isFailure(rejected, 500));
+        assertFalse(LoadSheddingFilter.isFailure(rejected, 404));
+    }
+}
@@ -0,0 +1,137 @@
+package com.shorty.configs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+class RefreshingJwkSourceTest {
+
+    private static final String JWK_SET_URI = "http://issuer.test/certs";
+
+    private final MutableClock clock = new MutableClock();
+
+    private MockRestServiceServer issuer;
+    private RefreshingJwkSource jwkSource;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder();
+        issuer = MockRestServiceServer.bindTo(builder).build();
+        jwkSource = new RefreshingJwkSource(builder.build(), JWK_SET_URI, clock, Duration.ofSeconds(30));
+    }
+
+    private static RSAKey key(String keyId) throws Exception {
+        return new RSAKeyGenerator(2048).keyID(keyId).generate().toPublicJWK();
+    }
+
+    private static JWKSelector keyId(String keyId) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(keyId).build());
+    }
+
+    private void serve(ExpectedCount count, RSAKey... keys) {
+        issuer.expect(count, requestTo(JWK_SET_URI))
+                .andRespond(withSuccess(new JWKSet(List.of(keys)).toString(), MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("Should fetch the key set on the request thread for an unknown key id")
+    void shouldFetchSynchronouslyForUnknownKeyId() throws Exception {
+        // Given
+        serve(ExpectedCount.once(), key("k1"));
+
+        // When
+        int selected = jwkSource.get(keyId("k1"), null).size();
+
+        // Then
+        assertEquals(1, selected);
+        issuer.verify();
+    }
+
+    @Test
+    @DisplayName("Should fetch for unknown key ids at most once per minimum refresh interval")
+    void shouldRateLimitUnknownKeyIdFetches() throws Exception {
+        // Given
+        RSAKey first = key("k1");
+        RSAKey rotated = key("k2");
+        serve(ExpectedCount.once(), first);
+        jwkSource.refresh();
+
+        // When
+        int beforeRotation = jwkSource.get(keyId("k2"), null).size()
+                + jwkSource.get(keyId("unknown"), null).size();
+
+        // Then
+        assertEquals(0, beforeRotation);
+        issuer.verify();
+
+        // When
+        issuer.reset();
+        serve(ExpectedCount.once(), first, rotated);
+        clock.advance(Duration.ofSeconds(31));
+        int afterInterval = jwkSource.get(keyId("k2"), null).size();
+
+        // Then
+        assertEquals(1, afterInterval);
+        assertEquals(2, jwkSource.size());
+        issuer.verify();
+    }
+
+    @Test
+    @DisplayName("Should keep the known keys when a refresh fails")
+    void shouldKeepKeysWhenRefreshFails() throws Exception {
+        // Given
+        serve(ExpectedCount.once(), key("k1"));
+        jwkSource.refresh();
+        issuer.reset();
+        issuer.expect(requestTo(JWK_SET_URI)).andRespond(withSuccess("not a key set", MediaType.APPLICATION_JSON));
+
+        // When
+        jwkSource.refresh();
+
+        // Then
+        assertEquals(1, jwkSource.size());
+        assertEquals(1, jwkSource.get(keyId("k1"), null).size());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.shorty.configs;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Method;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.type.filter.RegexPatternTypeFilter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+
+class SchedulingConfigTest {
+
+    @Test
+    @DisplayName("Should give every scheduled job its own scheduler thread")
+    void shouldSizeSchedulerPoolForAllJobs() throws Exception {
+        // Given
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yaml"));
+        Properties properties = yaml.getObject();
+
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new RegexPatternTypeFilter(Pattern.compile(".*")));
+
+        // When
+        int scheduledMethods = 0;
+        for (BeanDefinition candidate : scanner.findCandidateComponents("com.shorty")) {
+            Class<?> type = ClassUtils.forName(candidate.getBeanClassName(), getClass().getClassLoader());
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Scheduled.class)) {
+                    scheduledMethods++;
+                }
+            }
+        }
+
+        // Then
+        int poolSize = Integer.parseInt(properties.getProperty("spring.task.scheduling.pool.size"));
+        assertTrue(scheduledMethods > 0);
+        assertTrue(
+                poolSize >= scheduledMethods,
+                "spring.task.scheduling.pool.size is " + poolSize + " for " + scheduledMethods + " @Scheduled methods");
+    }
+}
@@ -1,24 +1,30 @@
 package com.shorty.controllers;
 
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.shorty.dtos.responses.RedirectResponse;
-import com.shorty.exceptions.UrlExpiredException;
-import com.shorty.exceptions.UrlNotFoundException;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.services.RedirectResult;
+import com.shorty.services.RedirectRules;
 import com.shorty.services.UrlService;
+import java.time.Instant;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 @AutoConfigureMockMvc(addFilters = false)
 @WebMvcTest(controllers = RedirectController.class)
+@Import(RedirectRules.class)
 class RedirectControllerTest {
 
     @Autowired
@@ -37,9 +43,9 @@ class RedirectControllerTest {
             // Given
             String shortCode = "abc123";
             String originalUrl = "https://example.com";
-            RedirectResponse redirectResponse = new RedirectResponse(originalUrl, 1L);
+            RedirectResponse redirectResponse = new RedirectResponse(originalUrl, 1L, RedirectPolicy.NO_STORE, null);
 
-            when(urlService.resolveAndTrack(shortCode)).thenReturn(redirectResponse);
+            when(urlService.resolve(shortCode)).thenReturn(new RedirectResult.Found(redirectResponse));
 
             // When/Then
             mockMvc.perform(get("/{shortCode}", shortCode))
@@ -47,7 +53,58 @@ class RedirectControllerTest {
                     .andExpect(header().string("Location", originalUrl))
                     .andExpect(header().string("Cache-Control", "no-cache, no-store, must-revalidate"));
 
-            verify(urlService, times(1)).resolveAndTrack(shortCode);
+            verify(urlService, times(1)).resolve(shortCode);
+        }
+
+        @Test
+        @DisplayName("Should send cacheable permanent redirect bounded by expiration")
+        void shouldSendCacheablePermanentRedirectBoundedByExpiration() throws Exception {
+            // Given
+            String shortCode = "perm123";
+            String originalUrl = "https://example.com";
+            RedirectResponse redirectResponse = new RedirectResponse(
+                    originalUrl, 1L, RedirectPolicy.MOVED_PERMANENTLY, Instant.now().plusSeconds(600));
+
+            when(urlService.resolve(shortCode)).thenReturn(new RedirectResult.Found(redirectResponse));
+
+            // When/Then
+            mockMvc.perform(get("/{shortCode}", shortCode))
+                    .andExpect(status().isMovedPermanently())
+                    .andExpect(header().string("Location", originalUrl))
+                    .andExpect(header().string("Cache-Control", matchesPattern("public, max-age=(59\\d|600)")));
+        }
+
+        @Test
+        @DisplayName("Should send shared cache redirect with s-maxage")
+        void shouldSendSharedCacheRedirectWithSharedMaxAge() throws Exception {
+            // Given
+            String shortCode = "shared1";
+            String originalUrl = "https://example.com";
+            RedirectResponse redirectResponse =
+                    new RedirectResponse(originalUrl, 1L, RedirectPolicy.SHARED_CACHE, null);
+
+            when(urlService.resolve(shortCode)).thenReturn(new RedirectResult.Found(redirectResponse));
+
+            // When/Then
+            mockMvc.perform(get("/{shortCode}", shortCode))
+                    .andExpect(status().isFound())
+                    .andExpect(header().string("Cache-Control", "public, max-age=0, s-maxage=60"));
+        }
+
+        @Test
+        @DisplayName("Should not cache permanent redirect that has already expired")
+        void shouldNotCachePermanentRedirectThatHasExpired() throws Exception {
+            // Given
+            String shortCode = "perm456";
+            RedirectResponse redirectResponse = new RedirectResponse(
+                    "https://example.com", 1L, RedirectPolicy.PERMANENT_REDIRECT, Instant.now().minusSeconds(1));
+
+            when(urlService.resolve(shortCode)).thenReturn(new RedirectResult.Found(redirectResponse));
+
+            // When/Then
+            mockMvc.perform(get("/{shortCode}", shortCode))
+                    .andExpect(status().isPermanentRedirect())
+                    .andExpect(header().string("Cache-Control", "no-cache, no-store, must-revalidate"));
         }
 
         @Test
@@ -56,12 +113,16 @@ class RedirectControllerTest {
             // Given
             String nonExistentCode = "nonexist";
 
-            when(urlService.resolveAndTrack(nonExistentCode)).thenThrow(new UrlNotFoundException("URL not found"));
+            when(urlService.resolve(nonExistentCode)).thenReturn(RedirectResult.NOT_FOUND);
 
             // When/Then
-            mockMvc.perform(get("/{shortCode}", nonExistentCode)).andExpect(status().isNotFound());
+            mockMvc.perform(get("/{shortCode}", nonExistentCode))
+                    .andExpect(status().isNotFound())
+                    .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                    .andExpect(jsonPath("$.title").value("URL Not Found"))
+                    .andExpect(jsonPath("$.status").value(404));
 
-            verify(urlService, times(1)).resolveAndTrack(nonExistentCode);
+            verify(urlService, times(1)).resolve(nonExistentCode);
         }
 
         @Test
@@ -70,12 +131,16 @@ class RedirectControllerTest {
             // Given
             String expiredCode = "expired";
 
-            when(urlService.resolveAndTrack(expiredCode)).thenThrow(new UrlExpiredException("URL expired"));
+            when(urlService.resolve(expiredCode)).thenReturn(new RedirectResult.Expired(Instant.now()));
 
             // When/Then
-            mockMvc.perform(get("/{shortCode}", expiredCode)).andExpect(status().isGone());
+            mockMvc.perform(get("/{shortCode}", expiredCode))
+                    .andExpect(status().isGone())
+                    .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                    .andExpect(jsonPath("$.type").value("https://api.shorty.com/errors/url-expired"))
+                    .andExpect(jsonPath("$.status").value(410));
 
-            verify(urlService, times(1)).resolveAndTrack(expiredCode);
+            verify(urlService, times(1)).resolve(expiredCode);
         }
     }
 }
@@ -2,6 +2,7 @@ package com.shorty.controllers;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -9,8 +10,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.shorty.dtos.requests.CreateUrlRequest;
 import com.shorty.dtos.responses.PageResponse;
 import com.shorty.dtos.responses.UrlResponse;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
 import com.shorty.exceptions.AliasAlreadyExistsException;
+import com.shorty.exceptions.IdempotencyKeyMismatchException;
 import com.shorty.exceptions.UrlNotFoundException;
+import com.shorty.services.IdempotencyService;
 import com.shorty.services.UrlService;
 import com.shorty.utils.SecurityUtils;
 import java.time.Instant;
@@ -37,6 +42,9 @@ class UrlControllerTest {
     @MockitoBean
     private UrlService urlService;
 
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
     @MockitoBean
     private SecurityUtils securityUtils;
 
@@ -51,13 +59,17 @@ class UrlControllerTest {
         @DisplayName("Should return 201 when creating short URL with valid request")
         void shouldReturn201WhenCreatingShortUrl() throws Exception {
             // Given
-            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null);
+            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null, null, null, null);
             UrlResponse expectedResponse = new UrlResponse(
                     UUID.randomUUID(),
                     "abc123",
                     "http://localhost:8080/abc123",
                     "https://example.com",
                     0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     Instant.now().plusSeconds(604800),
                     Instant.now());
 
@@ -80,7 +92,7 @@ class UrlControllerTest {
         @DisplayName("Should return 400 when request is invalid")
         void shouldReturn400WhenRequestIsInvalid() throws Exception {
             // Given
-            CreateUrlRequest invalidRequest = new CreateUrlRequest("", null, null);
+            CreateUrlRequest invalidRequest = new CreateUrlRequest("", null, null, null, null, null);
 
             // When/Then
             mockMvc.perform(post("/api/v1/urls")
@@ -95,7 +107,7 @@ class UrlControllerTest {
         @DisplayName("Should return 409 when custom alias already exists")
         void shouldReturn409WhenCustomAliasAlreadyExists() throws Exception {
             // Given
-            CreateUrlRequest request = new CreateUrlRequest("https://example.com", "myalias", null);
+            CreateUrlRequest request = new CreateUrlRequest("https://example.com", "myalias", null, null, null, null);
 
             when(securityUtils.getCurrentUserId()).thenReturn(UUID.randomUUID());
             when(urlService.createShortUrl(any(CreateUrlRequest.class), any(UUID.class)))
@@ -109,6 +121,60 @@ class UrlControllerTest {
 
             verify(urlService, times(1)).createShortUrl(any(CreateUrlRequest.class), any(UUID.class));
         }
+
+        @Test
+        @DisplayName("Should return the stored response when an idempotency key is replayed")
+        void shouldReturnStoredResponseWhenIdempotencyKeyIsReplayed() throws Exception {
+            // Given
+            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null, null, null, null);
+            UrlResponse storedResponse = new UrlResponse(
+                    UUID.randomUUID(),
+                    "abc123",
+                    "http://localhost:8080/abc123",
+                    "https://example.com",
+                    0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
+                    Instant.now().plusSeconds(604800),
+                    Instant.now());
+
+            when(securityUtils.getCurrentUserId()).thenReturn(UUID.randomUUID());
+            when(idempotencyService.execute(any(UUID.class), eq("key-1"), any(CreateUrlRequest.class), any()))
+                    .thenReturn(new IdempotencyService.Result(storedResponse, true));
+
+            // When/Then
+            mockMvc.perform(post("/api/v1/urls")
+                            .header(IdempotencyService.HEADER, "key-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                    .andExpect(jsonPath("$.shortCode").value("abc123"));
+
+            verify(urlService, never()).createShortUrl(any(CreateUrlRequest.class), any(UUID.class));
+        }
+
+        @Test
+        @DisplayName("Should return 422 when an idempotency key is reused for a different request")
+        void shouldReturn422WhenIdempotencyKeyIsReused() throws Exception {
+            // Given
+            CreateUrlRequest request = new CreateUrlRequest("https://example.org", null, null, null, null, null);
+
+            when(securityUtils.getCurrentUserId()).thenReturn(UUID.randomUUID());
+            when(idempotencyService.execute(any(UUID.class), eq("key-1"), any(CreateUrlRequest.class), any()))
+                    .thenThrow(new IdempotencyKeyMismatchException("Idempotency-Key was already used"));
+
+            // When/Then
+            mockMvc.perform(post("/api/v1/urls")
+                            .header(IdempotencyService.HEADER, "key-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isUnprocessableEntity());
+
+            verify(urlService, never()).createShortUrl(any(CreateUrlRequest.class), any(UUID.class));
+        }
     }
 
     @Nested
@@ -144,6 +210,10 @@ class UrlControllerTest {
                     "http://localhost:8080/" + shortCode,
                     "https://example.com",
                     5L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     Instant.now().plusSeconds(604800),
                     Instant.now());
 
@@ -247,6 +317,10 @@ class UrlControllerTest {
                             "http://localhost:8080/abc123",
                             "https://example.com",
                             0L,
+                            TrackingPolicy.EXACT,
+                            false,
+                            null,
+                            RedirectPolicy.NO_STORE,
                             Instant.now().plusSeconds(604800),
                             Instant.now()),
                     new UrlResponse(
@@ -255,6 +329,10 @@ class UrlControllerTest {
                             "http://localhost:8080/def456",
                             "https://google.com",
                             5L,
+                            TrackingPolicy.EXACT,
+                            false,
+                            null,
+                            RedirectPolicy.NO_STORE,
                             Instant.now().plusSeconds(604800),
                             Instant.now()));
 
@@ -290,6 +368,10 @@ class UrlControllerTest {
                     "http://localhost:8080/abc123",
                     "https://example.com",
                     0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     Instant.now().plusSeconds(604800),
                     Instant.now()));
 
@@ -321,6 +403,10 @@ class UrlControllerTest {
                     "http://localhost:8080/abc123",
                     "https://example.com",
                     0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     Instant.now().plusSeconds(604800),
                     Instant.now()));
 
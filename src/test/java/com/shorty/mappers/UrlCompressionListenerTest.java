@@ -0,0 +1,132 @@
+package com.shorty.mappers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.shorty.caches.HostDictionary;
+import com.shorty.entities.UrlMapping;
+import com.shorty.services.HostDictionaryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class UrlCompressionListenerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private HostDictionaryService hostDictionaryService;
+    private UrlCompressionListener listener;
+
+    @BeforeEach
+    void setUp() {
+        hostDictionaryService = new HostDictionaryService(jdbcTemplate, new SimpleMeterRegistry(), true, 100);
+        hostDictionaryService.getDictionary().register(7, "https://shop.example.com");
+        listener = new UrlCompressionListener(hostDictionaryService);
+    }
+
+    @Test
+    @DisplayName("Should store a known host as its id and the rest of the URL")
+    void shouldSplitKnownHost() {
+        // Given
+        UrlMapping mapping = UrlMapping.builder().originalUrl("https://shop.example.com/items/42?ref=mail").build();
+
+        // When
+        listener.compress(mapping);
+
+        // Then
+        assertEquals(7, mapping.getHostId());
+        assertEquals("/items/42?ref=mail", mapping.getStoredUrl());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should store a URL on a new host in full without querying the database")
+    void shouldStoreNewHostInFull() {
+        // Given
+        UrlMapping mapping = UrlMapping.builder().originalUrl("https://new.example.com/a").build();
+
+        // When
+        listener.compress(mapping);
+
+        // Then
+        assertNull(mapping.getHostId());
+        assertEquals("https://new.example.com/a", mapping.getStoredUrl());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should store URLs without a host prefix in full")
+    void shouldStoreUrlWithoutHostInFull() {
+        // Given
+        UrlMapping mapping = UrlMapping.builder().originalUrl("https:///path").build();
+
+        // When
+        listener.compress(mapping);
+
+        // Then
+        assertNull(mapping.getHostId());
+        assertEquals("https:///path", mapping.getStoredUrl());
+    }
+
+    @Test
+    @DisplayName("Should store URLs whose host prefix is too long for the dictionary in full")
+    void shouldStoreOverLongHostInFull() {
+        // Given
+        String url = "https://" + "a".repeat(HostDictionary.MAX_PREFIX_LENGTH) + ".com/path";
+        UrlMapping mapping = UrlMapping.builder().originalUrl(url).build();
+
+        // When
+        listener.compress(mapping);
+        hostDictionaryService.internPending();
+
+        // Then
+        assertNull(mapping.getHostId());
+        assertEquals(url, mapping.getStoredUrl());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should reassemble the URL on load from memory")
+    void shouldReassembleOnLoad() {
+        // Given
+        UrlMapping compressed = new UrlMapping();
+        compressed.setHostId(7);
+        compressed.setStoredUrl("/items/42");
+        UrlMapping full = new UrlMapping();
+        full.setStoredUrl("https://other.example.com/x");
+
+        // When
+        listener.expand(compressed);
+        listener.expand(full);
+
+        // Then
+        assertEquals("https://shop.example.com/items/42", compressed.getOriginalUrl());
+        assertEquals("https://other.example.com/x", full.getOriginalUrl());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should round trip a URL through store and load")
+    void shouldRoundTrip() {
+        // Given
+        UrlMapping stored = UrlMapping.builder().originalUrl("https://shop.example.com").build();
+        listener.compress(stored);
+        UrlMapping loaded = new UrlMapping();
+        loaded.setHostId(stored.getHostId());
+        loaded.setStoredUrl(stored.getStoredUrl());
+
+        // When
+        listener.expand(loaded);
+
+        // Then
+        assertEquals("", stored.getStoredUrl());
+        assertEquals("https://shop.example.com", loaded.getOriginalUrl());
+    }
+}
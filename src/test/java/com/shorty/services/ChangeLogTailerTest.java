@@ -0,0 +1,160 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.shorty.caches.MappingChangeListener;
+import com.shorty.caches.RedirectTarget;
+import com.shorty.entities.ChangeType;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import com.shorty.entities.UrlMapping;
+import com.shorty.entities.UrlMappingChange;
+import com.shorty.mappers.UrlMapper;
+import com.shorty.repositories.UrlMappingChangeRepository;
+import com.shorty.repositories.UrlMappingRepository;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeLogTailerTest {
+
+    @Mock
+    private UrlMappingChangeRepository changeRepository;
+
+    @Mock
+    private UrlMappingRepository repository;
+
+    @Mock
+    private UrlMapper mapper;
+
+    @Mock
+    private MappingChangeListener listener;
+
+    @InjectMocks
+    private ChangeLogTailer tailer;
+
+    private final RedirectTarget target = new RedirectTarget(
+            "https://example.com", null, RedirectPolicy.NO_STORE, TrackingPolicy.EXACT, null, 0L);
+
+    @BeforeEach
+    void setUp() {
+        setField("batchSize", 100);
+        setField("gapTimeout", Duration.ofMinutes(1));
+        setField("lookback", 0L);
+    }
+
+    private void setField(String name, Object value) {
+        try {
+            Field field = ChangeLogTailer.class.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(tailer, value);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to set up test fields", e);
+        }
+    }
+
+    private UrlMappingChange change(long id, String shortCode, ChangeType changeType) {
+        return UrlMappingChange.builder()
+                .id(id)
+                .shortCode(shortCode)
+                .changeType(changeType)
+                .changedAt(Instant.now())
+                .build();
+    }
+
+    private UrlMapping mapping(String shortCode) {
+        UrlMapping mapping = UrlMapping.builder().shortCode(shortCode).build();
+        when(mapper.toRedirectTarget(mapping)).thenReturn(target);
+        return mapping;
+    }
+
+    @Test
+    @DisplayName("Should apply a change that commits after a higher id once it becomes visible")
+    void shouldApplyChangeCommittedOutOfOrder() {
+        // Given
+        tailer.subscribe(listener, 0);
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(List.of(change(2, "bbb222", ChangeType.CREATED)));
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any())).thenReturn(List.of());
+        when(changeRepository.findAllById(any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(change(1, "aaa111", ChangeType.CREATED)));
+        when(repository.findByShortCodeIn(List.of("bbb222"))).thenReturn(List.of());
+        UrlMapping late = mapping("aaa111");
+        when(repository.findByShortCodeIn(List.of("aaa111"))).thenReturn(List.of(late));
+
+        // When
+        tailer.poll();
+        tailer.poll();
+        tailer.poll();
+
+        // Then
+        verify(listener).onMappingRemoved("bbb222");
+        verify(listener).onMappingUpserted("aaa111", target);
+        verify(changeRepository, times(2)).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Should apply the current row when a deleted alias has been created again")
+    void shouldApplyCurrentStateForDeletedCode() {
+        // Given
+        tailer.subscribe(listener, 0);
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(List.of(change(1, "abc123", ChangeType.DELETED)));
+        UrlMapping recreated = mapping("abc123");
+        when(repository.findByShortCodeIn(List.of("abc123"))).thenReturn(List.of(recreated));
+
+        // When
+        tailer.poll();
+
+        // Then
+        verify(listener).onMappingUpserted("abc123", target);
+        verify(listener, never()).onMappingRemoved(any());
+    }
+
+    @Test
+    @DisplayName("Should start a subscription lookback ids before the requested position")
+    void shouldStartBeforeRequestedPosition() {
+        // Given
+        setField("lookback", 50L);
+        tailer.subscribe(listener, 120);
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(70L), any())).thenReturn(List.of());
+
+        // When
+        tailer.poll();
+
+        // Then
+        verify(changeRepository).findByIdGreaterThanOrderByIdAsc(eq(70L), any());
+    }
+
+    @Test
+    @DisplayName("Should report subscribers caught up only once a poll started after the given moment completes")
+    void shouldAwaitPollStartedAfterInstant() throws Exception {
+        // Given
+        tailer.subscribe(listener, 0);
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(List.of());
+        Instant requestedAt = Instant.now();
+
+        // When
+        boolean beforePoll = tailer.awaitPolledAfter(requestedAt, Duration.ofMillis(10));
+        Thread.sleep(1);
+        tailer.poll();
+        boolean afterPoll = tailer.awaitPolledAfter(requestedAt, Duration.ofMillis(10));
+
+        // Then
+        assertFalse(beforePoll);
+        assertTrue(afterPoll);
+    }
+}
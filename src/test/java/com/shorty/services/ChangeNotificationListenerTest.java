@@ -0,0 +1,243 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import com.shorty.caches.InvalidationListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ChangeNotificationListenerTest {
+
+    @Mock
+    private ChangeLogTailer tailer;
+
+    @Mock
+    private InvalidationListener invalidationListener;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Each connect() takes the next connection, or fails when there is none left
+    private final Deque<Connection> connections = new ArrayDeque<>();
+
+    private ChangeNotificationListener listener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        listener = new ChangeNotificationListener(tailer, List.of(invalidationListener), meterRegistry) {
+            @Override
+            Connection connect() throws SQLException {
+                synchronized (connections) {
+                    Connection connection = connections.poll();
+                    if (connection == null) {
+                        throw new SQLException("Connection refused");
+                    }
+                    return connection;
+                }
+            }
+        };
+        setField("coalesceWindow", Duration.ofMillis(10));
+        setField("maxBackoff", Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = ChangeNotificationListener.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(listener, value);
+    }
+
+    private PGNotification notification(String payload) {
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn(payload);
+        return notification;
+    }
+
+    // A connection that delivers the given batches and then either waits quietly or drops
+    private Connection connection(boolean dropAfterwards, PGNotification[]... batches) throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+
+        Deque<PGNotification[]> pending = new ArrayDeque<>(List.of(batches));
+        when(pgConnection.getNotifications(anyInt())).thenAnswer(invocation -> {
+            synchronized (pending) {
+                if (!pending.isEmpty()) {
+                    return pending.poll();
+                }
+            }
+            if (dropAfterwards) {
+                throw new SQLException("An I/O error occurred while sending to the backend");
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        return connection;
+    }
+
+    @Nested
+    @DisplayName("Payload Tests")
+    class PayloadTests {
+
+        @Test
+        @DisplayName("Should collect short codes and expired sweeps, ignoring malformed payloads")
+        void shouldParsePayloads() {
+            // Given
+            ChangeNotificationListener.PendingChanges pending = new ChangeNotificationListener.PendingChanges();
+
+            // When
+            pending.add("C:abc123");
+            pending.add("D:def456");
+            pending.add("C:abc123");
+            pending.add("E");
+            pending.add("garbage");
+            pending.add("C:");
+            pending.add(null);
+
+            // Then
+            assertEquals(Set.of("abc123", "def456"), pending.shortCodes);
+            assertTrue(pending.expiredSweep);
+        }
+
+        @Test
+        @DisplayName("Should stay empty for payloads that carry nothing")
+        void shouldStayEmptyForMalformedPayloads() {
+            // Given
+            ChangeNotificationListener.PendingChanges pending = new ChangeNotificationListener.PendingChanges();
+
+            // When
+            pending.add("X");
+            pending.add("");
+
+            // Then
+            assertTrue(pending.isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Connection Tests")
+    class ConnectionTests {
+
+        @Test
+        @DisplayName("Should poll the change log and invalidate coalesced codes when notified")
+        void shouldPollAndInvalidateOnNotification() throws Exception {
+            // Given
+            connections.add(connection(
+                    false,
+                    new PGNotification[] {notification("C:abc123"), notification("D:def456")},
+                    new PGNotification[] {notification("E")}));
+
+            // When
+            listener.start();
+
+            // Then
+            verify(invalidationListener, timeout(2000)).invalidate(Set.of("abc123", "def456"));
+            verify(invalidationListener, timeout(2000)).onExpiredSweep();
+            verify(tailer, atLeastOnce()).poll();
+            verify(invalidationListener, never()).invalidateAll();
+            assertEquals(3, meterRegistry.get("shorty.invalidation.notifications").counter().count());
+        }
+
+        @Test
+        @DisplayName("Should reconnect after the connection drops and resync from the change log")
+        void shouldReconnectAndResync() throws Exception {
+            // Given
+            connections.add(connection(true));
+            connections.add(connection(false));
+
+            // When
+            listener.start();
+
+            // Then
+            verify(invalidationListener, timeout(2000)).invalidateAll();
+            verify(tailer, atLeastOnce()).poll();
+            assertEquals(1, meterRegistry.get("shorty.invalidation.reconnects").counter().count());
+        }
+
+        @Test
+        @DisplayName("Should survive a failed change log read, then reconnect and resync")
+        void shouldResyncAfterChangeLogFailure() throws Exception {
+            // Given
+            doThrow(new DataAccessResourceFailureException("Connection reset"))
+                    .doNothing()
+                    .when(tailer)
+                    .poll();
+            connections.add(connection(false, new PGNotification[] {notification("C:abc123")}));
+            connections.add(connection(false));
+
+            // When
+            listener.start();
+
+            // Then
+            verify(invalidationListener, timeout(2000)).invalidateAll();
+            long deadline = System.currentTimeMillis() + 2000;
+            while (!listener.isListening() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, meterRegistry.get("shorty.invalidation.reconnects").counter().count());
+            assertEquals(1, meterRegistry.get("shorty.invalidation.listening").gauge().value());
+        }
+
+        @Test
+        @DisplayName("Should report not listening while the database refuses connections")
+        void shouldReportNotListeningWhileRefused() throws Exception {
+            // When
+            listener.start();
+            Thread.sleep(300);
+
+            // Then
+            assertFalse(listener.isListening());
+            assertEquals(0, meterRegistry.get("shorty.invalidation.listening").gauge().value());
+        }
+
+        @Test
+        @DisplayName("Should keep retrying with backoff while the database refuses connections")
+        void shouldRetryWhileRefused() throws Exception {
+            // Given
+            listener.start();
+            Thread.sleep(300);
+            verifyNoInteractions(invalidationListener);
+
+            // When
+            synchronized (connections) {
+                connections.add(connection(false, new PGNotification[] {notification("C:abc123")}));
+            }
+
+            // Then
+            verify(invalidationListener, timeout(2000)).invalidate(Set.of("abc123"));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.shorty.utils.ShortCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Field;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class CodeSpaceMonitorTest {
+
+    // 62^3 = 238,328 codes, so 5% is a little under 12,000
+    private static final long FULL_ENOUGH = 12_000;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ShortCodeGenerator codeGenerator = new ShortCodeGenerator();
+    private CodeSpaceMonitor monitor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Field field = ShortCodeGenerator.class.getDeclaredField("shortCodeLength");
+        field.setAccessible(true);
+        field.set(codeGenerator, 3);
+        monitor = new CodeSpaceMonitor(jdbcTemplate, codeGenerator, meterRegistry, true, 0.05, 100);
+    }
+
+    private long[] counts(int length, long allocated) {
+        long[] counts = new long[ShortCodeGenerator.MAX_LENGTH + 1];
+        counts[length] = allocated;
+        return counts;
+    }
+
+    @Nested
+    @DisplayName("Utilization Tests")
+    class UtilizationTests {
+
+        @Test
+        @DisplayName("Should keep the length while utilization is below the threshold")
+        void shouldKeepLengthBelowThreshold() {
+            // When
+            monitor.update(counts(3, 1_000), 1_000_000_000L);
+
+            // Then
+            assertEquals(3, codeGenerator.getLength());
+            assertEquals(1_000 / Math.pow(62, 3), monitor.utilization(3), 1e-9);
+            assertEquals(0, meterRegistry.get("shorty.shortcode.length.growths").counter().count());
+        }
+
+        @Test
+        @DisplayName("Should grow the length once utilization reaches the threshold")
+        void shouldGrowAtThreshold() {
+            // When
+            monitor.update(counts(3, FULL_ENOUGH), 1_000_000_000L);
+
+            // Then
+            assertEquals(4, codeGenerator.getLength());
+            assertEquals(4, codeGenerator.generate().length());
+            assertEquals(4, meterRegistry.get("shorty.shortcode.length").gauge().value());
+            assertEquals(1, meterRegistry.get("shorty.shortcode.length.growths").counter().count());
+        }
+
+        @Test
+        @DisplayName("Should project exhaustion from the allocation rate")
+        void shouldProjectExhaustion() {
+            // Given
+            monitor.update(counts(3, 1_000), 1_000_000_000L);
+
+            // When
+            monitor.update(counts(3, 2_000), 11_000_000_000L);
+
+            // Then
+            double remaining = 0.05 * Math.pow(62, 3) - 2_000;
+            double seconds = meterRegistry
+                    .get("shorty.shortcode.keyspace.exhaustion")
+                    .gauge()
+                    .value();
+            assertEquals(remaining / 100, seconds, 1e-6);
+        }
+    }
+
+    @Nested
+    @DisplayName("Collision Rate Tests")
+    class CollisionRateTests {
+
+        @Test
+        @DisplayName("Should grow the length when generation collides more than the threshold")
+        void shouldGrowOnObservedCollisions() {
+            // Given
+            for (int i = 0; i < 90; i++) {
+                monitor.recordGeneration(1, true);
+            }
+            for (int i = 0; i < 5; i++) {
+                monitor.recordGeneration(2, true);
+            }
+
+            // When
+            monitor.update(counts(3, 1_000), 1_000_000_000L);
+
+            // Then
+            assertEquals(4, codeGenerator.getLength());
+        }
+
+        @Test
+        @DisplayName("Should ignore collisions until enough attempts are sampled")
+        void shouldWaitForMinSamples() {
+            // Given
+            monitor.recordGeneration(3, false);
+
+            // When
+            monitor.update(counts(3, 1_000), 1_000_000_000L);
+
+            // Then
+            assertEquals(3, codeGenerator.getLength());
+            assertEquals(0, meterRegistry.get("shorty.shortcode.collision-rate").gauge().value());
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.shorty.caches.RedirectTarget;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import com.shorty.entities.UrlMapping;
+import com.shorty.exceptions.LookupUnavailableException;
+import com.shorty.mappers.UrlMapper;
+import com.shorty.repositories.UrlMappingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DatabaseFaultInjectionTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(200);
+    private static final Duration CALL_TIMEOUT = Duration.ofMillis(200);
+
+    @Mock
+    private UrlMappingRepository repository;
+
+    @Mock
+    private UrlMapper mapper;
+
+    private final FaultInjector database = new FaultInjector();
+    private final RedirectTarget target = new RedirectTarget(
+            "https://example.com", null, RedirectPolicy.NO_STORE, TrackingPolicy.EXACT, null, 0L);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DatabaseCircuitBreaker circuitBreaker;
+    private RedirectTargetLoader loader;
+    private ClickRecorder clickRecorder;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new DatabaseCircuitBreaker(
+                meterRegistry, true, 10, 5, 0.5, Duration.ofMillis(50), 0.5, OPEN_DURATION, CALL_TIMEOUT);
+        loader = new RedirectTargetLoader(
+                repository,
+                mapper,
+                circuitBreaker,
+                new ExpiryScheduler(meterRegistry, true, Duration.ofSeconds(1)),
+                meterRegistry,
+                true,
+                Duration.ofMillis(100),
+                0.2,
+                Duration.ofSeconds(1),
+                1000);
+        clickRecorder = new ClickRecorder(repository, circuitBreaker, meterRegistry, 2);
+
+        when(repository.findByShortCode(anyString())).thenAnswer(invocation -> database.call(() ->
+                Optional.of(UrlMapping.builder().shortCode(invocation.getArgument(0)).build())));
+        when(repository.incrementClickCount(anyString(), anyLong())).thenAnswer(invocation -> database.call(() -> 1));
+        when(mapper.toRedirectTarget(any(UrlMapping.class))).thenReturn(target);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.shutdown();
+        circuitBreaker.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should stop calling an unavailable database once the circuit opens")
+    void shouldRejectCallsOnceCircuitOpensOnErrors() {
+        // Given
+        database.goDown();
+        tripCircuit();
+        int callsBeforeOpen = database.calls.get();
+
+        // When / Then
+        LookupUnavailableException exception =
+                assertThrows(LookupUnavailableException.class, () -> loader.load("unknown"));
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        assertEquals(callsBeforeOpen, database.calls.get());
+    }
+
+    @Test
+    @DisplayName("Should open the circuit on slow queries and then fail fast")
+    void shouldOpenCircuitOnSlowQueries() {
+        // Given
+        database.slowDown(Duration.ofMillis(80));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Optional.of(target), loader.load("slow" + i));
+        }
+
+        // When
+        long start = System.nanoTime();
+        assertThrows(LookupUnavailableException.class, () -> loader.load("unknown"));
+
+        // Then
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 50);
+    }
+
+    @Test
+    @DisplayName("Should stop waiting for a hung lookup after the call timeout and count it against the circuit")
+    void shouldTimeOutHungLookups() {
+        // Given
+        database.slowDown(Duration.ofSeconds(30));
+
+        // When
+        long start = System.nanoTime();
+        tripCircuit();
+        int callsBeforeOpen = database.calls.get();
+
+        // Then
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5 * CALL_TIMEOUT.toMillis() + 1000);
+        assertThrows(LookupUnavailableException.class, () -> loader.load("unknown"));
+        assertEquals(callsBeforeOpen, database.calls.get());
+    }
+
+    @Test
+    @DisplayName("Should serve the last known target while the circuit is open")
+    void shouldServeStaleTargetWhileCircuitIsOpen() throws Exception {
+        // Given
+        assertEquals(Optional.of(target), loader.load("abc123"));
+        Thread.sleep(150);
+        database.goDown();
+        tripCircuit();
+
+        // When
+        Optional<RedirectTarget> result = loader.load("abc123");
+
+        // Then
+        assertEquals(Optional.of(target), result);
+    }
+
+    @Test
+    @DisplayName("Should close the circuit after a successful probe once the database recovers")
+    void shouldRecoverAfterOpenDuration() throws Exception {
+        // Given
+        database.goDown();
+        tripCircuit();
+        database.recover();
+
+        // When
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+
+        // Then
+        assertEquals(Optional.of(target), loader.load("recovered"));
+        assertEquals(Optional.of(target), loader.load("recovered-again"));
+    }
+
+    @Test
+    @DisplayName("Should buffer clicks while the database is down and reconcile them after recovery")
+    void shouldBufferAndReconcileClicks() throws Exception {
+        // Given
+        database.goDown();
+        tripCircuit();
+        for (int i = 0; i < 3; i++) {
+            clickRecorder.record("abc123", 1);
+        }
+        clickRecorder.reconcile();
+        assertEquals(1, clickRecorder.getPendingCount());
+
+        // When
+        database.recover();
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        clickRecorder.reconcile();
+
+        // Then
+        verify(repository, times(1)).incrementClickCount("abc123", 3L);
+        assertEquals(0, clickRecorder.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Should stop waiting for a hung click update after the call timeout without buffering it")
+    void shouldTimeOutHungClickUpdates() {
+        // Given
+        database.slowDown(Duration.ofSeconds(30));
+
+        // When
+        long start = System.nanoTime();
+        clickRecorder.record("abc123", 1);
+
+        // Then
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < CALL_TIMEOUT.toMillis() + 1000);
+        assertEquals(0, clickRecorder.getPendingCount());
+        assertEquals(
+                1.0,
+                meterRegistry.get("shorty.clicks.dropped").tag("reason", "timed_out").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should cap buffered clicks and count the ones it drops")
+    void shouldCapBufferedClicks() {
+        // Given
+        database.goDown();
+        tripCircuit();
+
+        // When
+        clickRecorder.record("abc123", 1);
+        clickRecorder.record("def456", 1);
+        clickRecorder.record("ghi789", 5);
+        clickRecorder.record("abc123", 1);
+
+        // Then
+        assertEquals(2, clickRecorder.getPendingCount());
+        assertEquals(
+                5.0,
+                meterRegistry.get("shorty.clicks.dropped").tag("reason", "buffer_full").counter().count());
+    }
+
+    private void tripCircuit() {
+        for (int i = 0; i < 5; i++) {
+            String shortCode = "trip" + i;
+            assertThrows(LookupUnavailableException.class, () -> loader.load(shortCode));
+        }
+    }
+
+    /**
+     * Stands in for Postgres behind the repository mock: healthy, answering after a delay, or refusing connections.
+     */
+    private static final class FaultInjector {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile Duration latency = Duration.ZERO;
+        private volatile boolean down;
+
+        void slowDown(Duration latency) {
+            this.latency = latency;
+        }
+
+        void goDown() {
+            down = true;
+        }
+
+        void recover() {
+            down = false;
+            latency = Duration.ZERO;
+        }
+
+        <T> T call(Supplier<T> result) throws InterruptedException {
+            calls.incrementAndGet();
+            if (!latency.isZero()) {
+                Thread.sleep(latency);
+            }
+            if (down) {
+                throw new DataAccessResourceFailureException("Connection is not available, request timed out");
+            }
+            return result.get();
+        }
+    }
+}
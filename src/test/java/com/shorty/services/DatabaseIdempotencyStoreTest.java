@@ -0,0 +1,125 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.shorty.entities.IdempotencyRecord;
+import com.shorty.repositories.IdempotencyRecordRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseIdempotencyStoreTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    @InjectMocks
+    private DatabaseIdempotencyStore store;
+
+    @Test
+    @DisplayName("Should hold the key when the insert wins")
+    void shouldClaimFreeKey() {
+        // Given
+        when(repository.insertIfAbsent(eq("key"), eq("hash"), any(), any())).thenReturn(1);
+
+        // When
+        Optional<IdempotencyStore.Entry> existing = store.claim("key", "hash", LEASE);
+
+        // Then
+        assertTrue(existing.isEmpty());
+        verify(repository, never()).deleteIfExpired(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return the stored response of a completed key")
+    void shouldReturnCompletedEntry() {
+        // Given
+        when(repository.insertIfAbsent(eq("key"), eq("hash"), any(), any())).thenReturn(0);
+        when(repository.deleteIfExpired(eq("key"), any())).thenReturn(0);
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .key("key")
+                .requestHash("hash")
+                .responseBody("{}")
+                .build();
+        when(repository.findById("key")).thenReturn(Optional.of(record));
+
+        // When
+        Optional<IdempotencyStore.Entry> existing = store.claim("key", "hash", LEASE);
+
+        // Then
+        assertTrue(existing.orElseThrow().isCompleted());
+        assertEquals("{}", existing.orElseThrow().responseBody());
+    }
+
+    @Test
+    @DisplayName("Should take over a key whose lease or retention has run out")
+    void shouldTakeOverExpiredKey() {
+        // Given
+        when(repository.insertIfAbsent(eq("key"), eq("hash"), any(), any())).thenReturn(0, 1);
+        when(repository.deleteIfExpired(eq("key"), any())).thenReturn(1);
+
+        // When
+        Optional<IdempotencyStore.Entry> existing = store.claim("key", "hash", LEASE);
+
+        // Then
+        assertTrue(existing.isEmpty());
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should treat a key as in flight when another node wins the re-insert and the row is gone again")
+    void shouldTreatLostTakeOverAsInFlight() {
+        // Given
+        when(repository.insertIfAbsent(eq("key"), eq("hash"), any(), any())).thenReturn(0, 0);
+        when(repository.deleteIfExpired(eq("key"), any())).thenReturn(1);
+        when(repository.findById("key")).thenReturn(Optional.empty());
+
+        // When
+        Optional<IdempotencyStore.Entry> existing = store.claim("key", "hash", LEASE);
+
+        // Then
+        assertEquals("hash", existing.orElseThrow().requestHash());
+        assertFalse(existing.orElseThrow().isCompleted());
+    }
+
+    @Test
+    @DisplayName("Should keep a completed response until the retention time from now")
+    void shouldCompleteWithRetention() {
+        // Given
+        Instant before = Instant.now();
+
+        // When
+        store.complete("key", "{}", Duration.ofHours(24));
+
+        // Then
+        verify(repository)
+                .complete(
+                        eq("key"),
+                        eq("{}"),
+                        argThat(expiresAt -> !expiresAt.isBefore(before.plus(Duration.ofHours(24)))));
+    }
+
+    @Test
+    @DisplayName("Should only delete a claim that has not completed on release")
+    void shouldReleasePendingClaim() {
+        // When
+        store.release("key");
+
+        // Then
+        verify(repository).deletePending("key");
+        verify(repository, never()).deleteById(any());
+    }
+}
@@ -0,0 +1,268 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.shorty.entities.ChangeType;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.UrlMapping;
+import com.shorty.entities.UrlMappingChange;
+import com.shorty.repositories.UrlMappingChangeRepository;
+import com.shorty.repositories.UrlMappingRepository;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+@ExtendWith(MockitoExtension.class)
+class EdgeBundleServiceTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Mock
+    private UrlMappingRepository repository;
+
+    @Mock
+    private UrlMappingChangeRepository changeRepository;
+
+    @Mock
+    private JobCoordinator jobs;
+
+    @InjectMocks
+    private EdgeBundleService edgeBundleService;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        setField("directory", directory);
+        setField("topN", 0);
+        setField("pageSize", 100);
+        setField("fullRebuildEvery", 24);
+        setField("watermarkMargin", Duration.ofMinutes(1));
+        lenient()
+                .doAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(1).run();
+                    return null;
+                })
+                .when(jobs)
+                .runSingleton(eq("edge-bundle"), any());
+    }
+
+    private void setField(String name, Object value) {
+        try {
+            Field field = EdgeBundleService.class.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(edgeBundleService, value);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to set up test fields", e);
+        }
+    }
+
+    private UrlMapping mapping(String shortCode, String originalUrl) {
+        return mapping(shortCode, originalUrl, RedirectPolicy.MOVED_PERMANENTLY, UPDATED_AT);
+    }
+
+    private UrlMapping mapping(String shortCode, String originalUrl, RedirectPolicy policy, Instant updatedAt) {
+        return UrlMapping.builder()
+                .id(UUID.randomUUID())
+                .shortCode(shortCode)
+                .originalUrl(originalUrl)
+                .redirectPolicy(policy)
+                .expiresAt(Instant.now().plus(7, ChronoUnit.DAYS))
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    @Nested
+    @DisplayName("Generate Bundle Tests")
+    class GenerateBundleTests {
+
+        @Test
+        @DisplayName("Should write sorted nginx map with matching manifest checksum")
+        void shouldWriteSortedMapWithManifestChecksum() throws Exception {
+            // Given
+            when(repository.findCacheableActiveMappingsAfter(anyCollection(), any(Instant.class), any(), any()))
+                    .thenReturn(List.of(
+                            mapping("zzz111", "https://example.com/z"),
+                            mapping("aaa111", "https://example.com/a?q=\"quoted\"")));
+
+            // When
+            edgeBundleService.generateBundle();
+
+            // Then
+            byte[] bundle = Files.readAllBytes(directory.resolve(EdgeBundleService.BUNDLE_FILE));
+            assertEquals(
+                    "/aaa111 \"https://example.com/a?q=\\\"quoted\\\"\";\n/zzz111 \"https://example.com/z\";\n",
+                    new String(bundle, StandardCharsets.UTF_8));
+
+            String checksum = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bundle));
+            String manifest = Files.readString(directory.resolve(EdgeBundleService.MANIFEST_FILE));
+            assertTrue(manifest.contains("\"sha256\":\"" + checksum + "\""));
+            assertTrue(manifest.contains("\"entries\":2"));
+        }
+
+        @Test
+        @DisplayName("Should only request cacheable redirect policies")
+        void shouldOnlyRequestCacheableRedirectPolicies() {
+            // Given
+            when(repository.findCacheableActiveMappingsAfter(anyCollection(), any(Instant.class), any(), any()))
+                    .thenReturn(List.of());
+
+            // When
+            edgeBundleService.generateBundle();
+
+            // Then
+            verify(repository)
+                    .findCacheableActiveMappingsAfter(
+                            eq(List.of(
+                                    RedirectPolicy.MOVED_PERMANENTLY,
+                                    RedirectPolicy.PERMANENT_REDIRECT,
+                                    RedirectPolicy.SHARED_CACHE)),
+                            any(Instant.class),
+                            eq(new UUID(0L, 0L)),
+                            any(Limit.class));
+        }
+
+        @Test
+        @DisplayName("Should escape quotes and backslashes and leave links containing $ to the origin")
+        void shouldEscapeOrSkipNginxSpecialCharacters() throws Exception {
+            // Given
+            when(repository.findCacheableActiveMappingsAfter(anyCollection(), any(Instant.class), any(), any()))
+                    .thenReturn(List.of(
+                            mapping("abc123", "https://example.com/a\\x"),
+                            mapping("def456", "https://example.com/$uri")));
+
+            // When
+            edgeBundleService.generateBundle();
+
+            // Then
+            assertEquals(
+                    "/abc123 \"https://example.com/a\\\\x\";\n",
+                    Files.readString(directory.resolve(EdgeBundleService.BUNDLE_FILE)));
+        }
+
+        @Test
+        @DisplayName("Should page through mappings by id rather than by offset")
+        void shouldPageByKeyset() {
+            // Given
+            setField("pageSize", 2);
+            UrlMapping first = mapping("abc123", "https://example.com/1");
+            UrlMapping second = mapping("def456", "https://example.com/2");
+            when(repository.findCacheableActiveMappingsAfter(anyCollection(), any(Instant.class), any(), any()))
+                    .thenReturn(List.of(first, second))
+                    .thenReturn(List.of());
+
+            // When
+            edgeBundleService.generateBundle();
+
+            // Then
+            verify(repository)
+                    .findCacheableActiveMappingsAfter(
+                            anyCollection(), any(Instant.class), eq(new UUID(0L, 0L)), eq(Limit.of(2)));
+            verify(repository)
+                    .findCacheableActiveMappingsAfter(
+                            anyCollection(), any(Instant.class), eq(second.getId()), eq(Limit.of(2)));
+        }
+
+        @Test
+        @DisplayName("Should not export on a node that is not the job leader")
+        void shouldSkipExportOffLeader() {
+            // Given
+            doNothing().when(jobs).runSingleton(eq("edge-bundle"), any());
+
+            // When
+            edgeBundleService.generateBundle();
+
+            // Then
+            verifyNoInteractions(repository, changeRepository);
+            assertFalse(Files.exists(directory.resolve(EdgeBundleService.BUNDLE_FILE)));
+        }
+
+        @Test
+        @DisplayName("Should reject a full rebuild interval below one run")
+        void shouldRejectZeroFullRebuildInterval() {
+            // Given
+            setField("fullRebuildEvery", 0);
+
+            // When/Then
+            assertThrows(IllegalStateException.class, () -> edgeBundleService.validate());
+        }
+    }
+
+    @Nested
+    @DisplayName("Incremental Run Tests")
+    class IncrementalRunTests {
+
+        @BeforeEach
+        void fullRun() {
+            when(repository.findCacheableActiveMappingsAfter(anyCollection(), any(Instant.class), any(), any()))
+                    .thenReturn(List.of(
+                            mapping("abc123", "https://example.com/1"),
+                            mapping("keep12", "https://example.com/keep")));
+            edgeBundleService.generateBundle();
+        }
+
+        @Test
+        @DisplayName("Should only fetch rows changed since the latest update read, less the margin")
+        void shouldFetchChangesSinceWatermark() throws Exception {
+            // Given
+            when(repository.findUpdatedMappingsAfter(any(Instant.class), any(), any()))
+                    .thenReturn(List.of(mapping("def456", "https://example.com/2")));
+
+            // When
+            edgeBundleService.generateBundle();
+
+            // Then
+            verify(repository, times(1))
+                    .findCacheableActiveMappingsAfter(anyCollection(), any(Instant.class), any(), any());
+            verify(repository).findUpdatedMappingsAfter(eq(UPDATED_AT.minus(Duration.ofMinutes(1))), any(), any());
+            String bundle = Files.readString(directory.resolve(EdgeBundleService.BUNDLE_FILE));
+            assertTrue(bundle.contains("/abc123 "));
+            assertTrue(bundle.contains("/def456 "));
+        }
+
+        @Test
+        @DisplayName("Should drop deleted links and links that are no longer cacheable")
+        void shouldDropDeletedAndUncacheableLinks() throws Exception {
+            // Given
+            when(changeRepository.findByChangeTypeAndChangedAtAfter(eq(ChangeType.DELETED), any(Instant.class)))
+                    .thenReturn(List.of(UrlMappingChange.builder()
+                            .shortCode("abc123")
+                            .changeType(ChangeType.DELETED)
+                            .changedAt(UPDATED_AT)
+                            .build()));
+            UrlMapping noLongerCacheable = mapping(
+                    "keep12", "https://example.com/keep", RedirectPolicy.NO_STORE, UPDATED_AT.plusSeconds(5));
+            when(repository.findUpdatedMappingsAfter(any(Instant.class), any(), any()))
+                    .thenReturn(List.of(noLongerCacheable));
+
+            // When
+            edgeBundleService.generateBundle();
+
+            // Then
+            assertEquals("", Files.readString(directory.resolve(EdgeBundleService.BUNDLE_FILE)));
+        }
+    }
+}
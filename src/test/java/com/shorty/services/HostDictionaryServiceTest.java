@@ -0,0 +1,135 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.shorty.caches.HostDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class HostDictionaryServiceTest {
+
+    private static final String PREFIX = "https://shop.example.com";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private HostDictionaryService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new HostDictionaryService(jdbcTemplate, new SimpleMeterRegistry(), true, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer known prefixes from memory")
+    void shouldAnswerKnownPrefixesFromMemory() {
+        // Given
+        service.getDictionary().register(7, PREFIX);
+
+        // When / Then
+        assertEquals(7, service.intern(PREFIX));
+        assertEquals(PREFIX, service.prefix(7));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should not add a prefix whose transaction rolled back")
+    void shouldNotAddPrefixOnRollback() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(HostDictionary.NONE, service.intern(PREFIX));
+
+        // When
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        service.internPending();
+
+        // Then
+        verifyNoInteractions(jdbcTemplate);
+        assertEquals(HostDictionary.NONE, service.getDictionary().idOf(PREFIX));
+    }
+
+    @Test
+    @DisplayName("Should add a prefix in a batch once its transaction commits")
+    void shouldAddPrefixAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(HostDictionary.NONE, service.intern(PREFIX));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        when(jdbcTemplate.query(
+                        anyString(),
+                        ArgumentMatchers.<RowMapper<Map.Entry<Integer, String>>>any(),
+                        eq((Object) new String[] {PREFIX})))
+                .thenReturn(List.of(Map.entry(12, PREFIX)));
+
+        // When
+        service.internPending();
+        service.internPending();
+
+        // Then
+        verify(jdbcTemplate).update(anyString(), eq((Object) new String[] {PREFIX}));
+        assertEquals(12, service.intern(PREFIX));
+        assertEquals(PREFIX, service.prefix(12));
+    }
+
+    @Test
+    @DisplayName("Should fetch prefixes added by other nodes in one query")
+    void shouldFetchUnknownPrefixesInOneQuery() {
+        // Given
+        service.getDictionary().register(7, PREFIX);
+        when(jdbcTemplate.query(
+                        anyString(),
+                        ArgumentMatchers.<RowMapper<Map.Entry<Integer, String>>>any(),
+                        eq(0),
+                        eq(8),
+                        eq(8),
+                        eq(100)))
+                .thenReturn(List.of(Map.entry(8, "https://a.example.com"), Map.entry(9, "https://b.example.com")));
+
+        // When
+        String first = service.prefix(8);
+        String second = service.prefix(9);
+
+        // Then
+        assertEquals("https://a.example.com", first);
+        assertEquals("https://b.example.com", second);
+        verify(jdbcTemplate, times(1))
+                .query(
+                        anyString(),
+                        ArgumentMatchers.<RowMapper<Map.Entry<Integer, String>>>any(),
+                        eq(0),
+                        eq(8),
+                        eq(8),
+                        eq(100));
+    }
+
+    @Test
+    @DisplayName("Should fail on an id the table does not have")
+    void shouldFailOnUnknownId() {
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> service.prefix(42));
+    }
+}
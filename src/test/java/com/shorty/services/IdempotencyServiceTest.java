@@ -0,0 +1,203 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.shorty.dtos.requests.CreateUrlRequest;
+import com.shorty.dtos.responses.UrlResponse;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import com.shorty.exceptions.AliasAlreadyExistsException;
+import com.shorty.exceptions.IdempotencyConflictException;
+import com.shorty.exceptions.IdempotencyKeyMismatchException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import tools.jackson.databind.json.JsonMapper;
+
+class IdempotencyServiceTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final CreateUrlRequest REQUEST =
+            new CreateUrlRequest("https://example.com", null, null, null, null, null);
+
+    private final MutableClock clock = new MutableClock();
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(clock, 100);
+    private final IdempotencyService service = new IdempotencyService(
+            store,
+            JsonMapper.builder().build(),
+            new SimpleMeterRegistry(),
+            Duration.ofHours(1),
+            Duration.ofSeconds(30));
+    private final AtomicInteger creations = new AtomicInteger();
+
+    private UrlResponse create() {
+        return new UrlResponse(
+                UUID.randomUUID(),
+                "abc" + creations.incrementAndGet(),
+                "http://localhost:8080/abc",
+                "https://example.com",
+                0L,
+                TrackingPolicy.EXACT,
+                false,
+                null,
+                RedirectPolicy.NO_STORE,
+                Instant.parse("2026-01-01T00:00:00Z"),
+                Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response without creating again")
+    void shouldReplayStoredResponse() {
+        // Given
+        IdempotencyService.Result first = service.execute(USER_ID, "key-1", REQUEST, this::create);
+
+        // When
+        IdempotencyService.Result replay = service.execute(USER_ID, "key-1", REQUEST, this::create);
+
+        // Then
+        assertFalse(first.replayed());
+        assertTrue(replay.replayed());
+        assertEquals(first.response(), replay.response());
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    @DisplayName("Should scope keys to the calling user")
+    void shouldScopeKeysToUser() {
+        // Given
+        service.execute(USER_ID, "key-1", REQUEST, this::create);
+
+        // When
+        IdempotencyService.Result other = service.execute(UUID.randomUUID(), "key-1", REQUEST, this::create);
+
+        // Then
+        assertFalse(other.replayed());
+        assertEquals(2, creations.get());
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused with a different request")
+    void shouldRejectKeyReusedWithDifferentRequest() {
+        // Given
+        service.execute(USER_ID, "key-1", REQUEST, this::create);
+        CreateUrlRequest different = new CreateUrlRequest("https://example.org", null, null, null, null, null);
+
+        // When/Then
+        assertThrows(
+                IdempotencyKeyMismatchException.class,
+                () -> service.execute(USER_ID, "key-1", different, this::create));
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    @DisplayName("Should reject a duplicate while the first request is still running")
+    void shouldRejectDuplicateWhileInFlight() {
+        // When/Then
+        service.execute(USER_ID, "key-1", REQUEST, () -> {
+            assertThrows(
+                    IdempotencyConflictException.class,
+                    () -> service.execute(USER_ID, "key-1", REQUEST, this::create));
+            return create();
+        });
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    @DisplayName("Should release the key when creation fails")
+    void shouldReleaseKeyWhenCreationFails() {
+        // Given
+        assertThrows(
+                AliasAlreadyExistsException.class,
+                () -> service.execute(USER_ID, "key-1", REQUEST, () -> {
+                    throw new AliasAlreadyExistsException("Alias already exists");
+                }));
+
+        // When
+        IdempotencyService.Result retry = service.execute(USER_ID, "key-1", REQUEST, this::create);
+
+        // Then
+        assertFalse(retry.replayed());
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    @DisplayName("Should run again once the stored response has expired")
+    void shouldRunAgainAfterExpiry() {
+        // Given
+        service.execute(USER_ID, "key-1", REQUEST, this::create);
+        clock.advance(Duration.ofHours(2));
+
+        // When
+        IdempotencyService.Result result = service.execute(USER_ID, "key-1", REQUEST, this::create);
+
+        // Then
+        assertFalse(result.replayed());
+        assertEquals(2, creations.get());
+    }
+
+    @Test
+    @DisplayName("Should return the created response when storing it fails")
+    void shouldReturnResponseWhenCompleteFails() {
+        // Given
+        InMemoryIdempotencyStore failingStore = new InMemoryIdempotencyStore(clock, 100) {
+            @Override
+            public void complete(String key, String responseBody, Duration ttl) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+        };
+        IdempotencyService failing = new IdempotencyService(
+                failingStore,
+                JsonMapper.builder().build(),
+                new SimpleMeterRegistry(),
+                Duration.ofHours(1),
+                Duration.ofSeconds(30));
+
+        // When
+        IdempotencyService.Result result = failing.execute(USER_ID, "key-1", REQUEST, this::create);
+
+        // Then
+        assertFalse(result.replayed());
+        assertEquals("abc1", result.response().shortCode());
+        assertThrows(
+                IdempotencyConflictException.class,
+                () -> failing.execute(USER_ID, "key-1", REQUEST, this::create));
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    @DisplayName("Should reject blank keys")
+    void shouldRejectBlankKeys() {
+        assertThrows(IllegalArgumentException.class, () -> service.execute(USER_ID, " ", REQUEST, this::create));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class JobCoordinatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private LeaderElection leaderElection;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Nested
+    @DisplayName("Work Unit Tests")
+    class WorkUnitTests {
+
+        @Test
+        @DisplayName("Should split the hash space into contiguous ranges")
+        void shouldCoverHashSpace() {
+            for (int partitions : new int[] {1, 3, 16}) {
+                long expectedLow = Integer.MIN_VALUE;
+                for (int partition = 0; partition < partitions; partition++) {
+                    JobCoordinator.WorkUnit unit = new JobCoordinator.WorkUnit(partition, partitions);
+                    assertEquals(expectedLow, unit.lowHash());
+                    assertTrue(unit.highHash() >= unit.lowHash());
+                    expectedLow = unit.highHash() + 1L;
+                }
+                assertEquals(Integer.MAX_VALUE + 1L, expectedLow);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Singleton Job Tests")
+    class SingletonJobTests {
+
+        @Test
+        @DisplayName("Should run a singleton job only on the leader")
+        void shouldRunOnlyOnLeader() {
+            // Given
+            JobCoordinator coordinator = new JobCoordinator(jdbcTemplate, leaderElection, meterRegistry, true);
+            List<String> runs = new ArrayList<>();
+            when(leaderElection.isLeader()).thenReturn(false, true);
+
+            // When
+            coordinator.runSingleton("prune", () -> runs.add("first"));
+            coordinator.runSingleton("prune", () -> runs.add("second"));
+
+            // Then
+            assertEquals(List.of("second"), runs);
+            assertEquals(1, meterRegistry.get("shorty.jobs.skipped").tag("job", "prune").counter().count());
+            assertEquals(1, meterRegistry.get("shorty.jobs.runs").tag("outcome", "completed").timer().count());
+        }
+
+        @Test
+        @DisplayName("Should record a failed run without throwing")
+        void shouldRecordFailure() {
+            // Given
+            JobCoordinator coordinator = new JobCoordinator(jdbcTemplate, leaderElection, meterRegistry, true);
+            when(leaderElection.isLeader()).thenReturn(true);
+
+            // When
+            assertDoesNotThrow(() -> coordinator.runSingleton("prune", () -> {
+                throw new IllegalStateException("boom");
+            }));
+
+            // Then
+            assertEquals(1, meterRegistry.get("shorty.jobs.runs").tag("outcome", "failed").timer().count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Partitioned Job Tests")
+    class PartitionedJobTests {
+
+        @Test
+        @DisplayName("Should process every partition inline when coordination is disabled")
+        void shouldRunInlineWhenDisabled() {
+            // Given
+            JobCoordinator coordinator = new JobCoordinator(jdbcTemplate, leaderElection, meterRegistry, false);
+            List<Integer> partitions = new ArrayList<>();
+            coordinator.register("cleanup", 4, unit -> {
+                partitions.add(unit.partition());
+                return 1;
+            });
+
+            // When
+            coordinator.submit("cleanup");
+
+            // Then
+            assertEquals(List.of(0, 1, 2, 3), partitions);
+            verifyNoInteractions(jdbcTemplate, leaderElection);
+        }
+
+        @Test
+        @DisplayName("Should leave starting a run to the leader")
+        void shouldNotStartRunWhenNotLeader() {
+            // Given
+            JobCoordinator coordinator = new JobCoordinator(jdbcTemplate, leaderElection, meterRegistry, true);
+            coordinator.register("cleanup", 4, unit -> 0);
+            when(leaderElection.isLeader()).thenReturn(false);
+
+            // When
+            coordinator.submit("cleanup");
+
+            // Then
+            verifyNoInteractions(jdbcTemplate);
+        }
+
+        @Test
+        @DisplayName("Should reject unknown partitioned jobs")
+        void shouldRejectUnknownJob() {
+            JobCoordinator coordinator = new JobCoordinator(jdbcTemplate, leaderElection, meterRegistry, true);
+
+            assertThrows(IllegalArgumentException.class, () -> coordinator.submit("unknown"));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.shorty.caches.LocalRedirectSource;
+import com.shorty.caches.RedirectTarget;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import com.shorty.exceptions.LookupUnavailableException;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RedirectTargetResolverTest {
+
+    @Mock
+    private RedirectTargetLoader loader;
+
+    @Mock
+    private LocalRedirectSource localSource;
+
+    private RedirectTargetResolver resolver;
+
+    private final RedirectTarget target = new RedirectTarget(
+            "https://example.com", null, RedirectPolicy.NO_STORE, TrackingPolicy.EXACT, null, 0L);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        resolver = new RedirectTargetResolver(loader, List.of(localSource));
+        Field missWait = RedirectTargetResolver.class.getDeclaredField("missWait");
+        missWait.setAccessible(true);
+        missWait.set(resolver, Duration.ofMillis(100));
+    }
+
+    @Test
+    @DisplayName("Should answer from a ready local source without touching the database")
+    void shouldAnswerFromReadyLocalSource() {
+        // Given
+        when(localSource.isReady()).thenReturn(true);
+        when(localSource.find("abc123")).thenReturn(Optional.of(target));
+
+        // When
+        Optional<RedirectTarget> result = resolver.resolve("abc123");
+
+        // Then
+        assertEquals(Optional.of(target), result);
+        verifyNoInteractions(loader);
+    }
+
+    @Test
+    @DisplayName("Should check the database when a ready local source misses and does not catch up in time")
+    void shouldCheckDatabaseOnLocalMiss() {
+        // Given
+        when(localSource.isReady()).thenReturn(true);
+        when(localSource.find("abc123")).thenReturn(Optional.empty());
+        when(localSource.awaitCaughtUp(any(), any())).thenReturn(false);
+        when(loader.load("abc123")).thenReturn(Optional.of(target));
+
+        // When
+        Optional<RedirectTarget> result = resolver.resolve("abc123");
+
+        // Then
+        assertEquals(Optional.of(target), result);
+    }
+
+    @Test
+    @DisplayName("Should treat a miss as final once the local source has caught up past the request")
+    void shouldTrustMissOnceLocalSourceCaughtUp() {
+        // Given
+        when(localSource.isReady()).thenReturn(true);
+        when(localSource.find("abc123")).thenReturn(Optional.empty());
+        when(localSource.awaitCaughtUp(any(), any())).thenReturn(true);
+
+        // When
+        Optional<RedirectTarget> result = resolver.resolve("abc123");
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(loader);
+    }
+
+    @Test
+    @DisplayName("Should answer a code that arrived while waiting for the local source to catch up")
+    void shouldAnswerCodeAppliedWhileCatchingUp() {
+        // Given
+        when(localSource.isReady()).thenReturn(true);
+        when(localSource.find("abc123")).thenReturn(Optional.empty()).thenReturn(Optional.of(target));
+        when(localSource.awaitCaughtUp(any(), any())).thenReturn(true);
+
+        // When
+        Optional<RedirectTarget> result = resolver.resolve("abc123");
+
+        // Then
+        assertEquals(Optional.of(target), result);
+        verifyNoInteractions(loader);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the database when no local source is ready")
+    void shouldFallBackToDatabaseWhenLocalSourceNotReady() {
+        // Given
+        when(localSource.isReady()).thenReturn(false);
+        when(loader.load("abc123")).thenReturn(Optional.of(target));
+
+        // When
+        Optional<RedirectTarget> result = resolver.resolve("abc123");
+
+        // Then
+        assertEquals(Optional.of(target), result);
+        verify(localSource, never()).find("abc123");
+    }
+
+    @Test
+    @DisplayName("Should serve a stale local hit when the database is unavailable")
+    void shouldServeStaleLocalHitWhenDatabaseUnavailable() {
+        // Given
+        when(localSource.isReady()).thenReturn(false);
+        when(localSource.isLoaded()).thenReturn(true);
+        when(loader.load("abc123")).thenThrow(new LookupUnavailableException("Database is unavailable", 10));
+        when(localSource.find("abc123")).thenReturn(Optional.of(target));
+
+        // When
+        Optional<RedirectTarget> result = resolver.resolve("abc123");
+
+        // Then
+        assertEquals(Optional.of(target), result);
+    }
+
+    @Test
+    @DisplayName("Should skip a local source that has not loaded when the database is unavailable")
+    void shouldSkipUnloadedLocalSourceWhenDatabaseUnavailable() {
+        // Given
+        when(localSource.isReady()).thenReturn(false);
+        when(localSource.isLoaded()).thenReturn(false);
+        when(loader.load("abc123")).thenThrow(new LookupUnavailableException("Database is unavailable", 10));
+
+        // When / Then
+        assertThrows(LookupUnavailableException.class, () -> resolver.resolve("abc123"));
+        verify(localSource, never()).find("abc123");
+    }
+}
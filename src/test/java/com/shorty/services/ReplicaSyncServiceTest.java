@@ -0,0 +1,145 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.shorty.caches.HostDictionary;
+import com.shorty.caches.RedirectTarget;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import com.shorty.entities.UrlMapping;
+import com.shorty.mappers.UrlMapper;
+import com.shorty.repositories.UrlMappingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaSyncServiceTest {
+
+    @Mock
+    private UrlMappingRepository repository;
+
+    @Mock
+    private UrlMapper mapper;
+
+    @Mock
+    private ChangeLogTailer tailer;
+
+    @Mock
+    private ExpiryScheduler expiryScheduler;
+
+    @Mock
+    private HostDictionaryService hostDictionaryService;
+
+    @Mock
+    private RedirectTargetLoader loader;
+
+    private ReplicaSyncService replica;
+
+    @BeforeEach
+    void setUp() {
+        when(hostDictionaryService.getDictionary()).thenReturn(new HostDictionary());
+        replica = new ReplicaSyncService(
+                repository, mapper, tailer, expiryScheduler, hostDictionaryService, new SimpleMeterRegistry(), 16);
+        setField("maxStaleness", Duration.ofSeconds(30));
+        setField("loadPageSize", 100);
+        setField("expiredRetention", Duration.ofDays(2));
+
+        when(repository.findActiveMappingsAfter(any(), any(), any())).thenReturn(List.of());
+        replica.bulkLoad();
+    }
+
+    private void setField(String name, Object value) {
+        try {
+            Field field = ReplicaSyncService.class.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(replica, value);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to set up test fields", e);
+        }
+    }
+
+    private RedirectTarget target(Instant expiresAt) {
+        return new RedirectTarget(
+                "https://example.com", expiresAt, RedirectPolicy.NO_STORE, TrackingPolicy.EXACT, null, 0L);
+    }
+
+    @Test
+    @DisplayName("Should answer 410 from a ready replica for an expired code whose row is not deleted yet")
+    void shouldAnswerGoneForExpiredCode() {
+        // Given
+        when(tailer.getLastPolledAt()).thenReturn(Instant.now());
+        replica.onMappingUpserted("abc123", target(Instant.now().minusSeconds(60)));
+        replica.purgeExpired();
+        RedirectTargetResolver resolver = new RedirectTargetResolver(loader, List.of(replica));
+
+        // When
+        Optional<RedirectTarget> result = resolver.resolve("abc123");
+
+        // Then
+        assertTrue(replica.isReady());
+        assertTrue(result.orElseThrow().isExpired());
+        verifyNoInteractions(loader);
+    }
+
+    @Test
+    @DisplayName("Should drop a code once the change log reports its row deleted")
+    void shouldDropDeletedCode() {
+        // Given
+        replica.onMappingUpserted("abc123", target(Instant.now().minusSeconds(60)));
+
+        // When
+        replica.onMappingRemoved("abc123");
+
+        // Then
+        assertTrue(replica.find("abc123").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reload from the database after notifications were missed")
+    void shouldReloadOnInvalidateAll() {
+        // Given
+        replica.onMappingUpserted("gone12", target(null));
+        UrlMapping mapping = UrlMapping.builder().shortCode("abc123").build();
+        when(repository.findActiveMappingsAfter(any(), any(), any())).thenReturn(List.of(mapping));
+        when(mapper.toRedirectTarget(mapping)).thenReturn(target(null));
+
+        // When
+        replica.invalidateAll();
+
+        // Then
+        assertTrue(replica.find("gone12").isEmpty());
+        assertTrue(replica.find("abc123").isPresent());
+        verify(tailer).unsubscribe(replica);
+        verify(tailer, times(2)).subscribe(replica, 0L);
+    }
+
+    @Test
+    @DisplayName("Should only count polls that started after the current copy was swapped in")
+    void shouldAwaitPollsAfterLoad() throws Exception {
+        // Given
+        Instant loadedBefore = Instant.now();
+        replica.invalidateAll();
+        when(tailer.awaitPolledAfter(any(), any())).thenReturn(true);
+
+        // When
+        boolean caughtUp = replica.awaitCaughtUp(Instant.EPOCH, Duration.ofSeconds(1));
+
+        // Then
+        assertTrue(caughtUp);
+        verify(tailer).awaitPolledAfter(argThat(since -> !since.isBefore(loadedBefore)), eq(Duration.ofSeconds(1)));
+    }
+}
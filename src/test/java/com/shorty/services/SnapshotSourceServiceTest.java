@@ -0,0 +1,121 @@
+package com.shorty.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.shorty.caches.RedirectTarget;
+import com.shorty.entities.ChangeType;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
+import com.shorty.entities.UrlMapping;
+import com.shorty.entities.UrlMappingChange;
+import com.shorty.mappers.UrlMapper;
+import com.shorty.repositories.UrlMappingChangeRepository;
+import com.shorty.repositories.UrlMappingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SnapshotSourceServiceTest {
+
+    @Mock
+    private ChangeLogTailer tailer;
+
+    @Mock
+    private UrlMappingChangeRepository changeRepository;
+
+    @Mock
+    private UrlMappingRepository repository;
+
+    @Mock
+    private UrlMapper mapper;
+
+    @TempDir
+    private Path directory;
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to set up test fields", e);
+        }
+    }
+
+    private UrlMapping mapping(String shortCode) {
+        UrlMapping mapping = UrlMapping.builder().id(UUID.randomUUID()).shortCode(shortCode).build();
+        RedirectTarget target = new RedirectTarget(
+                "https://example.com/" + shortCode, null, RedirectPolicy.NO_STORE, TrackingPolicy.EXACT, null, 0L);
+        when(mapper.toRedirectTarget(mapping)).thenReturn(target);
+        return mapping;
+    }
+
+    @Test
+    @DisplayName("Should miss rather than fail before any snapshot is mapped")
+    void shouldMissBeforeSnapshotIsMapped() {
+        // Given
+        SnapshotSourceService service = new SnapshotSourceService(tailer, new SimpleMeterRegistry());
+
+        // When / Then
+        assertFalse(service.isLoaded());
+        assertFalse(service.isReady());
+        assertEquals(Optional.empty(), service.find("abc123"));
+    }
+
+    @Test
+    @DisplayName("Should drop a code deleted after the snapshot was written once the overlay catches up")
+    void shouldOverlayDeleteAfterSnapshotWasWritten() {
+        // Given
+        ChangeLogTailer changeLog = new ChangeLogTailer(changeRepository, repository, mapper);
+        setField(changeLog, "batchSize", 100);
+        setField(changeLog, "gapTimeout", Duration.ofMinutes(1));
+        setField(changeLog, "lookback", 0L);
+
+        SnapshotBuilderService builder = new SnapshotBuilderService(repository, mapper, changeLog);
+        setField(builder, "directory", directory);
+        setField(builder, "pageSize", 100);
+        setField(builder, "keep", 3);
+
+        SnapshotSourceService source = new SnapshotSourceService(changeLog, new SimpleMeterRegistry());
+        setField(source, "directory", directory);
+        setField(source, "maxStaleness", Duration.ofSeconds(30));
+
+        when(changeRepository.findMaxId()).thenReturn(5L);
+        when(repository.countActiveMappings(any())).thenReturn(2L);
+        List<UrlMapping> active = List.of(mapping("abc123"), mapping("def456"));
+        when(repository.findActiveMappingsAfter(any(), any(), any())).thenReturn(active);
+        builder.buildSnapshot();
+
+        UrlMappingChange deleted = UrlMappingChange.builder()
+                .id(6L)
+                .shortCode("abc123")
+                .changeType(ChangeType.DELETED)
+                .changedAt(Instant.now())
+                .build();
+        when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(5L), any())).thenReturn(List.of(deleted));
+        when(repository.findByShortCodeIn(List.of("abc123"))).thenReturn(List.of());
+
+        // When
+        source.reloadIfChanged();
+
+        // Then
+        assertTrue(source.isReady());
+        assertEquals(Optional.empty(), source.find("abc123"));
+        assertEquals("https://example.com/def456", source.find("def456").orElseThrow().originalUrl());
+    }
+}
@@ -2,16 +2,25 @@ package com.shorty.services;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import com.shorty.repositories.UrlMappingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.lang.reflect.Field;
 import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,95 +29,148 @@ class UrlCleanupServiceTest {
     @Mock
     private UrlMappingRepository repository;
 
+    @Mock
+    private MappingChangePublisher changePublisher;
+
+    @Mock
+    private ExpiryScheduler expiryScheduler;
+
+    @Mock
+    private JobCoordinator jobs;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private UrlMetrics metrics = new UrlMetrics(meterRegistry, ObservationRegistry.NOOP);
+
     @InjectMocks
     private UrlCleanupService urlCleanupService;
 
+    @BeforeEach
+    void setUp() {
+        setField("cleanupBatchSize", 2);
+        setField("maxPending", 4);
+    }
+
+    private void setField(String name, Object value) {
+        try {
+            Field field = UrlCleanupService.class.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(urlCleanupService, value);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to set up test fields", e);
+        }
+    }
+
     @Nested
     @DisplayName("Cleanup Expired URLs Tests")
     class CleanupExpiredUrlsTests {
 
+        private final JobCoordinator.WorkUnit unit = new JobCoordinator.WorkUnit(3, 16);
+
+        @Test
+        @DisplayName("Should hand the daily cleanup to the job coordinator")
+        void shouldSubmitCleanupJob() {
+            // When
+            urlCleanupService.cleanupExpiredUrls();
+
+            // Then
+            verify(jobs).submit(UrlCleanupService.CLEANUP_JOB);
+            verifyNoInteractions(repository);
+        }
+
         @Test
-        @DisplayName("Should cleanup expired URLs successfully")
-        void shouldCleanupExpiredUrlsSuccessfully() {
+        @DisplayName("Should cleanup expired URLs in a partition successfully")
+        void shouldCleanupPartitionSuccessfully() {
             // Given
-            long expiredCount = 5L;
             int deletedCount = 5;
 
-            when(repository.countExpiredMappings(any(Instant.class))).thenReturn(expiredCount);
-            when(repository.deleteExpiredMappings(any(Instant.class))).thenReturn(deletedCount);
+            when(repository.deleteExpiredMappingsInHashRange(
+                            any(Instant.class), eq(unit.lowHash()), eq(unit.highHash())))
+                    .thenReturn(deletedCount);
 
             // When
-            assertDoesNotThrow(() -> urlCleanupService.cleanupExpiredUrls());
+            long result = urlCleanupService.cleanupPartition(unit);
 
             // Then
-            verify(repository, times(1)).countExpiredMappings(any(Instant.class));
-            verify(repository, times(1)).deleteExpiredMappings(any(Instant.class));
+            assertEquals(deletedCount, result);
+            verify(changePublisher, times(1)).publishExpiredSweep();
+            assertEquals(deletedCount, meterRegistry.get("shorty.cleanup.deleted").counter().count());
+            assertEquals(1, meterRegistry.get("shorty.cleanup.duration").timer().count());
         }
 
         @Test
-        @DisplayName("Should handle no expired URLs gracefully")
+        @DisplayName("Should not notify other nodes when a partition had nothing to delete")
         void shouldHandleNoExpiredUrlsGracefully() {
             // Given
-            long expiredCount = 0L;
-
-            when(repository.countExpiredMappings(any(Instant.class))).thenReturn(expiredCount);
+            when(repository.deleteExpiredMappingsInHashRange(any(Instant.class), anyInt(), anyInt())).thenReturn(0);
 
             // When
-            assertDoesNotThrow(() -> urlCleanupService.cleanupExpiredUrls());
+            long result = urlCleanupService.cleanupPartition(unit);
 
             // Then
-            verify(repository, times(1)).countExpiredMappings(any(Instant.class));
-            verify(repository, never()).deleteExpiredMappings(any());
+            assertEquals(0, result);
+            verify(changePublisher, never()).publishExpiredSweep();
         }
 
         @Test
-        @DisplayName("Should handle mismatch between count and delete")
-        void shouldHandleMismatchBetweenCountAndDelete() {
+        @DisplayName("Should let repository exceptions reach the coordinator so the partition is retried")
+        void shouldPropagateRepositoryException() {
             // Given
-            long expiredCount = 10L;
-            int deletedCount = 8;
+            when(repository.deleteExpiredMappingsInHashRange(any(Instant.class), anyInt(), anyInt()))
+                    .thenThrow(new RuntimeException("Deletion error"));
 
-            when(repository.countExpiredMappings(any(Instant.class))).thenReturn(expiredCount);
-            when(repository.deleteExpiredMappings(any(Instant.class))).thenReturn(deletedCount);
+            // When/Then
+            assertThrows(RuntimeException.class, () -> urlCleanupService.cleanupPartition(unit));
+            verify(changePublisher, never()).publishExpiredSweep();
+        }
+    }
+
+    @Nested
+    @DisplayName("Incremental Cleanup Tests")
+    class IncrementalCleanupTests {
+
+        @Test
+        @DisplayName("Should delete codes fired by the expiry scheduler in chunks")
+        void shouldDeleteExpiredCodesInChunks() {
+            // Given
+            urlCleanupService.onExpired(List.of("aaa", "bbb", "ccc"));
+            when(repository.deleteExpiredByShortCodes(anyCollection(), any(Instant.class))).thenReturn(2, 1);
 
             // When
-            assertDoesNotThrow(() -> urlCleanupService.cleanupExpiredUrls());
+            urlCleanupService.cleanupExpiredCodes();
 
             // Then
-            verify(repository, times(1)).countExpiredMappings(any(Instant.class));
-            verify(repository, times(1)).deleteExpiredMappings(any(Instant.class));
+            verify(repository).deleteExpiredByShortCodes(eq(List.of("aaa", "bbb")), any(Instant.class));
+            verify(repository).deleteExpiredByShortCodes(eq(List.of("ccc")), any(Instant.class));
+            verify(changePublisher, never()).publishExpiredSweep();
+            assertEquals(3, meterRegistry.get("shorty.cleanup.deleted").counter().count());
         }
 
         @Test
-        @DisplayName("Should handle repository exception gracefully")
-        void shouldHandleRepositoryExceptionGracefully() {
+        @DisplayName("Should leave codes to the daily cleanup when the queue is full")
+        void shouldDropCodesWhenQueueIsFull() {
             // Given
-            when(repository.countExpiredMappings(any(Instant.class))).thenThrow(new RuntimeException("Database error"));
+            urlCleanupService.onExpired(List.of("aaa", "bbb", "ccc"));
+            urlCleanupService.onExpired(List.of("ddd", "eee"));
+            when(repository.deleteExpiredByShortCodes(anyCollection(), any(Instant.class))).thenReturn(2, 1);
 
             // When
-            assertDoesNotThrow(() -> urlCleanupService.cleanupExpiredUrls());
+            urlCleanupService.cleanupExpiredCodes();
 
             // Then
-            verify(repository, times(1)).countExpiredMappings(any(Instant.class));
-            verify(repository, never()).deleteExpiredMappings(any());
+            verify(repository, times(2)).deleteExpiredByShortCodes(anyCollection(), any(Instant.class));
+            verify(repository, never()).deleteExpiredByShortCodes(eq(List.of("ddd", "eee")), any(Instant.class));
         }
 
         @Test
-        @DisplayName("Should handle exception during deletion gracefully")
-        void shouldHandleExceptionDuringDeletionGracefully() {
-            // Given
-            long expiredCount = 5L;
-
-            when(repository.countExpiredMappings(any(Instant.class))).thenReturn(expiredCount);
-            when(repository.deleteExpiredMappings(any(Instant.class)))
-                    .thenThrow(new RuntimeException("Deletion error"));
-
+        @DisplayName("Should not touch the database when nothing has expired")
+        void shouldSkipWhenNothingQueued() {
             // When
-            assertDoesNotThrow(() -> urlCleanupService.cleanupExpiredUrls());
+            urlCleanupService.cleanupExpiredCodes();
 
             // Then
-            verify(repository, times(1)).countExpiredMappings(any(Instant.class));
-            verify(repository, times(1)).deleteExpiredMappings(any(Instant.class));
+            verifyNoInteractions(repository);
         }
     }
 
@@ -117,20 +179,17 @@ class UrlCleanupServiceTest {
     class ConcurrentOperationsTests {
 
         @Test
-        @DisplayName("Should handle concurrent cleanup operations")
+        @DisplayName("Should handle partitions cleaned up concurrently")
         void shouldHandleConcurrentCleanupOperations() throws InterruptedException {
             // Given
-            long expiredCount = 10L;
             int deletedCount = 10;
 
-            when(repository.countExpiredMappings(any(Instant.class))).thenReturn(expiredCount);
-            when(repository.deleteExpiredMappings(any(Instant.class))).thenReturn(deletedCount);
+            when(repository.deleteExpiredMappingsInHashRange(any(Instant.class), anyInt(), anyInt()))
+                    .thenReturn(deletedCount);
 
             // When
-            Runnable task = () -> urlCleanupService.cleanupExpiredUrls();
-
-            Thread thread1 = new Thread(task);
-            Thread thread2 = new Thread(task);
+            Thread thread1 = new Thread(() -> urlCleanupService.cleanupPartition(new JobCoordinator.WorkUnit(0, 2)));
+            Thread thread2 = new Thread(() -> urlCleanupService.cleanupPartition(new JobCoordinator.WorkUnit(1, 2)));
 
             thread1.start();
             thread2.start();
@@ -139,8 +198,8 @@ class UrlCleanupServiceTest {
             thread2.join();
 
             // Then - Both should complete without exceptions
-            verify(repository, times(2)).countExpiredMappings(any(Instant.class));
-            verify(repository, times(2)).deleteExpiredMappings(any(Instant.class));
+            verify(repository, times(2)).deleteExpiredMappingsInHashRange(any(Instant.class), anyInt(), anyInt());
+            assertEquals(2 * deletedCount, meterRegistry.get("shorty.cleanup.deleted").counter().count());
         }
     }
 }
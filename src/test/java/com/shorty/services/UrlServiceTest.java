@@ -2,13 +2,19 @@ package com.shorty.services;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
 import static org.mockito.Mockito.*;
 
+import com.shorty.caches.RedirectTarget;
 import com.shorty.dtos.requests.CreateUrlRequest;
 import com.shorty.dtos.responses.PageResponse;
 import com.shorty.dtos.responses.RedirectResponse;
 import com.shorty.dtos.responses.UrlResponse;
+import com.shorty.entities.RedirectPolicy;
+import com.shorty.entities.TrackingPolicy;
 import com.shorty.entities.UrlMapping;
 import com.shorty.exceptions.AliasAlreadyExistsException;
 import com.shorty.exceptions.UrlExpiredException;
@@ -16,12 +22,17 @@ import com.shorty.exceptions.UrlNotFoundException;
 import com.shorty.mappers.UrlMapper;
 import com.shorty.repositories.UrlMappingRepository;
 import com.shorty.utils.ShortCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import java.lang.reflect.Field;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -30,6 +41,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -48,6 +60,32 @@ class UrlServiceTest {
     @Mock
     private UrlMapper mapper;
 
+    @Mock
+    private RedirectTargetResolver targetResolver;
+
+    @Mock
+    private MappingChangePublisher changePublisher;
+
+    @Mock
+    private ClickRecorder clickRecorder;
+
+    @Mock
+    private AccessLog accessLog;
+
+    @Mock
+    private CodeSpaceMonitor codeSpaceMonitor;
+
+    @Spy
+    private TombstoneCache tombstones = new TombstoneCache(Clock.systemUTC(), true, Duration.ofMinutes(1), 1000);
+
+    @Spy
+    private RedirectRules redirectRules = new RedirectRules();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private UrlMetrics metrics = new UrlMetrics(meterRegistry, ObservationRegistry.NOOP);
+
     @InjectMocks
     private UrlService urlService;
 
@@ -69,6 +107,18 @@ class UrlServiceTest {
             Field defaultExpirationField = UrlService.class.getDeclaredField("defaultExpirationHours");
             defaultExpirationField.setAccessible(true);
             defaultExpirationField.set(urlService, 8760); // 1 year in hours
+
+            Field defaultTrackingPolicyField = UrlService.class.getDeclaredField("defaultTrackingPolicy");
+            defaultTrackingPolicyField.setAccessible(true);
+            defaultTrackingPolicyField.set(urlService, TrackingPolicy.EXACT);
+
+            Field defaultSampleRateField = UrlService.class.getDeclaredField("defaultSampleRate");
+            defaultSampleRateField.setAccessible(true);
+            defaultSampleRateField.set(urlService, 100);
+
+            Field rulesSampleRateField = RedirectRules.class.getDeclaredField("defaultSampleRate");
+            rulesSampleRateField.setAccessible(true);
+            rulesSampleRateField.set(redirectRules, 100);
         } catch (Exception e) {
             throw new RuntimeException("Failed to set up test fields", e);
         }
@@ -82,7 +132,7 @@ class UrlServiceTest {
         @DisplayName("Should create short URL when valid input")
         void shouldCreateShortUrlWhenValidInput() {
             // Given
-            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null);
+            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null, null, null, null);
             String shortCode = "abc123";
             Instant expectedExpiration = Instant.now().plus(8760, ChronoUnit.HOURS);
             UrlMapping mapping = UrlMapping.builder()
@@ -96,6 +146,10 @@ class UrlServiceTest {
                     "http://localhost:8080/abc123",
                     "https://example.com",
                     0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     expectedExpiration,
                     Instant.now());
 
@@ -120,7 +174,7 @@ class UrlServiceTest {
         void shouldCreateShortUrlWithCustomAliasWhenValid() {
             // Given
             String customAlias = "myalias";
-            CreateUrlRequest request = new CreateUrlRequest("https://example.com", customAlias, null);
+            CreateUrlRequest request = new CreateUrlRequest("https://example.com", customAlias, null, null, null, null);
             Instant expectedExpiration = Instant.now().plus(8760, ChronoUnit.HOURS);
             UrlMapping mapping = UrlMapping.builder()
                     .shortCode(customAlias)
@@ -133,6 +187,10 @@ class UrlServiceTest {
                     "http://localhost:8080/myalias",
                     "https://example.com",
                     0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     expectedExpiration,
                     Instant.now());
 
@@ -157,7 +215,8 @@ class UrlServiceTest {
         void shouldThrowExceptionWhenInvalidCustomAlias() {
             // Given
             String invalidAlias = "invalid alias";
-            CreateUrlRequest request = new CreateUrlRequest("https://example.com", invalidAlias, null);
+            CreateUrlRequest request =
+                    new CreateUrlRequest("https://example.com", invalidAlias, null, null, null, null);
 
             when(codeGenerator.isValidAlias(invalidAlias)).thenReturn(false);
 
@@ -172,7 +231,8 @@ class UrlServiceTest {
         void shouldThrowExceptionWhenAliasAlreadyExists() {
             // Given
             String existingAlias = "existing";
-            CreateUrlRequest request = new CreateUrlRequest("https://example.com", existingAlias, null);
+            CreateUrlRequest request =
+                    new CreateUrlRequest("https://example.com", existingAlias, null, null, null, null);
 
             when(codeGenerator.isValidAlias(existingAlias)).thenReturn(true);
             when(repository.existsByShortCode(existingAlias)).thenReturn(true);
@@ -188,7 +248,7 @@ class UrlServiceTest {
         @DisplayName("Should throw exception when max retry attempts exceeded")
         void shouldThrowExceptionWhenMaxRetryAttemptsExceeded() {
             // Given
-            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null);
+            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null, null, null, null);
             String collidingCode = "collide";
 
             when(codeGenerator.generate()).thenReturn(collidingCode);
@@ -199,6 +259,150 @@ class UrlServiceTest {
             verify(codeGenerator, times(maxRetryAttempts)).generate();
             verify(repository, times(maxRetryAttempts)).existsByShortCode(collidingCode);
             verify(repository, never()).save(any(UrlMapping.class));
+            assertEquals(maxRetryAttempts, meterRegistry.get("shorty.shortcode.collisions").counter().count());
+            assertEquals(1, meterRegistry.get("shorty.shortcode.exhausted").counter().count());
+            assertEquals(
+                    1,
+                    meterRegistry
+                            .get("shorty.urls.create")
+                            .tag("outcome", "failed")
+                            .timer()
+                            .count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Destination Deduplication Tests")
+    class DeduplicationTests {
+
+        @BeforeEach
+        void enableDeduplication() throws Exception {
+            Field dedupField = UrlService.class.getDeclaredField("dedupEnabled");
+            dedupField.setAccessible(true);
+            dedupField.set(urlService, true);
+        }
+
+        @Test
+        @DisplayName("Should return the existing mapping for an equivalent destination")
+        void shouldReturnExistingMappingForEquivalentDestination() {
+            // Given
+            UUID userId = UUID.randomUUID();
+            CreateUrlRequest request = new CreateUrlRequest("HTTPS://Example.com:443", null, null, null, null, null);
+            UrlMapping existing = UrlMapping.builder()
+                    .shortCode("abc123")
+                    .originalUrl("https://example.com/")
+                    .userId(userId)
+                    .build();
+            UrlResponse expectedResponse = new UrlResponse(
+                    UUID.randomUUID(),
+                    "abc123",
+                    "http://localhost:8080/abc123",
+                    "https://example.com/",
+                    5L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
+                    null,
+                    Instant.now());
+
+            when(repository.findActiveByUserIdAndUrlHash(eq(userId), anyLong(), any(Instant.class)))
+                    .thenReturn(List.of(existing));
+            when(mapper.toResponse(existing, baseUrl)).thenReturn(expectedResponse);
+
+            // When
+            UrlResponse response = urlService.createShortUrl(request, userId);
+
+            // Then
+            assertSame(expectedResponse, response);
+            verify(repository, never()).save(any(UrlMapping.class));
+            verify(codeGenerator, never()).generate();
+        }
+
+        @Test
+        @DisplayName("Should create a new mapping when the hash matches a different destination")
+        void shouldCreateNewMappingOnHashCollision() {
+            // Given
+            UUID userId = UUID.randomUUID();
+            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null, null, null, null);
+            UrlMapping collision = UrlMapping.builder()
+                    .shortCode("xyz789")
+                    .originalUrl("https://example.org/")
+                    .userId(userId)
+                    .build();
+            UrlMapping saved = UrlMapping.builder()
+                    .shortCode("abc123")
+                    .originalUrl("https://example.com")
+                    .build();
+
+            when(repository.findActiveByUserIdAndUrlHash(eq(userId), anyLong(), any(Instant.class)))
+                    .thenReturn(List.of(collision));
+            when(codeGenerator.generate()).thenReturn("abc123");
+            when(repository.existsByShortCode("abc123")).thenReturn(false);
+            when(repository.save(any(UrlMapping.class))).thenReturn(saved);
+
+            // When
+            urlService.createShortUrl(request, userId);
+
+            // Then
+            verify(repository).save(argThat(mapping -> mapping.getUrlHash() != null));
+        }
+
+        @Test
+        @DisplayName("Should create a new mapping when the existing link redirects or counts clicks differently")
+        void shouldCreateNewMappingWhenSettingsDiffer() {
+            // Given
+            UUID userId = UUID.randomUUID();
+            CreateUrlRequest request = new CreateUrlRequest(
+                    "https://example.com", null, null, TrackingPolicy.SAMPLED, 50, RedirectPolicy.NO_STORE);
+            UrlMapping cached = UrlMapping.builder()
+                    .shortCode("xyz789")
+                    .originalUrl("https://example.com/")
+                    .userId(userId)
+                    .trackingPolicy(TrackingPolicy.SAMPLED)
+                    .sampleRate(50)
+                    .redirectPolicy(RedirectPolicy.MOVED_PERMANENTLY)
+                    .build();
+            UrlMapping otherRate = UrlMapping.builder()
+                    .shortCode("xyz790")
+                    .originalUrl("https://example.com/")
+                    .userId(userId)
+                    .trackingPolicy(TrackingPolicy.SAMPLED)
+                    .sampleRate(100)
+                    .build();
+
+            when(repository.findActiveByUserIdAndUrlHash(eq(userId), anyLong(), any(Instant.class)))
+                    .thenReturn(List.of(cached, otherRate));
+            when(codeGenerator.generate()).thenReturn("abc123");
+            when(repository.existsByShortCode("abc123")).thenReturn(false);
+            when(repository.save(any(UrlMapping.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            urlService.createShortUrl(request, userId);
+
+            // Then
+            verify(repository).save(argThat(mapping -> "abc123".equals(mapping.getShortCode())
+                    && mapping.getSampleRate() == 50
+                    && mapping.getRedirectPolicy() == RedirectPolicy.NO_STORE));
+        }
+
+        @Test
+        @DisplayName("Should not reuse a link when the request sets its own expiration")
+        void shouldNotReuseWhenExpirationRequested() {
+            // Given
+            UUID userId = UUID.randomUUID();
+            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, 24, null, null, null);
+
+            when(codeGenerator.generate()).thenReturn("abc123");
+            when(repository.existsByShortCode("abc123")).thenReturn(false);
+            when(repository.save(any(UrlMapping.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            urlService.createShortUrl(request, userId);
+
+            // Then
+            verify(repository, never()).findActiveByUserIdAndUrlHash(any(), anyLong(), any());
+            verify(repository).save(any(UrlMapping.class));
         }
     }
 
@@ -206,21 +410,21 @@ class UrlServiceTest {
     @DisplayName("Resolve and Track Tests")
     class ResolveAndTrackTests {
 
+        private RedirectTarget target(Instant expiresAt, TrackingPolicy trackingPolicy, Integer sampleRate) {
+            return new RedirectTarget(
+                    "https://example.com", expiresAt, RedirectPolicy.NO_STORE, trackingPolicy, sampleRate, 0L);
+        }
+
         @Test
         @DisplayName("Should resolve and track valid short code")
         void shouldResolveAndTrackValidShortCode() {
             // Given
             String shortCode = "valid123";
-            UrlMapping mapping = UrlMapping.builder()
-                    .shortCode(shortCode)
-                    .originalUrl("https://example.com")
-                    .expiresAt(Instant.now().plus(7, ChronoUnit.DAYS))
-                    .clickCount(0L)
-                    .build();
-            RedirectResponse expectedResponse = new RedirectResponse("https://example.com", 1L);
+            RedirectTarget target = target(Instant.now().plus(7, ChronoUnit.DAYS), TrackingPolicy.EXACT, null);
+            RedirectResponse expectedResponse =
+                    new RedirectResponse("https://example.com", 1L, RedirectPolicy.NO_STORE, null);
 
-            when(repository.findByShortCodeForUpdate(shortCode)).thenReturn(Optional.of(mapping));
-            when(repository.save(any(UrlMapping.class))).thenReturn(mapping);
+            when(targetResolver.resolve(shortCode)).thenReturn(Optional.of(target));
 
             // When
             RedirectResponse response = urlService.resolveAndTrack(shortCode);
@@ -229,7 +433,8 @@ class UrlServiceTest {
             assertNotNull(response);
             assertEquals(expectedResponse.originalUrl(), response.originalUrl());
             assertEquals(1, response.clickCount());
-            verify(repository, times(1)).save(mapping);
+            verify(clickRecorder, times(1)).record(shortCode, 1L);
+            verify(accessLog).redirect(eq(shortCode), eq(UrlMetrics.ResolveOutcome.FOUND), anyLong(), eq(1L));
         }
 
         @Test
@@ -238,11 +443,40 @@ class UrlServiceTest {
             // Given
             String nonExistentCode = "nonexist";
 
-            when(repository.findByShortCodeForUpdate(nonExistentCode)).thenReturn(Optional.empty());
+            when(targetResolver.resolve(nonExistentCode)).thenReturn(Optional.empty());
 
             // When/Then
             assertThrows(UrlNotFoundException.class, () -> urlService.resolveAndTrack(nonExistentCode));
-            verify(repository, never()).save(any(UrlMapping.class));
+            verify(clickRecorder, never()).record(anyString(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should time resolves by outcome")
+        void shouldTimeResolvesByOutcome() {
+            // Given
+            RedirectTarget active = target(Instant.now().plus(7, ChronoUnit.DAYS), TrackingPolicy.EXACT, null);
+            RedirectTarget expired = target(Instant.now().minus(1, ChronoUnit.DAYS), TrackingPolicy.EXACT, null);
+
+            when(targetResolver.resolve("found")).thenReturn(Optional.of(active));
+            when(targetResolver.resolve("expired")).thenReturn(Optional.of(expired));
+            when(targetResolver.resolve("missing")).thenReturn(Optional.empty());
+
+            // When
+            urlService.resolveAndTrack("found");
+            assertThrows(UrlExpiredException.class, () -> urlService.resolveAndTrack("expired"));
+            assertThrows(UrlNotFoundException.class, () -> urlService.resolveAndTrack("missing"));
+
+            // Then
+            for (String outcome : List.of("found", "expired", "not_found")) {
+                assertEquals(
+                        1,
+                        meterRegistry
+                                .get("shorty.redirect.resolve")
+                                .tag("outcome", outcome)
+                                .timer()
+                                .count(),
+                        outcome);
+            }
         }
 
         @Test
@@ -250,18 +484,104 @@ class UrlServiceTest {
         void shouldThrowExceptionWhenUrlExpired() {
             // Given
             String expiredCode = "expired";
-            UrlMapping expiredMapping = UrlMapping.builder()
-                    .shortCode(expiredCode)
-                    .originalUrl("https://example.com")
-                    .expiresAt(Instant.now().minus(1, ChronoUnit.DAYS))
-                    .clickCount(0L)
-                    .build();
+            RedirectTarget expiredTarget = target(Instant.now().minus(1, ChronoUnit.DAYS), TrackingPolicy.EXACT, null);
 
-            when(repository.findByShortCodeForUpdate(expiredCode)).thenReturn(Optional.of(expiredMapping));
+            when(targetResolver.resolve(expiredCode)).thenReturn(Optional.of(expiredTarget));
 
             // When/Then
             assertThrows(UrlExpiredException.class, () -> urlService.resolveAndTrack(expiredCode));
-            verify(repository, never()).save(any(UrlMapping.class));
+            verify(clickRecorder, never()).record(anyString(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should answer repeated expired lookups from a tombstone")
+        void shouldAnswerRepeatedExpiredLookupsFromTombstone() {
+            // Given
+            String expiredCode = "expired";
+            Instant expiresAt = Instant.now().minus(1, ChronoUnit.DAYS);
+            when(targetResolver.resolve(expiredCode))
+                    .thenReturn(Optional.of(target(expiresAt, TrackingPolicy.EXACT, null)));
+
+            // When
+            RedirectResult first = urlService.resolve(expiredCode);
+            RedirectResult second = urlService.resolve(expiredCode);
+
+            // Then
+            assertEquals(new RedirectResult.Expired(expiresAt), first);
+            assertSame(first, second);
+            verify(targetResolver, times(1)).resolve(expiredCode);
+        }
+
+        @Test
+        @DisplayName("Should look up again once the tombstone is invalidated")
+        void shouldLookUpAgainAfterTombstoneInvalidated() {
+            // Given
+            String code = "reused";
+            RedirectTarget expired = target(Instant.now().minus(1, ChronoUnit.DAYS), TrackingPolicy.EXACT, null);
+            RedirectTarget active = target(Instant.now().plus(1, ChronoUnit.DAYS), TrackingPolicy.EXACT, null);
+            when(targetResolver.resolve(code)).thenReturn(Optional.of(expired)).thenReturn(Optional.of(active));
+            urlService.resolve(code);
+
+            // When
+            tombstones.invalidate(Set.of(code));
+            RedirectResult result = urlService.resolve(code);
+
+            // Then
+            assertInstanceOf(RedirectResult.Found.class, result);
+        }
+
+        @Test
+        @DisplayName("Should return a shared not-found result without throwing")
+        void shouldReturnSharedNotFoundResult() {
+            // Given
+            when(targetResolver.resolve("missing")).thenReturn(Optional.empty());
+
+            // When
+            RedirectResult result = urlService.resolve("missing");
+
+            // Then
+            assertSame(RedirectResult.NOT_FOUND, result);
+        }
+
+        @Test
+        @DisplayName("Should skip counter update for untracked short code")
+        void shouldSkipCounterUpdateForUntrackedShortCode() {
+            // Given
+            String shortCode = "untracked";
+            RedirectTarget target = target(Instant.now().plus(7, ChronoUnit.DAYS), TrackingPolicy.UNTRACKED, null);
+
+            when(targetResolver.resolve(shortCode)).thenReturn(Optional.of(target));
+
+            // When
+            RedirectResponse response = urlService.resolveAndTrack(shortCode);
+
+            // Then
+            assertEquals("https://example.com", response.originalUrl());
+            assertEquals(0, response.clickCount());
+            verify(clickRecorder, never()).record(anyString(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Should only count sampled clicks scaled by the sample rate")
+        void shouldOnlyCountSampledClicksScaledBySampleRate() {
+            // Given
+            String shortCode = "sampled";
+            int sampleRate = 10;
+            RedirectTarget target = target(Instant.now().plus(7, ChronoUnit.DAYS), TrackingPolicy.SAMPLED, sampleRate);
+
+            when(targetResolver.resolve(shortCode)).thenReturn(Optional.of(target));
+            doReturn(true, false, false, true, false).when(redirectRules).sampled(sampleRate);
+
+            // When
+            List<Long> clickCounts = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                clickCounts.add(urlService.resolveAndTrack(shortCode).clickCount());
+            }
+
+            // Then
+            assertEquals(List.of(10L, 0L, 0L, 10L, 0L), clickCounts);
+            verify(clickRecorder, times(2)).record(shortCode, sampleRate);
+            verify(clickRecorder, never()).record(eq(shortCode), longThat(increment -> increment != sampleRate));
         }
     }
 
@@ -288,6 +608,10 @@ class UrlServiceTest {
                     "http://localhost:8080/details123",
                     "https://example.com",
                     5L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     Instant.now().plus(7, ChronoUnit.DAYS),
                     Instant.now());
 
@@ -367,7 +691,7 @@ class UrlServiceTest {
         @DisplayName("Should handle concurrent URL creation")
         void shouldHandleConcurrentUrlCreation() throws InterruptedException {
             // Given
-            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null);
+            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null, null, null, null);
             String shortCode = "concurrent123";
             Instant expectedExpiration = Instant.now().plus(8760, ChronoUnit.HOURS);
 
@@ -457,7 +781,8 @@ class UrlServiceTest {
         void shouldUseCustomExpirationTime() {
             // Given
             int customExpirationHours = 24;
-            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, customExpirationHours);
+            CreateUrlRequest request =
+                    new CreateUrlRequest("https://example.com", null, customExpirationHours, null, null, null);
             String shortCode = "customExp";
             Instant expectedExpiration = Instant.now().plusSeconds(customExpirationHours * 3600L);
 
@@ -473,6 +798,10 @@ class UrlServiceTest {
                     "http://localhost:8080/" + shortCode,
                     "https://example.com",
                     0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     expectedExpiration,
                     Instant.now());
 
@@ -494,7 +823,7 @@ class UrlServiceTest {
         @DisplayName("Should use default expiration time when not provided")
         void shouldUseDefaultExpirationTime() {
             // Given
-            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null);
+            CreateUrlRequest request = new CreateUrlRequest("https://example.com", null, null, null, null, null);
             String shortCode = "defaultExp";
             Instant expectedExpiration = Instant.now().plusSeconds(8760 * 3600L); // 1 year
 
@@ -510,6 +839,10 @@ class UrlServiceTest {
                     "http://localhost:8080/" + shortCode,
                     "https://example.com",
                     0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     expectedExpiration,
                     Instant.now());
 
@@ -537,7 +870,7 @@ class UrlServiceTest {
         void shouldHandleVeryLongUrls() {
             // Given
             String longUrl = "https://example.com/" + "a".repeat(2000);
-            CreateUrlRequest request = new CreateUrlRequest(longUrl, null, null);
+            CreateUrlRequest request = new CreateUrlRequest(longUrl, null, null, null, null, null);
             String shortCode = "longUrl";
 
             UrlMapping mapping = UrlMapping.builder()
@@ -552,6 +885,10 @@ class UrlServiceTest {
                     "http://localhost:8080/" + shortCode,
                     longUrl,
                     0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     Instant.now().plusSeconds(8760 * 3600L),
                     Instant.now());
 
@@ -574,7 +911,7 @@ class UrlServiceTest {
         void shouldHandleUrlsWithSpecialCharacters() {
             // Given
             String urlWithSpecialChars = "https://example.com/path?param=value&other=test#fragment";
-            CreateUrlRequest request = new CreateUrlRequest(urlWithSpecialChars, null, null);
+            CreateUrlRequest request = new CreateUrlRequest(urlWithSpecialChars, null, null, null, null, null);
             String shortCode = "specialChars";
 
             UrlMapping mapping = UrlMapping.builder()
@@ -589,6 +926,10 @@ class UrlServiceTest {
                     "http://localhost:8080/" + shortCode,
                     urlWithSpecialChars,
                     0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     Instant.now().plusSeconds(8760 * 3600L),
                     Instant.now());
 
@@ -612,15 +953,16 @@ class UrlServiceTest {
             // Given
             String shortCode = "Test123";
             String shortCodeLower = "test123";
-            UrlMapping mapping = UrlMapping.builder()
-                    .shortCode(shortCode)
-                    .originalUrl("https://example.com")
-                    .expiresAt(Instant.now().plusSeconds(8760 * 3600L))
-                    .userId(UUID.randomUUID())
-                    .build();
+            RedirectTarget target = new RedirectTarget(
+                    "https://example.com",
+                    Instant.now().plusSeconds(8760 * 3600L),
+                    RedirectPolicy.NO_STORE,
+                    TrackingPolicy.EXACT,
+                    null,
+                    0L);
 
-            when(repository.findByShortCodeForUpdate(shortCode)).thenReturn(Optional.of(mapping));
-            when(repository.findByShortCodeForUpdate(shortCodeLower)).thenReturn(Optional.empty());
+            when(targetResolver.resolve(shortCode)).thenReturn(Optional.of(target));
+            when(targetResolver.resolve(shortCodeLower)).thenReturn(Optional.empty());
 
             // When/Then - Original case should work
             assertDoesNotThrow(() -> urlService.resolveAndTrack(shortCode));
@@ -687,6 +1029,10 @@ class UrlServiceTest {
                     "http://localhost:8080/test1",
                     "https://example1.com",
                     0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     Instant.now().plus(7, ChronoUnit.DAYS),
                     Instant.now());
 
@@ -696,6 +1042,10 @@ class UrlServiceTest {
                     "http://localhost:8080/test2",
                     "https://example2.com",
                     0L,
+                    TrackingPolicy.EXACT,
+                    false,
+                    null,
+                    RedirectPolicy.NO_STORE,
                     Instant.now().plus(7, ChronoUnit.DAYS),
                     Instant.now());
 
@@ -761,6 +1111,10 @@ class UrlServiceTest {
                         "http://localhost:8080/" + mapping.getShortCode(),
                         mapping.getOriginalUrl(),
                         0L,
+                        TrackingPolicy.EXACT,
+                        false,
+                        null,
+                        RedirectPolicy.NO_STORE,
                         mapping.getExpiresAt(),
                         Instant.now());
             });
@@ -811,6 +1165,10 @@ class UrlServiceTest {
                         "http://localhost:8080/" + mapping.getShortCode(),
                         mapping.getOriginalUrl(),
                         0L,
+                        TrackingPolicy.EXACT,
+                        false,
+                        null,
+                        RedirectPolicy.NO_STORE,
                         mapping.getExpiresAt(),
                         Instant.now());
             });
@@ -0,0 +1,97 @@
+package com.shorty.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AccessLogBufferTest {
+
+    @Test
+    @DisplayName("Should round the capacity up to a power of two")
+    void shouldRoundCapacityUp() {
+        assertEquals(8, new AccessLogBuffer(5).capacity());
+        assertEquals(1024, new AccessLogBuffer(1024).capacity());
+    }
+
+    @Test
+    @DisplayName("Should drain entries in the order they were offered")
+    void shouldDrainInOrder() {
+        // Given
+        AccessLogBuffer buffer = new AccessLogBuffer(8);
+        buffer.offer(1L, "aaa", 0, 10L, 1L);
+        buffer.offer(2L, "bbb", 1, 20L, -1L);
+        List<String> drained = new ArrayList<>();
+
+        // When
+        int count = buffer.drain(
+                (timestamp, shortCode, outcome, durationNanos, clicks) ->
+                        drained.add(timestamp + ":" + shortCode + ":" + outcome + ":" + durationNanos + ":" + clicks),
+                10);
+
+        // Then
+        assertEquals(2, count);
+        assertEquals(List.of("1:aaa:0:10:1", "2:bbb:1:20:-1"), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Should reject entries when full and accept them again after a drain")
+    void shouldRejectWhenFull() {
+        // Given
+        AccessLogBuffer buffer = new AccessLogBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i, "code" + i, 0, 0L, 0L));
+        }
+
+        // When/Then
+        assertFalse(buffer.offer(4L, "code4", 0, 0L, 0L));
+        assertEquals(2, buffer.drain((timestamp, shortCode, outcome, durationNanos, clicks) -> {}, 2));
+        assertTrue(buffer.offer(5L, "code5", 0, 0L, 0L));
+        assertEquals(3, buffer.size());
+    }
+
+    @Test
+    @DisplayName("Should not lose or duplicate entries offered concurrently")
+    void shouldHandleConcurrentProducers() throws InterruptedException {
+        // Given
+        int producers = 8;
+        int perProducer = 10_000;
+        AccessLogBuffer buffer = new AccessLogBuffer(1024);
+        Set<Long> seen = new HashSet<>();
+        CountDownLatch done = new CountDownLatch(producers);
+        AccessLogBuffer.Sink sink =
+                (timestamp, shortCode, outcome, durationNanos, clicks) -> assertTrue(seen.add(timestamp));
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                executor.execute(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        long id = (long) producer * perProducer + i;
+                        while (!buffer.offer(id, "code", 0, 0L, 0L)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            while (done.getCount() > 0 || buffer.size() > 0) {
+                buffer.drain(sink, 256);
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        }
+
+        // Then
+        assertEquals(producers * perProducer, seen.size());
+    }
+}
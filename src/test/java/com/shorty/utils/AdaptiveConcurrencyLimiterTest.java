@@ -0,0 +1,117 @@
+package com.shorty.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(5).toNanos();
+    private static final long SLOW = Duration.ofMillis(50).toNanos();
+
+    @Test
+    @DisplayName("Should reject requests beyond the limit until one completes")
+    void shouldRejectBeyondLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+
+        // When
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+
+        // Then
+        assertFalse(limiter.tryAcquire());
+        limiter.release(FAST, false);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should raise the limit while latency stays at its baseline")
+    void shouldRaiseLimitWhileLatencyIsSteady() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+        // When
+        runAtLimit(limiter, FAST, 50);
+
+        // Then
+        assertTrue(limiter.getLimit() > 10);
+        assertTrue(limiter.getLimit() <= 100);
+    }
+
+    @Test
+    @DisplayName("Should lower the limit when queueing drives latency up")
+    void shouldLowerLimitWhenLatencyRises() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100);
+        runAtLimit(limiter, FAST, 50);
+        int before = limiter.getLimit();
+
+        // When
+        runAtLimit(limiter, SLOW, 20);
+
+        // Then
+        assertTrue(limiter.getLimit() < before);
+        assertTrue(limiter.getLimit() >= 2);
+    }
+
+    @Test
+    @DisplayName("Should back off on failures down to the minimum")
+    void shouldBackOffOnFailures() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 5, 100);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST, true);
+        }
+
+        // Then
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should keep its counts and limit consistent under concurrent releases")
+    void shouldStayConsistentUnderConcurrency() throws Exception {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int thread = 0; thread < 8; thread++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (limiter.tryAcquire()) {
+                        limiter.release(i % 10 == 0 ? SLOW : FAST, i % 100 == 0);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+
+        // Then
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.getLimit() >= 2);
+        assertTrue(limiter.getLimit() <= 100);
+    }
+
+    private static void runAtLimit(AdaptiveConcurrencyLimiter limiter, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(rttNanos, false);
+            }
+        }
+    }
+}
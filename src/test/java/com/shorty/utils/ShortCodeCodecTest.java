@@ -0,0 +1,56 @@
+package com.shorty.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class ShortCodeCodecTest {
+
+    @Nested
+    @DisplayName("Encode Tests")
+    class EncodeTests {
+
+        @Test
+        @DisplayName("Should round trip generated codes")
+        void shouldRoundTripGeneratedCodes() {
+            // Given
+            ShortCodeGenerator generator = new ShortCodeGenerator();
+
+            for (int length = 3; length <= 10; length++) {
+                String code = generator.generate(length);
+
+                // When
+                long encoded = ShortCodeCodec.encode(code);
+
+                // Then
+                assertTrue(encoded > 0);
+                assertEquals(code, ShortCodeCodec.decode(encoded));
+            }
+        }
+
+        @Test
+        @DisplayName("Should keep codes of different lengths distinct")
+        void shouldKeepCodesOfDifferentLengthsDistinct() {
+            assertNotEquals(ShortCodeCodec.encode("a"), ShortCodeCodec.encode("aa"));
+            assertNotEquals(ShortCodeCodec.encode("aaa"), ShortCodeCodec.encode("aaaa"));
+        }
+
+        @Test
+        @DisplayName("Should fit the largest code in a positive long")
+        void shouldFitLargestCodeInPositiveLong() {
+            assertTrue(ShortCodeCodec.encode("9999999999") > 0);
+        }
+
+        @Test
+        @DisplayName("Should reject codes outside the alphabet or length")
+        void shouldRejectInvalidCodes() {
+            assertEquals(ShortCodeCodec.INVALID, ShortCodeCodec.encode(null));
+            assertEquals(ShortCodeCodec.INVALID, ShortCodeCodec.encode(""));
+            assertEquals(ShortCodeCodec.INVALID, ShortCodeCodec.encode("favicon.ico"));
+            assertEquals(ShortCodeCodec.INVALID, ShortCodeCodec.encode("abc-12"));
+            assertEquals(ShortCodeCodec.INVALID, ShortCodeCodec.encode("abcdefghijk"));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.shorty.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("Should fire a timer on the first advance at or after its deadline")
+    void shouldFireAtDeadline() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), START);
+        wheel.schedule("abc", START + 5_500);
+
+        // When/Then
+        assertEquals(List.of(), wheel.advance(START + 5_000));
+        assertEquals(List.of("abc"), wheel.advance(START + 6_000));
+        assertEquals(0, wheel.size());
+        assertEquals(List.of(), wheel.advance(START + 7_000));
+    }
+
+    @Test
+    @DisplayName("Should fire deadlines already in the past on the next advance")
+    void shouldFirePastDeadlines() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), START);
+        wheel.advance(START + 10_000);
+        wheel.schedule("abc", START);
+
+        // When/Then
+        assertEquals(List.of("abc"), wheel.advance(START + 10_000));
+    }
+
+    @Test
+    @DisplayName("Should cascade timers from higher levels down to the right tick")
+    void shouldCascadeFromHigherLevels() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), START);
+        wheel.schedule("hour", START + Duration.ofHours(1).toMillis());
+        wheel.schedule("week", START + Duration.ofDays(7).toMillis());
+
+        // When/Then
+        assertEquals(List.of(), wheel.advance(START + Duration.ofHours(1).toMillis() - 1_000));
+        assertEquals(List.of("hour"), wheel.advance(START + Duration.ofHours(1).toMillis()));
+        assertEquals(List.of(), wheel.advance(START + Duration.ofDays(7).toMillis() - 1_000));
+        assertEquals(List.of("week"), wheel.advance(START + Duration.ofDays(7).toMillis()));
+    }
+
+    @Test
+    @DisplayName("Should replace the deadline when a key is scheduled again and drop it when cancelled")
+    void shouldRescheduleAndCancel() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), START);
+        wheel.schedule("moved", START + 2_000);
+        wheel.schedule("moved", START + 200_000);
+        wheel.schedule("cancelled", START + 2_000);
+
+        // When
+        assertTrue(wheel.cancel("cancelled"));
+        assertFalse(wheel.cancel("unknown"));
+
+        // Then
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advance(START + 199_000));
+        assertEquals(List.of("moved"), wheel.advance(START + 200_000));
+    }
+
+    @Test
+    @DisplayName("Should fire every timer exactly once in its own tick")
+    void shouldFireEveryTimerInItsTick() {
+        // Given
+        TimingWheel<Integer> wheel = new TimingWheel<>(Duration.ofSeconds(1), START);
+        Random random = new Random(42);
+        long[] deadlines = new long[20_000];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = START + 1_000L * random.nextInt(1_000_000);
+            wheel.schedule(i, deadlines[i]);
+        }
+
+        // When
+        Set<Integer> fired = new HashSet<>();
+        List<Integer> misplaced = new ArrayList<>();
+        for (long now = START; now < START + 1_003_600_000L; now += 3_600_000L) {
+            for (int key : wheel.advance(now)) {
+                assertTrue(fired.add(key));
+                if (deadlines[key] > now || deadlines[key] <= now - 3_600_000L) {
+                    misplaced.add(key);
+                }
+            }
+        }
+
+        // Then
+        assertEquals(deadlines.length, fired.size());
+        assertEquals(List.of(), misplaced);
+        assertEquals(0, wheel.size());
+    }
+}
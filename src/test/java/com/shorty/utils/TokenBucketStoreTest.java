@@ -0,0 +1,156 @@
+package com.shorty.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketStoreTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final TokenBucketStore store = new TokenBucketStore(4, 1000, now::get);
+
+    @Test
+    @DisplayName("Should allow a full burst and then reject with a retry hint")
+    void shouldAllowBurstThenReject() {
+        // When
+        for (int i = 9; i >= 0; i--) {
+            TokenBucketStore.Decision decision = store.tryConsume("user", 10, MINUTE);
+
+            // Then
+            assertTrue(decision.allowed());
+            assertEquals(i, decision.remaining());
+        }
+
+        TokenBucketStore.Decision rejected = store.tryConsume("user", 10, MINUTE);
+        assertFalse(rejected.allowed());
+        assertEquals(0, rejected.remaining());
+        assertEquals(Duration.ofSeconds(6).toNanos(), rejected.retryAfterNanos());
+        assertEquals(MINUTE, rejected.resetNanos());
+    }
+
+    @Test
+    @DisplayName("Should refill lazily as time passes")
+    void shouldRefillLazily() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            store.tryConsume("user", 10, MINUTE);
+        }
+
+        // When
+        now.addAndGet(Duration.ofSeconds(12).toNanos());
+
+        // Then
+        assertTrue(store.tryConsume("user", 10, MINUTE).allowed());
+        assertTrue(store.tryConsume("user", 10, MINUTE).allowed());
+        assertFalse(store.tryConsume("user", 10, MINUTE).allowed());
+    }
+
+    @Test
+    @DisplayName("Should keep callers independent")
+    void shouldKeepCallersIndependent() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            store.tryConsume("noisy", 10, MINUTE);
+        }
+
+        // When / Then
+        assertFalse(store.tryConsume("noisy", 10, MINUTE).allowed());
+        assertTrue(store.tryConsume("quiet", 10, MINUTE).allowed());
+    }
+
+    @Test
+    @DisplayName("Should evict buckets once they have refilled")
+    void shouldEvictRefilledBuckets() {
+        // Given
+        store.tryConsume("a", 10, MINUTE);
+        store.tryConsume("b", 10, MINUTE);
+        assertEquals(2, store.size());
+
+        // When
+        now.addAndGet(MINUTE);
+        int evicted = store.evictIdle();
+
+        // Then
+        assertEquals(2, evicted);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Should stay within the configured number of buckets")
+    void shouldStayBounded() {
+        // Given
+        TokenBucketStore bounded = new TokenBucketStore(4, 40, now::get);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            bounded.tryConsume("caller-" + i, 10, MINUTE);
+        }
+
+        // Then
+        assertTrue(bounded.size() <= 40);
+    }
+
+    @Test
+    @DisplayName("Should admit a flood of distinct callers without rescanning full stripes")
+    void shouldAdmitManyDistinctCallersCheaply() {
+        // Given
+        TokenBucketStore bounded = new TokenBucketStore(4, 100_000, now::get);
+
+        // When / Then
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 500_000; i++) {
+                assertTrue(bounded.tryConsume("caller-" + i, 10, MINUTE).allowed());
+            }
+        });
+        assertTrue(bounded.size() <= 100_000);
+    }
+
+    @Test
+    @DisplayName("Should displace refilled callers before one that is still refilling when a stripe is full")
+    void shouldKeepRefillingCallerWhenFull() {
+        // Given
+        TokenBucketStore small = new TokenBucketStore(2, 6, now::get);
+        for (int i = 0; i < 10; i++) {
+            small.tryConsume("hot", 10, MINUTE);
+        }
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            now.addAndGet(Duration.ofMillis(10).toNanos());
+            small.tryConsume("caller-" + i, 10, Duration.ofMillis(1).toNanos());
+        }
+
+        // Then
+        assertFalse(small.tryConsume("hot", 10, MINUTE).allowed());
+        assertTrue(small.size() <= 6);
+    }
+
+    @Test
+    @DisplayName("Should not hand out more tokens than capacity under contention")
+    void shouldNotOverAdmitUnderContention() throws Exception {
+        // Given
+        AtomicInteger allowed = new AtomicInteger();
+
+        // When
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 1000; i++) {
+                executor.submit(() -> {
+                    if (store.tryConsume("shared", 100, MINUTE).allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        // Then
+        assertEquals(100, allowed.get());
+    }
+}
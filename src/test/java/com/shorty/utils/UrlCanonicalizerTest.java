@@ -0,0 +1,52 @@
+package com.shorty.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class UrlCanonicalizerTest {
+
+    @Test
+    @DisplayName("Should normalize scheme, host, default port and empty path")
+    void shouldNormalizeEquivalentForms() {
+        String canonical = UrlCanonicalizer.canonicalize("https://example.com/");
+
+        assertEquals(canonical, UrlCanonicalizer.canonicalize("HTTPS://Example.COM"));
+        assertEquals(canonical, UrlCanonicalizer.canonicalize("https://example.com:443/"));
+        assertEquals(canonical, UrlCanonicalizer.canonicalize("  https://example.com./ "));
+    }
+
+    @Test
+    @DisplayName("Should keep path, query and fragment as sent")
+    void shouldKeepPathQueryAndFragment() {
+        assertEquals(
+                "https://example.com/Docs?q=A%20B#Top",
+                UrlCanonicalizer.canonicalize("https://EXAMPLE.com/Docs?q=A%20B#Top"));
+        assertNotEquals(
+                UrlCanonicalizer.canonicalize("https://example.com/docs"),
+                UrlCanonicalizer.canonicalize("https://example.com/Docs"));
+    }
+
+    @Test
+    @DisplayName("Should keep non-default ports")
+    void shouldKeepNonDefaultPorts() {
+        assertEquals("http://example.com:8080/", UrlCanonicalizer.canonicalize("http://example.com:8080"));
+        assertEquals("http://example.com/", UrlCanonicalizer.canonicalize("http://example.com:80"));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the trimmed input for unparseable URLs")
+    void shouldFallBackForUnparseableUrls() {
+        assertEquals("https://exa mple.com/", UrlCanonicalizer.canonicalize(" https://exa mple.com/"));
+    }
+
+    @Test
+    @DisplayName("Should hash equal canonical URLs to the same value")
+    void shouldHashEqualUrlsToSameValue() {
+        long hash = UrlCanonicalizer.hash(UrlCanonicalizer.canonicalize("https://example.com"));
+
+        assertEquals(hash, UrlCanonicalizer.hash(UrlCanonicalizer.canonicalize("HTTPS://EXAMPLE.COM:443/")));
+        assertNotEquals(hash, UrlCanonicalizer.hash(UrlCanonicalizer.canonicalize("https://example.org")));
+    }
+}